@@ -22,6 +22,8 @@ public class ApiClient {
     private final HttpClient http;
     private final ObjectMapper mapper;
     private String jwtToken;
+    private String refreshToken;
+    private String clientAddress;
 
     public ApiClient() {
         this(System.getenv().getOrDefault("API_BASE_URL", "http://localhost:8081/api"));
@@ -44,14 +46,32 @@ public class ApiClient {
         return jwtToken;
     }
 
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    /**
+     * Address of the browser this client acts for, sent as X-Forwarded-For so the API rate-limits
+     * each user's address rather than this server's. The API only believes the header from the
+     * addresses listed in its server.tomcat.remoteip.internal-proxies, so this host's address must be
+     * there (docker-compose gives this container a fixed one); otherwise every user shares its budget.
+     */
+    public void setClientAddress(String clientAddress) {
+        this.clientAddress = clientAddress;
+    }
+
     public String login(String username, String password) throws IOException, InterruptedException, ApiException {
         Map<String, String> payload = Map.of("username", username, "password", password);
         String json = mapper.writeValueAsString(payload);
-        HttpRequest req = HttpRequest.newBuilder()
+        HttpRequest req = forwarded(HttpRequest.newBuilder()
                 .uri(URI.create(baseUrl + "/auth/login"))
                 .timeout(Duration.ofSeconds(15))
                 .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8))
+                .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8)))
                 .build();
         HttpResponse<String> res = http.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
         if (res.statusCode() / 100 != 2) {
@@ -68,16 +88,42 @@ public class ApiClient {
             throw new ApiException("Login response did not include a token");
         }
         this.jwtToken = token;
+        this.refreshToken = auth.getRefreshToken();
         return token;
     }
 
+    /**
+     * Trades the refresh token for a new access/refresh token pair (the old refresh token is
+     * single-use). Returns false when there is none or the server refused it.
+     */
+    public boolean refresh() throws IOException, InterruptedException {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return false;
+        }
+        String json = mapper.writeValueAsString(Map.of("refreshToken", refreshToken));
+        HttpRequest req = forwarded(HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/auth/refresh"))
+                .timeout(Duration.ofSeconds(15))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8)))
+                .build();
+        HttpResponse<String> res = http.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        if (res.statusCode() / 100 != 2) {
+            refreshToken = null;
+            return false;
+        }
+        AuthResponse auth = mapper.readValue(res.body(), AuthResponse.class);
+        this.jwtToken = auth.getToken();
+        this.refreshToken = auth.getRefreshToken();
+        return jwtToken != null && !jwtToken.isBlank();
+    }
+
     public List<Doctor> listDoctors() throws IOException, InterruptedException, ApiException {
         HttpRequest.Builder b = HttpRequest.newBuilder()
                 .uri(URI.create(baseUrl + "/doctors"))
                 .timeout(Duration.ofSeconds(15))
                 .GET();
-        withAuth(b);
-        HttpResponse<String> res = http.send(b.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        HttpResponse<String> res = sendAuthorized(b);
         if (res.statusCode() / 100 != 2) {
             throw new ApiException("Failed to load doctors: " + res.statusCode() + " " + res.body());
         }
@@ -99,18 +145,36 @@ public class ApiClient {
                 .timeout(Duration.ofSeconds(20))
                 .header("Content-Type", "application/json")
                 .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8));
-        withAuth(b);
-        HttpResponse<String> res = http.send(b.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        HttpResponse<String> res = sendAuthorized(b);
         if (res.statusCode() / 100 != 2) {
             throw new ApiException("Create patient failed: " + res.statusCode() + " " + res.body());
         }
         return mapper.readValue(res.body(), Patient.class);
     }
 
+    // Access tokens are short-lived: an expired one is renewed once with the refresh token and the request retried
+    private HttpResponse<String> sendAuthorized(HttpRequest.Builder b) throws IOException, InterruptedException {
+        forwarded(b);
+        withAuth(b);
+        HttpResponse<String> res = http.send(b.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        if (res.statusCode() == 401 && refresh()) {
+            withAuth(b);
+            res = http.send(b.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        }
+        return res;
+    }
+
     private void withAuth(HttpRequest.Builder b) {
         if (jwtToken != null && !jwtToken.isBlank()) {
-            b.header("Authorization", "Bearer " + jwtToken);
+            b.setHeader("Authorization", "Bearer " + jwtToken);
+        }
+    }
+
+    private HttpRequest.Builder forwarded(HttpRequest.Builder b) {
+        if (clientAddress != null && !clientAddress.isBlank()) {
+            b.setHeader("X-Forwarded-For", clientAddress);
         }
+        return b;
     }
 
     public static class ApiException extends Exception {
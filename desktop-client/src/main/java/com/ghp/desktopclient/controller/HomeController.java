@@ -5,6 +5,7 @@ import com.ghp.desktopclient.ApiClient.ApiException;
 import com.ghp.desktopclient.models.Doctor;
 import com.ghp.desktopclient.models.Patient;
 import com.ghp.desktopclient.Validation;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -20,7 +21,7 @@ import java.util.List;
 public class HomeController {
     
     @GetMapping("/home")
-    public String home(HttpSession session, Model model) {
+    public String home(HttpServletRequest request, HttpSession session, Model model) {
         String token = (String) session.getAttribute("jwtToken");
         if (token == null) {
             return "redirect:/login";
@@ -30,9 +31,9 @@ public class HomeController {
         
         // Load doctors
         try {
-            ApiClient apiClient = new ApiClient();
-            apiClient.setJwtToken(token);
+            ApiClient apiClient = apiClient(request, session, token);
             List<Doctor> doctors = apiClient.listDoctors();
+            saveTokens(session, apiClient);
             model.addAttribute("doctors", doctors != null ? doctors : List.of());
             if (doctors != null && !doctors.isEmpty()) {
                 model.addAttribute("doctorsCount", doctors.size());
@@ -61,6 +62,7 @@ public class HomeController {
             @RequestParam String telephone,
             @RequestParam String email,
             @RequestParam String adresse,
+            HttpServletRequest request,
             HttpSession session,
             RedirectAttributes redirectAttributes) {
         
@@ -85,11 +87,11 @@ public class HomeController {
         }
         
         try {
-            ApiClient apiClient = new ApiClient();
-            apiClient.setJwtToken(token);
+            ApiClient apiClient = apiClient(request, session, token);
             Patient patient = new Patient(nom.trim(), dateNaissance.trim(), sexe.trim(), 
                                          telephone.trim(), email.trim(), adresse.trim());
             Patient created = apiClient.createPatient(patient);
+            saveTokens(session, apiClient);
             String patientId = created.getPatientId() != null ? created.getPatientId() : 
                               (created.getId() != null ? created.getId() : "Unknown");
             redirectAttributes.addFlashAttribute("patientSuccess", 
@@ -109,5 +111,18 @@ public class HomeController {
         
         return "redirect:/home";
     }
-}
 
+    private ApiClient apiClient(HttpServletRequest request, HttpSession session, String token) {
+        ApiClient apiClient = new ApiClient();
+        apiClient.setClientAddress(request.getRemoteAddr());
+        apiClient.setJwtToken(token);
+        apiClient.setRefreshToken((String) session.getAttribute("refreshToken"));
+        return apiClient;
+    }
+
+    // The client may have renewed the tokens; the old refresh token no longer works
+    private void saveTokens(HttpSession session, ApiClient apiClient) {
+        session.setAttribute("jwtToken", apiClient.getJwtToken());
+        session.setAttribute("refreshToken", apiClient.getRefreshToken());
+    }
+}
@@ -7,6 +7,7 @@ public class AuthResponse {
     private String token;
     private String jwt;
     private String accessToken;
+    private String refreshToken;
     private String username;
 
     public String getToken() { return token; }
@@ -15,6 +16,8 @@ public class AuthResponse {
     public void setJwt(String jwt) { this.jwt = jwt; }
     public String getAccessToken() { return accessToken; }
     public void setAccessToken(String accessToken) { this.accessToken = accessToken; }
+    public String getRefreshToken() { return refreshToken; }
+    public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
     public String getUsername() { return username; }
     public void setUsername(String username) { this.username = username; }
 }
@@ -0,0 +1,93 @@
+package com.ghp.gestionhospitale.bench;
+
+import com.ghp.gestionhospitale.dto.AppointmentReport;
+import com.ghp.gestionhospitale.model.Appointment;
+import com.ghp.gestionhospitale.model.Doctor;
+import com.ghp.gestionhospitale.model.Patient;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic in-memory data for the benchmarks: the same seed always gives the same rows,
+ * so results from different runs are comparable.
+ */
+public final class SyntheticData {
+
+    public static final LocalDate DAY = LocalDate.of(2025, 3, 3);
+    private static final String[] SPECIALTIES = {"Cardiologie", "Dermatologie", "Pédiatrie", "Neurologie",
+            "Radiologie", "Ophtalmologie", "Généraliste", "Gynécologie"};
+    private static final String[] STATUSES = {"PLANIFIE", "TERMINE", "ANNULE"};
+
+    private SyntheticData() {
+    }
+
+    public static Map<String, Doctor> doctors(int count) {
+        Map<String, Doctor> doctors = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String doctorId = "D" + (2000 + i);
+            doctors.put(doctorId, new Doctor(doctorId, "Dr. Médecin " + i, SPECIALTIES[i % SPECIALTIES.length],
+                    "doctor" + i + "@ghp.local", "0600000000"));
+        }
+        return doctors;
+    }
+
+    public static Map<String, Patient> patients(int count) {
+        Map<String, Patient> patients = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String patientId = "P" + (1000 + i);
+            patients.put(patientId, new Patient(patientId, "Patient Numéro " + i, LocalDate.of(1980, 1, 1),
+                    i % 2 == 0 ? "F" : "M", "0700000000", "patient" + i + "@ghp.local", "Casablanca"));
+        }
+        return patients;
+    }
+
+    public static List<Appointment> appointments(int rows, int doctorCount, int patientCount) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Appointment> appointments = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Appointment appointment = new Appointment("A" + i,
+                    "P" + (1000 + random.nextInt(patientCount)),
+                    "D" + (2000 + random.nextInt(doctorCount)),
+                    DAY.plusDays(random.nextInt(30)),
+                    String.format("%02d:%02d", 8 + random.nextInt(10), random.nextBoolean() ? 0 : 30),
+                    STATUSES[random.nextInt(STATUSES.length)],
+                    null);
+            appointment.setId(Integer.toHexString(i));
+            appointments.add(appointment);
+        }
+        return appointments;
+    }
+
+    public static List<AppointmentReport> reports(int rows) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<AppointmentReport> reports = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            int patient = random.nextInt(Math.max(1, rows / 5));
+            int doctor = random.nextInt(200);
+            reports.add(new AppointmentReport(Integer.toHexString(i), "A" + i,
+                    "P" + (1000 + patient), "Patient Numéro " + patient,
+                    "D" + (2000 + doctor), "Dr. Médecin " + doctor,
+                    DAY, String.format("%02d:%02d", 8 + random.nextInt(10), random.nextBoolean() ? 0 : 30),
+                    STATUSES[random.nextInt(STATUSES.length)]));
+        }
+        return reports;
+    }
+
+    // Grouped rows as the report endpoints return them
+    public static List<Map<String, Object>> counts(String idKey, String nameKey, String prefix, int groups) {
+        List<Map<String, Object>> result = new ArrayList<>(groups);
+        for (int i = 0; i < groups; i++) {
+            Map<String, Object> item = new HashMap<>();
+            item.put(idKey, prefix + i);
+            item.put(nameKey, nameKey + " " + i);
+            item.put("count", (long) (groups - i));
+            result.add(item);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,63 @@
+package com.ghp.gestionhospitale.controller;
+
+import com.ghp.gestionhospitale.bench.SyntheticData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PDF and DOCX export of a report whose daily list has the given number of rows. The grouped
+ * sections stay small, as in practice.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ReportRenderingBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int rows;
+
+    private final ReportExportController controller = new ReportExportController(null, new SimpleMeterRegistry());
+    private ReportExportController.ReportData data;
+
+    @Setup
+    public void setUp() {
+        data = new ReportExportController.ReportData();
+        data.date = SyntheticData.DAY;
+        data.doctorFrom = SyntheticData.DAY.minusDays(30);
+        data.doctorTo = SyntheticData.DAY;
+        data.specialtyFrom = SyntheticData.DAY.minusDays(30);
+        data.specialtyTo = SyntheticData.DAY;
+        data.frequentFrom = SyntheticData.DAY.minusDays(90);
+        data.frequentMin = 3;
+        data.appointmentsByDate = SyntheticData.reports(rows);
+        data.appointmentsPerDoctor = SyntheticData.counts("doctorId", "doctorName", "D", 200);
+        data.appointmentsPerSpecialty = SyntheticData.counts("specialty", "specialty", "S", 8);
+        data.frequentPatients = SyntheticData.counts("patientId", "patientName", "P", 50);
+    }
+
+    @Benchmark
+    public byte[] pdf() throws IOException {
+        return controller.buildPdf(data);
+    }
+
+    @Benchmark
+    public byte[] docx() throws IOException {
+        return controller.buildDocx(data);
+    }
+}
@@ -0,0 +1,55 @@
+package com.ghp.gestionhospitale.security;
+
+import com.ghp.gestionhospitale.model.User;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issuing and full verification (signature, expiry, claims to principal) as done on a
+ * verified-token cache miss.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil("benchmark-secret-key-with-at-least-256-bits-0123456789", 900_000);
+        user = new User("patient.bench", null, "PATIENT", "P1000");
+        token = jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public Claims parse() {
+        return jwtUtil.extractAllClaims(token);
+    }
+
+    @Benchmark
+    public User parseToPrincipal() {
+        return jwtUtil.toPrincipal(jwtUtil.extractAllClaims(token));
+    }
+}
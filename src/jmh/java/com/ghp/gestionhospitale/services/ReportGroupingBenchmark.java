@@ -0,0 +1,80 @@
+package com.ghp.gestionhospitale.services;
+
+import com.ghp.gestionhospitale.bench.SyntheticData;
+import com.ghp.gestionhospitale.dto.AppointmentReport;
+import com.ghp.gestionhospitale.model.Appointment;
+import com.ghp.gestionhospitale.model.Doctor;
+import com.ghp.gestionhospitale.model.Patient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-memory half of each report (name resolution, grouping, sorting) over synthetic
+ * appointment lists, without MongoDB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportGroupingBenchmark {
+
+    private static final int DOCTORS = 200;
+
+    @Param({"100", "10000", "100000"})
+    public int rows;
+
+    private List<Appointment> appointments;
+    private Map<String, Doctor> doctors;
+    private Map<String, Patient> patients;
+    private Map<String, Long> patientCounts;
+
+    @Setup
+    public void setUp() {
+        int patientCount = Math.max(1, rows / 5);
+        appointments = SyntheticData.appointments(rows, DOCTORS, patientCount);
+        doctors = SyntheticData.doctors(DOCTORS);
+        patients = SyntheticData.patients(patientCount);
+        patientCounts = ReportService.countByPatient(appointments);
+    }
+
+    @Benchmark
+    public List<AppointmentReport> appointmentsByDate() {
+        return ReportService.toReports(appointments, patients, doctors);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> appointmentsPerDoctor() {
+        return ReportService.perDoctor(ReportService.countByDoctor(appointments), doctors);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> appointmentsPerSpecialty() {
+        return ReportService.perSpecialty(appointments, doctors);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> frequentPatients() {
+        Map<String, Long> counts = ReportService.countByPatient(appointments);
+        return ReportService.frequentPatients(counts, 3, patients);
+    }
+
+    @Benchmark
+    public List<String> frequentPatientIds() {
+        return ReportService.frequentPatientIds(patientCounts, 3);
+    }
+}
@@ -0,0 +1,77 @@
+package com.ghp.gestionhospitale.services;
+
+import com.ghp.gestionhospitale.bench.SyntheticData;
+import com.ghp.gestionhospitale.model.Doctor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Availability computation for one doctor and one day, across schedule shapes: slot length,
+ * day length, lunch break and how much of the day is already booked.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SlotGenerationBenchmark {
+
+    @Param({"standard", "short-slots", "long-day", "half-booked", "fully-booked"})
+    public String shape;
+
+    private final AppointmentService appointmentService = new AppointmentService();
+    private Doctor doctor;
+    private List<String> bookedSlots;
+
+    @Setup
+    public void setUp() {
+        doctor = new Doctor("D2000", "Dr. Médecin", "Cardiologie", "doctor@ghp.local", "0600000000");
+        doctor.setWorkingDays(List.of("Monday", "Tuesday", "Wednesday", "Thursday", "Friday"));
+        doctor.setBreakTime(new Doctor.BreakTime("12:00", "13:00"));
+        doctor.setWorkingHours(new Doctor.WorkingHours("09:00", "17:00"));
+        doctor.setAppointmentDuration(30);
+        switch (shape) {
+            case "short-slots" -> doctor.setAppointmentDuration(10);
+            case "long-day" -> {
+                doctor.setWorkingHours(new Doctor.WorkingHours("07:00", "21:00"));
+                doctor.setAppointmentDuration(15);
+            }
+            default -> {
+            }
+        }
+
+        List<String> allSlots = appointmentService.computeAvailableSlots(doctor, SyntheticData.DAY, List.of());
+        bookedSlots = switch (shape) {
+            case "half-booked" -> everyOther(allSlots);
+            case "fully-booked" -> allSlots;
+            default -> List.of();
+        };
+    }
+
+    @Benchmark
+    public List<String> availableSlots() {
+        return appointmentService.computeAvailableSlots(doctor, SyntheticData.DAY, bookedSlots);
+    }
+
+    private static List<String> everyOther(List<String> slots) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < slots.size(); i += 2) {
+            result.add(slots.get(i));
+        }
+        return result;
+    }
+}
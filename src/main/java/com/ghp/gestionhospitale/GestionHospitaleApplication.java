@@ -1,9 +1,14 @@
 package com.ghp.gestionhospitale;
 
+import com.ghp.gestionhospitale.config.BootstrapProbe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
@@ -11,23 +16,37 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 @EnableScheduling
 public class GestionHospitaleApplication implements CommandLineRunner {
 
+    private static final Logger log = LoggerFactory.getLogger(GestionHospitaleApplication.class);
+
+    // Startup steps kept for GET /api/admin/startup
+    private static final int STARTUP_STEPS_CAPACITY = 8192;
+
+    // Absent with the inmem profile
+    @Autowired
+    private ObjectProvider<MongoTemplate> mongoTemplate;
+
     @Autowired
-    private MongoTemplate mongoTemplate;
+    private BootstrapProbe bootstrapProbe;
 
     public static void main(String[] args) {
-        SpringApplication.run(GestionHospitaleApplication.class, args);
+        SpringApplication application = new SpringApplication(GestionHospitaleApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS_CAPACITY));
+        application.run(args);
     }
 
     @Override
     public void run(String... args) throws Exception {
-        // Test MongoDB connection
+        // Test MongoDB connection (the initializers' probe already went to the server, reuse it)
+        MongoTemplate template = mongoTemplate.getIfAvailable();
+        if (template == null) {
+            log.info("Storage: in-memory repositories (inmem profile)");
+            return;
+        }
         try {
-            System.out.println("MongoDB Connection: SUCCESS");
-            System.out.println("Database: " + mongoTemplate.getDb().getName());
-
+            bootstrapProbe.state();
+            log.info("MongoDB connection: SUCCESS, database {}", template.getDb().getName());
         } catch (Exception e) {
-            System.out.println(" MongoDB Connection: FAILED");
-            System.out.println("Error: " + e.getMessage());
+            log.error("MongoDB connection: FAILED ({})", e.getMessage());
         }
     }
 }
@@ -0,0 +1,32 @@
+package com.ghp.gestionhospitale.cache;
+
+/**
+ * A change to one of the cached collections, raised for local writes and for changes seen on the
+ * change stream (i.e. made by any instance). For UPSERT the entity holds the current state of the
+ * document when it is known; RESET means cached data for the collection (or all collections when
+ * collection is null) can no longer be trusted.
+ */
+public record CacheInvalidationEvent(String collection, Type type, String id, Object entity) {
+
+    public enum Type {
+        UPSERT,
+        DELETE,
+        RESET
+    }
+
+    public static CacheInvalidationEvent upsert(String collection, String id, Object entity) {
+        return new CacheInvalidationEvent(collection, Type.UPSERT, id, entity);
+    }
+
+    public static CacheInvalidationEvent delete(String collection, String id) {
+        return new CacheInvalidationEvent(collection, Type.DELETE, id, null);
+    }
+
+    public static CacheInvalidationEvent reset(String collection) {
+        return new CacheInvalidationEvent(collection, Type.RESET, null, null);
+    }
+
+    public boolean affects(String name) {
+        return collection == null || collection.equals(name);
+    }
+}
@@ -0,0 +1,323 @@
+package com.ghp.gestionhospitale.cache;
+
+import com.ghp.gestionhospitale.model.Appointment;
+import com.ghp.gestionhospitale.model.Doctor;
+import com.ghp.gestionhospitale.model.Patient;
+import com.ghp.gestionhospitale.model.RevokedToken;
+import com.ghp.gestionhospitale.model.User;
+import com.mongodb.MongoException;
+import com.mongodb.MongoServerException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the doctors, patients, appointments, users and revoked_tokens collections with a MongoDB change stream and
+ * turns every change, whichever instance made it, into a CacheInvalidationEvent.
+ * <p>
+ * The resume token is stored per instance in cache_resume_tokens, so a restarted or reconnected
+ * instance continues where it stopped. Change streams need a replica set (a single-node one is
+ * enough); when they are unavailable the lookup caches fall back to a short TTL and the stream
+ * is retried periodically.
+ * <p>
+ * Updates of a user's lastLoginAt alone are filtered out on the server: every login makes one and
+ * nothing cached depends on it.
+ */
+@Component
+@Profile("!inmem")
+public class ChangeStreamInvalidator {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeStreamInvalidator.class);
+
+    static final String TOKEN_COLLECTION = "cache_resume_tokens";
+
+    // ChangeStreamFatalError / ChangeStreamHistoryLost: the stored resume point is gone from the oplog
+    private static final Set<Integer> RESUME_POINT_LOST = Set.of(280, 286);
+    private static final long TOKEN_SAVE_INTERVAL_MS = 5_000;
+    private static final Map<String, Class<?>> ENTITY_TYPES = Map.of(
+            "doctors", Doctor.class,
+            "patients", Patient.class,
+            "appointments", Appointment.class,
+            "users", User.class,
+            "revoked_tokens", RevokedToken.class);
+
+    // Not a change for the caches: an update of the users collection that only sets lastLoginAt
+    private static final Document LOGIN_RECORD = Document.parse("""
+            {$and: [
+              {$eq: ["$operationType", "update"]},
+              {$eq: ["$ns.coll", "users"]},
+              {$eq: [{$map: {input: {$objectToArray: "$updateDescription.updatedFields"}, in: "$$this.k"}}, ["lastLoginAt"]]},
+              {$eq: [{$size: {$ifNull: ["$updateDescription.removedFields", []]}}, 0]}
+            ]}""");
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LookupCacheTtl lookupCacheTtl;
+    private final boolean enabled;
+    private final long retryMillis;
+    private final String instanceId;
+
+    private volatile boolean running;
+    private volatile Thread worker;
+
+    // Only touched by the worker thread
+    private BsonDocument resumeToken;
+    private BsonDocument savedToken;
+    private long lastTokenSave;
+    private boolean downReported;
+
+    public ChangeStreamInvalidator(MongoTemplate mongoTemplate,
+                                   ApplicationEventPublisher eventPublisher,
+                                   LookupCacheTtl lookupCacheTtl,
+                                   @Value("${cache.change-stream.enabled:true}") boolean enabled,
+                                   @Value("${cache.change-stream.retry-seconds:30}") long retrySeconds,
+                                   @Value("${cache.change-stream.instance-id:}") String instanceId,
+                                   @Value("${server.port:8080}") int serverPort) {
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+        this.lookupCacheTtl = lookupCacheTtl;
+        this.enabled = enabled;
+        this.retryMillis = TimeUnit.SECONDS.toMillis(retrySeconds);
+        this.instanceId = instanceId.isBlank() ? hostName() + ":" + serverPort : instanceId;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Change-stream cache invalidation disabled, lookup caches rely on TTL expiry");
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::run, "cache-change-stream");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        Thread thread = worker;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void run() {
+        ensureTokenIndex();
+        resumeToken = loadResumeToken();
+
+        while (running) {
+            try {
+                // Returns normally only when stopping or after an invalidate, which reopens at once
+                watch();
+                continue;
+            } catch (MongoServerException e) {
+                if (!running) {
+                    break;
+                }
+                if (RESUME_POINT_LOST.contains(e.getCode()) && resumeToken != null) {
+                    log.warn("Stored change-stream resume token is no longer in the oplog, restarting from now");
+                    resumeToken = null;
+                    continue;
+                }
+                streamDown(e);
+            } catch (MongoException | IllegalStateException e) {
+                if (!running) {
+                    break;
+                }
+                streamDown(e);
+            }
+            pause();
+        }
+        saveResumeToken(true);
+    }
+
+    private void watch() {
+        ChangeStreamIterable<Document> stream = mongoTemplate.getDb()
+                .watch(List.of(Aggregates.match(Filters.and(
+                        Filters.in("ns.coll", LookupCaches.WATCHED_COLLECTIONS),
+                        Filters.expr(new Document("$not", List.of(LOGIN_RECORD)))))))
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        boolean resumed = resumeToken != null;
+        if (resumed) {
+            stream = stream.resumeAfter(resumeToken);
+        }
+
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+            if (!resumed) {
+                // Starting from "now": whatever was cached before may have missed changes
+                eventPublisher.publishEvent(CacheInvalidationEvent.reset(null));
+            }
+            lookupCacheTtl.setChangeStreamLive(true);
+            downReported = false;
+            log.info("Watching {} for cache invalidation{}", LookupCaches.WATCHED_COLLECTIONS, resumed ? " (resumed)" : "");
+
+            while (running) {
+                ChangeStreamDocument<Document> change = cursor.tryNext();
+                if (change != null && !publish(change)) {
+                    return;
+                }
+                BsonDocument token = cursor.getResumeToken();
+                if (token != null) {
+                    resumeToken = token;
+                    saveResumeToken(false);
+                }
+            }
+        }
+    }
+
+    /**
+     * Publishes the invalidation for one change; false when the stream was invalidated and must be reopened.
+     */
+    private boolean publish(ChangeStreamDocument<Document> change) {
+        String collection = change.getNamespace() != null ? change.getNamespace().getCollectionName() : null;
+        OperationType operation = change.getOperationType();
+        String id = idOf(change.getDocumentKey());
+
+        switch (operation) {
+            case INSERT, UPDATE, REPLACE -> {
+                Document fullDocument = change.getFullDocument();
+                if (fullDocument == null) {
+                    // Deleted again before the lookup
+                    eventPublisher.publishEvent(CacheInvalidationEvent.delete(collection, id));
+                } else if (operation == OperationType.UPDATE && movedToAnotherDoctor(change)) {
+                    // The previous doctor is unknown, so all booked times are dropped
+                    eventPublisher.publishEvent(CacheInvalidationEvent.reset(collection));
+                } else {
+                    Object entity = mongoTemplate.getConverter().read(ENTITY_TYPES.get(collection), fullDocument);
+                    eventPublisher.publishEvent(CacheInvalidationEvent.upsert(collection, id, entity));
+                }
+            }
+            case DELETE -> eventPublisher.publishEvent(CacheInvalidationEvent.delete(collection, id));
+            case INVALIDATE -> {
+                eventPublisher.publishEvent(CacheInvalidationEvent.reset(null));
+                resumeToken = null;
+                return false;
+            }
+            // drop, rename, dropDatabase and anything newer
+            default -> eventPublisher.publishEvent(CacheInvalidationEvent.reset(collection));
+        }
+        return true;
+    }
+
+    private static boolean movedToAnotherDoctor(ChangeStreamDocument<Document> change) {
+        return change.getUpdateDescription() != null
+                && change.getUpdateDescription().getUpdatedFields() != null
+                && change.getUpdateDescription().getUpdatedFields().containsKey("doctorId");
+    }
+
+    private void streamDown(Exception e) {
+        boolean wasLive = lookupCacheTtl.isChangeStreamLive();
+        lookupCacheTtl.setChangeStreamLive(false);
+        if (wasLive) {
+            // Changes made while the stream is down would go unnoticed
+            eventPublisher.publishEvent(CacheInvalidationEvent.reset(null));
+        }
+        if (wasLive || !downReported) {
+            log.warn("Change stream unavailable ({}), lookup caches fall back to TTL expiry; retrying every {}s",
+                    e.getMessage(), Duration.ofMillis(retryMillis).toSeconds());
+            downReported = true;
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(retryMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private BsonDocument loadResumeToken() {
+        try {
+            Document stored = mongoTemplate.findById(instanceId, Document.class, TOKEN_COLLECTION);
+            Object token = stored != null ? stored.get("token") : null;
+            savedToken = token instanceof Document document ? BsonDocument.parse(document.toJson()) : null;
+            return savedToken;
+        } catch (MongoException e) {
+            return null;
+        }
+    }
+
+    private void saveResumeToken(boolean force) {
+        long now = System.currentTimeMillis();
+        if (resumeToken == null || resumeToken.equals(savedToken)
+                || (!force && now - lastTokenSave < TOKEN_SAVE_INTERVAL_MS)) {
+            return;
+        }
+        try {
+            mongoTemplate.upsert(new Query(Criteria.where("_id").is(instanceId)),
+                    new Update().set("token", Document.parse(resumeToken.toJson())).set("updatedAt", new Date(now)),
+                    TOKEN_COLLECTION);
+            savedToken = resumeToken;
+            lastTokenSave = now;
+        } catch (MongoException e) {
+            // Best effort: at worst a restart replays a few more changes
+        }
+    }
+
+    // Tokens of instances that are gone expire on their own
+    private void ensureTokenIndex() {
+        try {
+            mongoTemplate.indexOps(TOKEN_COLLECTION).ensureIndex(new Index()
+                    .on("updatedAt", Sort.Direction.ASC)
+                    .expire(Duration.ofDays(30))
+                    .named("updatedAt_ttl"));
+        } catch (MongoException e) {
+            log.warn("Could not create the resume token TTL index: {}", e.getMessage());
+        }
+    }
+
+    private static String idOf(BsonDocument documentKey) {
+        BsonValue id = documentKey != null ? documentKey.get("_id") : null;
+        if (id == null) {
+            return null;
+        }
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : null;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "localhost";
+        }
+    }
+}
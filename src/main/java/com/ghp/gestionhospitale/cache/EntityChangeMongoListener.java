@@ -0,0 +1,50 @@
+package com.ghp.gestionhospitale.cache;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Invalidates the local caches synchronously on repository saves and deletes, so this instance
+ * reads its own writes without waiting for the change stream.
+ */
+@Component
+public class EntityChangeMongoListener extends AbstractMongoEventListener<Object> {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public EntityChangeMongoListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Object> event) {
+        if (LookupCaches.isWatched(event.getCollectionName())) {
+            eventPublisher.publishEvent(CacheInvalidationEvent.upsert(
+                    event.getCollectionName(), idOf(event.getDocument()), event.getSource()));
+        }
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Object> event) {
+        if (LookupCaches.isWatched(event.getCollectionName())) {
+            String id = idOf(event.getSource());
+            // A delete by anything other than a single id (e.g. deleteAll) may have removed many documents
+            eventPublisher.publishEvent(id != null
+                    ? CacheInvalidationEvent.delete(event.getCollectionName(), id)
+                    : CacheInvalidationEvent.reset(event.getCollectionName()));
+        }
+    }
+
+    private static String idOf(Document document) {
+        Object id = document != null ? document.get("_id") : null;
+        if (id instanceof ObjectId objectId) {
+            return objectId.toHexString();
+        }
+        return id instanceof String value ? value : null;
+    }
+}
@@ -0,0 +1,49 @@
+package com.ghp.gestionhospitale.cache;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Expiry of the lookup cache entries. While the change stream is live, entries are invalidated as
+ * soon as any instance writes and the long TTL only bounds memory; without it, entries fall back
+ * to a short TTL so a stale value is never served for long.
+ */
+@Component
+public class LookupCacheTtl implements Expiry<Object, Object> {
+
+    private final long ttlNanos;
+    private final long fallbackTtlNanos;
+    private volatile boolean changeStreamLive;
+
+    public LookupCacheTtl(@Value("${cache.lookup.ttl-seconds:600}") long ttlSeconds,
+                          @Value("${cache.lookup.fallback-ttl-seconds:30}") long fallbackTtlSeconds) {
+        this.ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        this.fallbackTtlNanos = Duration.ofSeconds(fallbackTtlSeconds).toNanos();
+    }
+
+    public boolean isChangeStreamLive() {
+        return changeStreamLive;
+    }
+
+    public void setChangeStreamLive(boolean changeStreamLive) {
+        this.changeStreamLive = changeStreamLive;
+    }
+
+    @Override
+    public long expireAfterCreate(Object key, Object value, long currentTime) {
+        return changeStreamLive ? ttlNanos : fallbackTtlNanos;
+    }
+
+    @Override
+    public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+        return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+}
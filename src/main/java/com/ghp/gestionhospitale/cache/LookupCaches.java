@@ -0,0 +1,242 @@
+package com.ghp.gestionhospitale.cache;
+
+import com.ghp.gestionhospitale.model.Appointment;
+import com.ghp.gestionhospitale.model.Doctor;
+import com.ghp.gestionhospitale.model.Patient;
+import com.ghp.gestionhospitale.model.User;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In-process caches of the lookups on the booking path: doctors and patients by any of their
+ * identifiers, the booked times of a doctor on a day, and user accounts by username. Kept coherent
+ * across instances by CacheInvalidationEvent (local writes and the MongoDB change stream).
+ * <p>
+ * An invalidation only touches the entries it concerns: booked times are cached per doctor (a map
+ * of day to times), and the keys each doctor, patient or user is cached under are indexed by its id.
+ */
+@Component
+public class LookupCaches {
+
+    public static final String DOCTORS = "doctors";
+    public static final String PATIENTS = "patients";
+    public static final String AVAILABILITY = "availability";
+    public static final String USERS = "users";
+    public static final List<String> NAMES = List.of(DOCTORS, PATIENTS, AVAILABILITY, USERS);
+
+    // MongoDB collections whose changes invalidate these caches (and the token revocation list)
+    public static final List<String> WATCHED_COLLECTIONS = List.of("doctors", "patients", "appointments", "users", "revoked_tokens");
+
+    private final Cache doctors;
+    private final Cache patients;
+    private final Cache availability;
+    private final Cache users;
+
+    // Bumped by every availability invalidation (per doctor, or all of them), before the entries are
+    // dropped: a load that was already reading MongoDB when they were dropped cannot be told apart otherwise
+    private final ConcurrentMap<String, AtomicLong> availabilityGenerations = new ConcurrentHashMap<>();
+    private final AtomicLong availabilityResets = new AtomicLong();
+    private final AtomicLong userChanges = new AtomicLong();
+
+    private final KeyIndex doctorKeys = new KeyIndex();
+    private final KeyIndex patientKeys = new KeyIndex();
+    private final KeyIndex userKeys = new KeyIndex();
+
+    public LookupCaches(CacheManager cacheManager) {
+        this.doctors = cacheManager.getCache(DOCTORS);
+        this.patients = cacheManager.getCache(PATIENTS);
+        this.availability = cacheManager.getCache(AVAILABILITY);
+        this.users = cacheManager.getCache(USERS);
+    }
+
+    // Misses are not cached, so a doctor created on another instance is visible right away
+    public Optional<Doctor> doctor(String identifier, Function<String, Optional<Doctor>> loader) {
+        Doctor cached = doctors.get(identifier, Doctor.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Doctor> loaded = loader.apply(identifier);
+        loaded.ifPresent(doctor -> {
+            doctorKeys.add(doctor.getId(), identifier);
+            doctors.put(identifier, doctor);
+        });
+        return loaded;
+    }
+
+    public Optional<Patient> patient(String identifier, Function<String, Optional<Patient>> loader) {
+        Patient cached = patients.get(identifier, Patient.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Patient> loaded = loader.apply(identifier);
+        loaded.ifPresent(patient -> {
+            patientKeys.add(patient.getId(), identifier);
+            patients.put(identifier, patient);
+        });
+        return loaded;
+    }
+
+    public Optional<User> user(String username, Function<String, Optional<User>> loader) {
+        User cached = users.get(username, User.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long changesBefore = userChanges.get();
+        Optional<User> loaded = loader.apply(username);
+        loaded.ifPresent(user -> {
+            userKeys.add(user.getId(), username);
+            users.put(username, user);
+            // A user change arrived during the load (a disable, a delete): the loaded state may predate it
+            if (userChanges.get() != changesBefore) {
+                users.evict(username);
+            }
+        });
+        return loaded;
+    }
+
+    public void putUser(User user) {
+        userKeys.add(user.getId(), user.getUsername());
+        users.put(user.getUsername(), user);
+    }
+
+    public List<String> bookedSlots(String doctorKey, LocalDate date, Supplier<List<String>> loader) {
+        // One entry per doctor, so a booking drops that doctor's days with a single eviction
+        ConcurrentMap<LocalDate, List<String>> days = availability.get(doctorKey, ConcurrentHashMap::new);
+        long[] loadedAt = new long[2];
+        boolean[] loaded = new boolean[1];
+        List<String> slots = days.computeIfAbsent(date, day -> {
+            loadedAt[0] = availabilityResets.get();
+            loadedAt[1] = availabilityGeneration(doctorKey).get();
+            loaded[0] = true;
+            return List.copyOf(loader.get());
+        });
+        // Invalidated while this call was loading: the result may predate the change, so it is not kept
+        if (loaded[0] && (loadedAt[0] != availabilityResets.get()
+                || loadedAt[1] != availabilityGeneration(doctorKey).get())) {
+            days.remove(date, slots);
+        }
+        return slots;
+    }
+
+    @EventListener
+    public void onInvalidation(CacheInvalidationEvent event) {
+        if (event.affects("doctors")) {
+            evictEntity(doctors, doctorKeys, event);
+        }
+        if (event.affects("patients")) {
+            evictEntity(patients, patientKeys, event);
+        }
+        if (event.affects("appointments")) {
+            // Only an upsert tells us which doctor's days changed; anything else drops all booked times
+            if (event.type() == CacheInvalidationEvent.Type.UPSERT
+                    && event.entity() instanceof Appointment appointment
+                    && appointment.getDoctorId() != null) {
+                availabilityGeneration(appointment.getDoctorId()).incrementAndGet();
+                availability.evict(appointment.getDoctorId());
+            } else {
+                availabilityResets.incrementAndGet();
+                availability.clear();
+            }
+        }
+        if (event.affects("users")) {
+            userChanges.incrementAndGet();
+            evictEntity(users, userKeys, event);
+            // Every user change comes with the full document: keep the new state rather than reload it
+            if (event.type() == CacheInvalidationEvent.Type.UPSERT
+                    && event.entity() instanceof User user && user.getUsername() != null) {
+                putUser(user);
+            }
+        }
+    }
+
+    public static boolean isWatched(String collection) {
+        return WATCHED_COLLECTIONS.contains(collection);
+    }
+
+    // Drops the keys of entries that expired or were evicted for size, which no invalidation removes
+    @Scheduled(fixedDelayString = "${cache.lookup.index-sweep-ms:60000}")
+    public void sweepKeyIndexes() {
+        doctorKeys.retainCached(doctors);
+        patientKeys.retainCached(patients);
+        userKeys.retainCached(users);
+    }
+
+    // The same entity may be cached under its MongoDB id and its custom id: evict every key indexed for it
+    private static void evictEntity(Cache cache, KeyIndex keys, CacheInvalidationEvent event) {
+        if (event.type() == CacheInvalidationEvent.Type.RESET || event.id() == null) {
+            keys.clear();
+            cache.clear();
+            return;
+        }
+        keys.remove(event.id()).forEach(cache::evict);
+    }
+
+    private AtomicLong availabilityGeneration(String doctorKey) {
+        return availabilityGenerations.computeIfAbsent(doctorKey, key -> new AtomicLong());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ConcurrentMap<Object, Object> nativeMap(Cache cache) {
+        return ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache()).asMap();
+    }
+
+    /**
+     * Entity id to the cache keys it is stored under. Indexed before the put, so an invalidation that
+     * runs after the put always finds the key.
+     */
+    private static final class KeyIndex {
+
+        // A key indexed this recently may not be in the cache yet: its put is about to follow
+        private static final long SWEEP_GRACE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+        // Key to the time it was indexed
+        private final ConcurrentMap<String, ConcurrentMap<Object, Long>> keysById = new ConcurrentHashMap<>();
+
+        void add(String id, Object key) {
+            if (id == null) {
+                return;
+            }
+            // compute, not computeIfAbsent + put: a concurrent remove could otherwise drop the new key
+            keysById.compute(id, (entityId, keys) -> {
+                ConcurrentMap<Object, Long> updated = keys != null ? keys : new ConcurrentHashMap<>();
+                updated.put(key, System.nanoTime());
+                return updated;
+            });
+        }
+
+        Set<Object> remove(String id) {
+            ConcurrentMap<Object, Long> keys = keysById.remove(id);
+            return keys != null ? keys.keySet() : Set.of();
+        }
+
+        void clear() {
+            keysById.clear();
+        }
+
+        void retainCached(Cache cache) {
+            ConcurrentMap<Object, Object> cached = nativeMap(cache);
+            long now = System.nanoTime();
+            for (String id : keysById.keySet()) {
+                keysById.computeIfPresent(id, (entityId, keys) -> {
+                    keys.entrySet().removeIf(key -> now - key.getValue() > SWEEP_GRACE_NANOS
+                            && !cached.containsKey(key.getKey()));
+                    return keys.isEmpty() ? null : keys;
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.ghp.gestionhospitale.config;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Answers every "is it already there?" question of the startup initializers (admin account,
+ * sample doctors, patients, appointments) with a single $unionWith aggregation, instead of one
+ * sequential round trip per check. Computed once and shared by the initializers.
+ */
+@Component
+@Profile("!inmem")
+public class BootstrapProbe {
+
+    public static final String ADMIN_USERNAME = "admin";
+
+    private final MongoTemplate mongoTemplate;
+    private volatile State state;
+
+    @Autowired
+    public BootstrapProbe(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // For stores that answer the checks themselves (the inmem profile)
+    protected BootstrapProbe() {
+        this.mongoTemplate = null;
+    }
+
+    public record State(boolean adminExists, boolean hasDoctors, boolean hasPatients, boolean hasAppointments) {
+    }
+
+    public State state() {
+        State current = state;
+        if (current == null) {
+            synchronized (this) {
+                if (state == null) {
+                    state = probe();
+                }
+                current = state;
+            }
+        }
+        return current;
+    }
+
+    protected State probe() {
+        // One marker document per non-empty check: {c: "<what>"}
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("username", ADMIN_USERNAME)),
+                new Document("$limit", 1),
+                marker("users"),
+                firstOf("doctors"),
+                firstOf("patients"),
+                firstOf("appointments"));
+
+        Set<String> present = new HashSet<>();
+        for (Document document : mongoTemplate.getCollection("users").aggregate(pipeline)) {
+            present.add(document.getString("c"));
+        }
+        return new State(present.contains("users"), present.contains("doctors"),
+                present.contains("patients"), present.contains("appointments"));
+    }
+
+    private static Document firstOf(String collection) {
+        return new Document("$unionWith", new Document("coll", collection)
+                .append("pipeline", List.of(new Document("$limit", 1), marker(collection))));
+    }
+
+    private static Document marker(String name) {
+        return new Document("$project", new Document("_id", 0).append("c", new Document("$literal", name)));
+    }
+}
@@ -0,0 +1,29 @@
+package com.ghp.gestionhospitale.config;
+
+import com.ghp.gestionhospitale.cache.LookupCacheTtl;
+import com.ghp.gestionhospitale.cache.LookupCaches;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CacheConf {
+
+    @Bean
+    public CacheManager cacheManager(LookupCacheTtl lookupCacheTtl,
+                                     @Value("${cache.lookup.max-size:50000}") long maxSize,
+                                     @Value("${cache.users.max-size:20000}") long usersMaxSize) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        for (String name : LookupCaches.NAMES) {
+            cacheManager.registerCustomCache(name, Caffeine.newBuilder()
+                    .maximumSize(LookupCaches.USERS.equals(name) ? usersMaxSize : maxSize)
+                    .expireAfter(lookupCacheTtl)
+                    .recordStats()
+                    .build());
+        }
+        return cacheManager;
+    }
+}
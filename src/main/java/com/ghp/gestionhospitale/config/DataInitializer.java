@@ -2,6 +2,8 @@ package com.ghp.gestionhospitale.config;
 
 import com.ghp.gestionhospitale.model.User;
 import com.ghp.gestionhospitale.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.annotation.Order;
@@ -12,12 +14,17 @@ import org.springframework.stereotype.Component;
 @Order(2) // Run after connection test (Order(1))
 public class DataInitializer implements CommandLineRunner {
 
+    private static final Logger log = LoggerFactory.getLogger(DataInitializer.class);
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private BootstrapProbe bootstrapProbe;
+
     @Override
     public void run(String... args) throws Exception {
         // Initialize admin user if it doesn't exist
@@ -25,10 +32,10 @@ public class DataInitializer implements CommandLineRunner {
     }
 
     private void initializeAdminUser() {
-        String adminUsername = "admin";
+        String adminUsername = BootstrapProbe.ADMIN_USERNAME;
         String adminPassword = "admin";
 
-        if (!userRepository.existsByUsername(adminUsername)) {
+        if (!bootstrapProbe.state().adminExists()) {
             User adminUser = new User();
             adminUser.setUsername(adminUsername);
             adminUser.setPassword(passwordEncoder.encode(adminPassword));
@@ -36,11 +43,10 @@ public class DataInitializer implements CommandLineRunner {
             adminUser.setEnabled(true);
 
             userRepository.save(adminUser);
-            System.out.println("✓ Admin user created successfully");
-            System.out.println("  Username: " + adminUsername);
-            System.out.println("  Password: " + adminPassword);
+            // The password is the configured admin.password, never logged
+            log.info("Admin user '{}' created", adminUsername);
         } else {
-            System.out.println("✓ Admin user already exists");
+            log.info("Admin user already exists");
         }
     }
 }
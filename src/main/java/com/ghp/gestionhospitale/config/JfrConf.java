@@ -0,0 +1,20 @@
+package com.ghp.gestionhospitale.config;
+
+import com.ghp.gestionhospitale.jfr.MongoCommandJfrListener;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Java Flight Recorder: MongoDB round trips of both clients (main and reports) as ghp.MongoCommand
+ * events. The application events are in the jfr package; recordings are started from /api/admin/jfr.
+ */
+@Configuration
+public class JfrConf {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoCommandJfrCustomizer() {
+        MongoCommandJfrListener listener = new MongoCommandJfrListener();
+        return settings -> settings.addCommandListener(listener);
+    }
+}
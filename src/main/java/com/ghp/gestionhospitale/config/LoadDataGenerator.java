@@ -0,0 +1,393 @@
+package com.ghp.gestionhospitale.config;
+
+import com.ghp.gestionhospitale.model.Appointment;
+import com.ghp.gestionhospitale.model.AppointmentStatus;
+import com.ghp.gestionhospitale.model.Doctor;
+import com.ghp.gestionhospitale.model.Patient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates a large synthetic dataset for load and scale testing. Only active with the "loadgen"
+ * profile, e.g. {@code --spring.profiles.active=loadgen --loadgen.appointments=10000000}.
+ * <p>
+ * Doctors get varied weekly schedules; appointments only use real slots of their doctor's schedule
+ * (working days, hours, breaks, unavailable dates) and never double-book a slot. Each doctor and each
+ * patient chunk draws from its own random stream derived from the seed, and dates are laid out around a
+ * fixed anchor date (loadgen.anchor-date) rather than the current day, so the same settings produce the
+ * same data whatever the number of producer threads and whichever day it runs. Generated ids use the GD/GP/GA prefixes.
+ */
+@Component
+@Profile("loadgen & !inmem")
+@Order(5)
+public class LoadDataGenerator implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadDataGenerator.class);
+
+    private static final String DOCTOR_PREFIX = "GD";
+    private static final String PATIENT_PREFIX = "GP";
+    private static final String APPOINTMENT_PREFIX = "GA";
+
+    private static final long DOCTOR_STREAM = 1;
+    private static final long PATIENT_STREAM = 2;
+    private static final long APPOINTMENT_STREAM = 3;
+
+    private static final String[] FIRST_NAMES = {
+            "Nadia", "Karim", "Imane", "Rachid", "Amal", "Youssef", "Salma", "Hicham", "Fatima", "Omar",
+            "Khadija", "Mehdi", "Zineb", "Hamza", "Sanaa", "Adil", "Meryem", "Anas", "Houda", "Reda",
+            "Hélène", "Chaïmae", "Loubna", "Ayoub", "Ghita", "Soufiane", "Nour", "Ilyas", "Asmae", "Badr"
+    };
+    private static final String[] LAST_NAMES = {
+            "Bensaid", "El Idrissi", "Ouahidi", "El Amrani", "Rached", "Rahali", "Kabbaj", "Benjelloun",
+            "Alaoui", "Tazi", "Berrada", "Chraibi", "El Fassi", "Lahlou", "Benkirane", "Skalli", "Naciri",
+            "Bennani", "Sqalli", "Zniber", "Mernissi", "Filali", "Cherkaoui", "Hajji", "Ouazzani", "Lazrak"
+    };
+    private static final String[] SPECIALIZATIONS = {
+            "Cardiologie", "Pédiatrie", "Médecine générale", "Dermatologie", "Gynécologie", "Neurologie",
+            "Ophtalmologie", "ORL", "Pneumologie", "Rhumatologie", "Psychiatrie", "Endocrinologie"
+    };
+    private static final String[] CITIES = {
+            "Casablanca", "Rabat", "Marrakech", "Fès", "Tanger", "Agadir", "Meknès", "Oujda", "Kénitra", "Tétouan"
+    };
+    private static final String[] REMARKS = {
+            "Consultation", "Suivi", "Contrôle annuel", "Résultats d'analyses", "Renouvellement d'ordonnance",
+            "Vaccination", "Suivi post opératoire", "Première consultation"
+    };
+    private static final List<List<String>> WORKING_WEEKS = List.of(
+            List.of("Monday", "Tuesday", "Wednesday", "Thursday", "Friday"),
+            List.of("Monday", "Tuesday", "Thursday", "Friday"),
+            List.of("Monday", "Wednesday", "Thursday"),
+            List.of("Tuesday", "Wednesday", "Friday"),
+            List.of("Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday")
+    );
+    private static final String[][] WORKING_HOURS = {
+            {"08:00", "16:00"}, {"08:30", "16:30"}, {"09:00", "17:00"}, {"10:00", "18:00"}
+    };
+    private static final String[][] BREAKS = {
+            {"12:00", "13:00"}, {"12:30", "13:15"}, {"13:00", "14:00"}, {"14:00", "14:45"}
+    };
+    private static final int[] DURATIONS = {15, 20, 25, 30};
+
+    private final MongoTemplate mongoTemplate;
+    private final int doctorCount;
+    private final int patientCount;
+    private final long appointmentCount;
+    private final long seed;
+    private final int producers;
+    private final int batchSize;
+    private final double occupancy;
+    private final int daysAhead;
+    private final LocalDate anchorDate;
+    private final boolean dropExisting;
+
+    private final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
+
+    public LoadDataGenerator(MongoTemplate mongoTemplate,
+                             @Value("${loadgen.doctors:1000}") int doctorCount,
+                             @Value("${loadgen.patients:1000000}") int patientCount,
+                             @Value("${loadgen.appointments:10000000}") long appointmentCount,
+                             @Value("${loadgen.seed:42}") long seed,
+                             @Value("${loadgen.producers:0}") int producers,
+                             @Value("${loadgen.batch-size:5000}") int batchSize,
+                             @Value("${loadgen.occupancy:0.75}") double occupancy,
+                             @Value("${loadgen.days-ahead:60}") int daysAhead,
+                             @Value("${loadgen.anchor-date:2026-01-05}") String anchorDate,
+                             @Value("${loadgen.drop-existing:false}") boolean dropExisting) {
+        this.mongoTemplate = mongoTemplate;
+        this.doctorCount = doctorCount;
+        this.patientCount = patientCount;
+        this.appointmentCount = appointmentCount;
+        this.seed = seed;
+        // 0 = one producer per core
+        this.producers = producers > 0 ? producers : Runtime.getRuntime().availableProcessors();
+        this.batchSize = batchSize;
+        this.occupancy = Math.min(1.0, Math.max(0.05, occupancy));
+        this.daysAhead = daysAhead;
+        // "today" trades reproducibility for data that is current on the day it is generated
+        this.anchorDate = "today".equalsIgnoreCase(anchorDate) ? LocalDate.now() : LocalDate.parse(anchorDate);
+        this.dropExisting = dropExisting;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (mongoTemplate.exists(new Query(Criteria.where("doctorId").regex("^" + DOCTOR_PREFIX)), Doctor.class)) {
+            if (!dropExisting) {
+                log.warn("Generated data already present, skipping (set loadgen.drop-existing=true to regenerate)");
+                return;
+            }
+            dropGenerated();
+        }
+
+        log.info("Generating {} doctors, {} patients and {} appointments with {} producer(s), seed {}",
+                doctorCount, patientCount, appointmentCount, producers, seed);
+
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        try {
+            List<Doctor> doctors = generateDoctors(executor);
+            generatePatients(executor);
+            generateAppointments(executor, doctors);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<Doctor> generateDoctors(ExecutorService executor) {
+        long started = System.nanoTime();
+        List<Doctor> doctors = new ArrayList<>(doctorCount);
+        for (int i = 0; i < doctorCount; i++) {
+            doctors.add(buildDoctor(i, random(DOCTOR_STREAM, i)));
+        }
+
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (int from = 0; from < doctors.size(); from += batchSize) {
+            List<Doctor> batch = doctors.subList(from, Math.min(from + batchSize, doctors.size()));
+            tasks.add(() -> insert(batch, Doctor.class));
+        }
+        report("doctors", runAll(executor, tasks), started);
+        return doctors;
+    }
+
+    private void generatePatients(ExecutorService executor) {
+        long started = System.nanoTime();
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (int from = 0; from < patientCount; from += batchSize) {
+            int chunkStart = from;
+            int chunkEnd = Math.min(from + batchSize, patientCount);
+            tasks.add(() -> {
+                SplittableRandom random = random(PATIENT_STREAM, chunkStart);
+                List<Patient> batch = new ArrayList<>(chunkEnd - chunkStart);
+                for (int i = chunkStart; i < chunkEnd; i++) {
+                    batch.add(buildPatient(i, random));
+                }
+                return insert(batch, Patient.class);
+            });
+        }
+        report("patients", runAll(executor, tasks), started);
+    }
+
+    private void generateAppointments(ExecutorService executor, List<Doctor> doctors) {
+        if (doctors.isEmpty() || patientCount == 0) {
+            log.warn("Skipping generated appointments: doctors or patients missing");
+            return;
+        }
+        long started = System.nanoTime();
+        AtomicLong progress = new AtomicLong();
+        long perDoctor = appointmentCount / doctors.size();
+        long remainder = appointmentCount % doctors.size();
+
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (int i = 0; i < doctors.size(); i++) {
+            int doctorIndex = i;
+            long quota = perDoctor + (i < remainder ? 1 : 0);
+            if (quota > 0) {
+                tasks.add(() -> fillAgenda(doctorIndex, doctors.get(doctorIndex), quota, progress));
+            }
+        }
+        report("appointments", runAll(executor, tasks), started);
+    }
+
+    /**
+     * Books {@code quota} appointments into the doctor's free slots, walking back in time from
+     * {@code days-ahead} days in the future and taking each slot with probability {@code occupancy}.
+     */
+    private long fillAgenda(int doctorIndex, Doctor doctor, long quota, AtomicLong progress) {
+        SplittableRandom random = random(APPOINTMENT_STREAM, doctorIndex);
+        List<String> slots = daySlots(doctor);
+        if (slots.isEmpty()) {
+            return 0;
+        }
+        Set<DayOfWeek> workingDays = new HashSet<>();
+        for (String day : doctor.getWorkingDays()) {
+            workingDays.add(DayOfWeek.valueOf(day.toUpperCase()));
+        }
+        Set<String> unavailable = new HashSet<>(doctor.getUnavailableDates());
+
+        LocalDate today = anchorDate;
+        LocalDate day = today.plusDays(daysAhead);
+        long inserted = 0;
+        long sequence = 0;
+        List<Appointment> batch = new ArrayList<>(batchSize);
+
+        while (sequence < quota) {
+            if (workingDays.contains(day.getDayOfWeek()) && !unavailable.contains(day.toString())) {
+                for (int s = 0; s < slots.size() && sequence < quota; s++) {
+                    if (random.nextDouble() >= occupancy) {
+                        continue;
+                    }
+                    batch.add(buildAppointment(doctorIndex, sequence++, doctor, day, slots.get(s), today, random));
+                    if (batch.size() == batchSize) {
+                        inserted += flushAppointments(batch, progress);
+                    }
+                }
+            }
+            day = day.minusDays(1);
+        }
+        if (!batch.isEmpty()) {
+            inserted += flushAppointments(batch, progress);
+        }
+        return inserted;
+    }
+
+    private long flushAppointments(List<Appointment> batch, AtomicLong progress) {
+        long inserted = insert(batch, Appointment.class);
+        batch.clear();
+
+        long total = progress.addAndGet(inserted);
+        long step = Math.max(1_000_000L, batchSize);
+        if (total / step != (total - inserted) / step) {
+            log.info("{} / {} appointments", total, appointmentCount);
+        }
+        return inserted;
+    }
+
+    private Doctor buildDoctor(int index, SplittableRandom random) {
+        String name = "Dr. " + pick(FIRST_NAMES, random) + " " + pick(LAST_NAMES, random);
+        Doctor doctor = new Doctor(
+                DOCTOR_PREFIX + String.format("%05d", index),
+                name,
+                pick(SPECIALIZATIONS, random),
+                "doctor" + index + "@loadgen.grh.com",
+                String.format("+2125%08d", index));
+
+        doctor.setWorkingDays(WORKING_WEEKS.get(random.nextInt(WORKING_WEEKS.size())));
+        String[] hours = WORKING_HOURS[random.nextInt(WORKING_HOURS.length)];
+        doctor.setWorkingHours(new Doctor.WorkingHours(hours[0], hours[1]));
+        String[] pause = BREAKS[random.nextInt(BREAKS.length)];
+        doctor.setBreakTime(new Doctor.BreakTime(pause[0], pause[1]));
+        doctor.setAppointmentDuration(DURATIONS[random.nextInt(DURATIONS.length)]);
+
+        List<String> unavailable = new ArrayList<>();
+        int days = 2 + random.nextInt(4);
+        for (int i = 0; i < days; i++) {
+            unavailable.add(anchorDate.plusDays(random.nextInt(-180, daysAhead + 1)).toString());
+        }
+        doctor.setUnavailableDates(unavailable);
+        return doctor;
+    }
+
+    private Patient buildPatient(int index, SplittableRandom random) {
+        String firstName = pick(FIRST_NAMES, random);
+        String lastName = pick(LAST_NAMES, random);
+        Patient patient = new Patient(
+                PATIENT_PREFIX + String.format("%08d", index),
+                firstName + " " + lastName,
+                LocalDate.of(1940, 1, 1).plusDays(random.nextInt(365 * 80)),
+                random.nextBoolean() ? "F" : "M",
+                String.format("+2126%08d", index),
+                (firstName + "." + lastName).toLowerCase().replace(' ', '-') + "." + index + "@patients.com",
+                pick(CITIES, random) + ", Maroc");
+        patient.setIdentifier("PID-G" + String.format("%08d", index));
+        return patient;
+    }
+
+    private Appointment buildAppointment(int doctorIndex, long sequence, Doctor doctor, LocalDate day,
+                                         String time, LocalDate today, SplittableRandom random) {
+        String status;
+        if (day.isBefore(today)) {
+            status = random.nextInt(10) == 0 ? AppointmentStatus.ANNULE : AppointmentStatus.TERMINE;
+        } else {
+            status = random.nextInt(12) == 0 ? AppointmentStatus.ANNULE : AppointmentStatus.PLANIFIE;
+        }
+        return new Appointment(
+                APPOINTMENT_PREFIX + String.format("%05d-%07d", doctorIndex, sequence),
+                PATIENT_PREFIX + String.format("%08d", pickPatient(random)),
+                doctor.getDoctorId(),
+                day,
+                time,
+                status,
+                pick(REMARKS, random));
+    }
+
+    // A third of the bookings go to a small set of regulars, so the frequent-patient report has data
+    private int pickPatient(SplittableRandom random) {
+        int regulars = Math.max(1, patientCount / 20);
+        return random.nextInt(3) == 0 ? random.nextInt(regulars) : random.nextInt(patientCount);
+    }
+
+    // Same slot rule as AppointmentService: fixed-length slots inside working hours, none overlapping the break
+    private List<String> daySlots(Doctor doctor) {
+        LocalTime start = LocalTime.parse(doctor.getWorkingHours().getStart());
+        LocalTime end = LocalTime.parse(doctor.getWorkingHours().getEnd());
+        LocalTime breakStart = LocalTime.parse(doctor.getBreakTime().getStart());
+        LocalTime breakEnd = LocalTime.parse(doctor.getBreakTime().getEnd());
+        int duration = doctor.getAppointmentDuration();
+
+        List<String> slots = new ArrayList<>();
+        for (LocalTime slot = start; !slot.plusMinutes(duration).isAfter(end); slot = slot.plusMinutes(duration)) {
+            LocalTime slotEnd = slot.plusMinutes(duration);
+            if (!(slot.isBefore(breakEnd) && slotEnd.isAfter(breakStart))) {
+                slots.add(slot.format(timeFormatter));
+            }
+        }
+        return slots;
+    }
+
+    private <T> long insert(List<T> batch, Class<T> entityClass) {
+        // Unordered so the server can apply the batch without stopping at the first error
+        return mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, entityClass)
+                .insert(batch)
+                .execute()
+                .getInsertedCount();
+    }
+
+    private long runAll(ExecutorService executor, List<Callable<Long>> tasks) {
+        try {
+            long total = 0;
+            for (Future<Long> future : executor.invokeAll(tasks)) {
+                total += future.get();
+            }
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Load data generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Load data generation failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private void dropGenerated() {
+        mongoTemplate.remove(new Query(Criteria.where("appointmentId").regex("^" + APPOINTMENT_PREFIX)), Appointment.class);
+        mongoTemplate.remove(new Query(Criteria.where("patientId").regex("^" + PATIENT_PREFIX)), Patient.class);
+        mongoTemplate.remove(new Query(Criteria.where("doctorId").regex("^" + DOCTOR_PREFIX)), Doctor.class);
+        log.info("Removed previously generated data");
+    }
+
+    private void report(String what, long count, long startedNanos) {
+        double seconds = (System.nanoTime() - startedNanos) / 1_000_000_000.0;
+        log.info("Inserted {} generated {} in {}s ({}/s)", count, what, String.format("%.1f", seconds),
+                String.format("%.0f", seconds > 0 ? count / seconds : (double) count));
+    }
+
+    private SplittableRandom random(long stream, long index) {
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + (stream << 40) + index);
+    }
+
+    private static String pick(String[] values, SplittableRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+}
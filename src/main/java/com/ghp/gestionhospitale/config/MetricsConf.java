@@ -0,0 +1,30 @@
+package com.ghp.gestionhospitale.config;
+
+import com.ghp.gestionhospitale.monitoring.SamplingFilter;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Micrometer setup. HTTP requests and the MongoDB clients (commands per collection, connection
+ * pools) are instrumented by Spring Boot; this enables @Timed on the services.
+ */
+@Configuration
+public class MetricsConf {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    // Log events dropped by the sampling filter (logback-spring.xml)
+    @Bean
+    public MeterBinder sampledLogMetrics() {
+        return registry -> FunctionCounter.builder("ghp.logging.sampled.dropped", SamplingFilter.class, filter -> SamplingFilter.dropped())
+                .description("SAMPLED log events over the per-logger rate, not written")
+                .register(registry);
+    }
+}
@@ -1,10 +1,186 @@
 package com.ghp.gestionhospitale.config;
 
+import com.ghp.gestionhospitale.monitoring.PoolCheckoutMetrics;
+import com.ghp.gestionhospitale.monitoring.SlowQueryLog;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadConcernLevel;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
+@Profile("!inmem")
 @EnableMongoAuditing
 public class MongoDbConf {
 
+    private static final Logger log = LoggerFactory.getLogger(MongoDbConf.class);
+
+    // Notifications can be regenerated; an acknowledgement from the primary is enough
+    private static final String NOTIFICATIONS_COLLECTION = "notifications";
+
+    private MongoClient reportMongoClient;
+
+    /**
+     * Pool, timeouts, wire compression and default read/write concerns of every MongoDB client
+     * (blocking, reactive and the dedicated report client). Without it the driver waits up to 30s
+     * for a server, never times out a socket read and sends everything uncompressed.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer clientSettingsCustomizer(
+            @Value("${mongodb.pool.min-size:5}") int minPoolSize,
+            @Value("${mongodb.pool.max-size:50}") int maxPoolSize,
+            @Value("${mongodb.pool.max-idle-time-ms:600000}") long maxIdleTimeMs,
+            @Value("${mongodb.pool.max-wait-time-ms:2000}") long maxWaitTimeMs,
+            @Value("${mongodb.connect-timeout-ms:5000}") int connectTimeoutMs,
+            @Value("${mongodb.socket-timeout-ms:60000}") int socketTimeoutMs,
+            @Value("${mongodb.server-selection-timeout-ms:5000}") long serverSelectionTimeoutMs,
+            @Value("${mongodb.compressors:zstd,zlib}") String compressors,
+            @Value("${mongodb.read-concern:local}") String readConcern,
+            @Value("${mongodb.write-concern:majority}") String writeConcern) {
+        List<MongoCompressor> compressorList = compressors(compressors);
+        log.info("MongoDB client: pool {}-{}, wire compression {}", minPoolSize, maxPoolSize,
+                compressorList.isEmpty() ? "off" : compressorList.stream().map(MongoCompressor::getName).toList());
+        return settings -> settings
+                .applyToConnectionPoolSettings(pool -> pool
+                        .minSize(minPoolSize)
+                        .maxSize(maxPoolSize)
+                        .maxConnectionIdleTime(maxIdleTimeMs, TimeUnit.MILLISECONDS)
+                        .maxWaitTime(maxWaitTimeMs, TimeUnit.MILLISECONDS))
+                .applyToSocketSettings(socket -> socket
+                        .connectTimeout(connectTimeoutMs, TimeUnit.MILLISECONDS)
+                        .readTimeout(socketTimeoutMs, TimeUnit.MILLISECONDS))
+                .applyToClusterSettings(cluster -> cluster
+                        .serverSelectionTimeout(serverSelectionTimeoutMs, TimeUnit.MILLISECONDS))
+                .compressorList(compressorList)
+                .readConcern(readConcern(readConcern))
+                .writeConcern(WriteConcern.valueOf(writeConcern));
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer poolCheckoutCustomizer(PoolCheckoutMetrics poolCheckoutMetrics) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(poolCheckoutMetrics));
+    }
+
+    // Both clients (main and reports) report their slow commands
+    @Bean
+    public MongoClientSettingsBuilderCustomizer slowQueryCustomizer(SlowQueryLog slowQueryLog) {
+        return settings -> settings.addCommandListener(slowQueryLog);
+    }
+
+    // Declared explicitly because a second MongoTemplate bean would switch off Boot's default one
+    @Bean
+    @Primary
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory mongoDatabaseFactory, MongoConverter mongoConverter,
+                                       @Value("${mongodb.notifications.write-concern:w1}") String notificationsWriteConcern) {
+        MongoTemplate template = new MongoTemplate(mongoDatabaseFactory, mongoConverter);
+        WriteConcern notifications = WriteConcern.valueOf(notificationsWriteConcern);
+        // Bookings, accounts and the archives keep the client default (majority)
+        template.setWriteConcernResolver(action -> NOTIFICATIONS_COLLECTION.equals(action.getCollectionName())
+                ? notifications
+                : action.getDefaultWriteConcern());
+        return template;
+    }
+
+    /**
+     * Template used by the analytics/report queries. By default it has its own client and
+     * connection pool and prefers secondaries, so heavy reports neither compete with booking
+     * writes for connections nor load the primary. Lazy: the client is only opened by the first report.
+     */
+    @Bean
+    @Lazy
+    public MongoTemplate reportMongoTemplate(MongoDatabaseFactory mongoDatabaseFactory,
+                                             MongoConverter mongoConverter,
+                                             @Value("${reports.mongodb.dedicated:true}") boolean dedicated,
+                                             @Value("${reports.mongodb.uri:${spring.data.mongodb.uri}}") String uri,
+                                             @Value("${reports.mongodb.read-preference:secondaryPreferred}") String readPreference,
+                                             @Value("${reports.mongodb.max-pool-size:10}") int maxPoolSize,
+                                             @Value("${reports.mongodb.read-concern:majority}") String readConcern,
+                                             ObjectProvider<MongoClientSettingsBuilderCustomizer> customizers) {
+        if (!dedicated) {
+            MongoTemplate shared = new MongoTemplate(mongoDatabaseFactory, mongoConverter);
+            shared.setReadPreference(ReadPreference.valueOf(readPreference));
+            return shared;
+        }
+
+        ConnectionString connectionString = new ConnectionString(uri);
+        MongoClientSettings.Builder builder = MongoClientSettings.builder();
+        // Same customizations as the main client (timeouts, compression, command and pool metrics); the report settings below win
+        customizers.orderedStream().forEach(customizer -> customizer.customize(builder));
+        MongoClientSettings settings = builder
+                .applyConnectionString(connectionString)
+                .readPreference(ReadPreference.valueOf(readPreference))
+                // Only committed data in reports, whichever secondary serves them
+                .readConcern(readConcern(readConcern))
+                // Reports are occasional: no idle connections kept open for them
+                .applyToConnectionPoolSettings(pool -> pool.minSize(0).maxSize(maxPoolSize))
+                .applicationName("gestionhospitale-reports")
+                .build();
+        reportMongoClient = MongoClients.create(settings);
+
+        String database = connectionString.getDatabase() != null
+                ? connectionString.getDatabase()
+                : mongoDatabaseFactory.getMongoDatabase().getName();
+        return new MongoTemplate(new SimpleMongoClientDatabaseFactory(reportMongoClient, database), mongoConverter);
+    }
+
+    @PreDestroy
+    public void closeReportClient() {
+        if (reportMongoClient != null) {
+            reportMongoClient.close();
+        }
+    }
+
+    // In order of preference; the server picks the first one it supports. zstd and snappy need their native
+    // libraries on the classpath (zstd-jni, snappy-java), zlib is built into the JDK
+    private static List<MongoCompressor> compressors(String names) {
+        List<MongoCompressor> compressors = new ArrayList<>();
+        for (String name : Arrays.stream(names.split(",")).map(String::trim).filter(n -> !n.isEmpty()).toList()) {
+            switch (name) {
+                case "zstd" -> addIfPresent(compressors, "com.github.luben.zstd.Zstd", MongoCompressor.createZstdCompressor());
+                case "snappy" -> addIfPresent(compressors, "org.xerial.snappy.Snappy", MongoCompressor.createSnappyCompressor());
+                case "zlib" -> compressors.add(MongoCompressor.createZlibCompressor());
+                default -> throw new IllegalArgumentException("Unknown MongoDB compressor '" + name + "' (zstd, snappy or zlib)");
+            }
+        }
+        return compressors;
+    }
+
+    private static void addIfPresent(List<MongoCompressor> compressors, String className, MongoCompressor compressor) {
+        if (ClassUtils.isPresent(className, MongoDbConf.class.getClassLoader())) {
+            compressors.add(compressor);
+        } else {
+            log.warn("MongoDB compressor {} skipped: {} is not on the classpath", compressor.getName(), className);
+        }
+    }
+
+    // Empty: the server default
+    private static ReadConcern readConcern(String level) {
+        return level.isBlank() ? ReadConcern.DEFAULT : new ReadConcern(ReadConcernLevel.fromString(level));
+    }
 }
@@ -7,6 +7,8 @@ import com.ghp.gestionhospitale.model.Patient;
 import com.ghp.gestionhospitale.repository.AppointmentRepository;
 import com.ghp.gestionhospitale.repository.DoctorRepository;
 import com.ghp.gestionhospitale.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
@@ -21,27 +23,34 @@ import java.util.List;
 @Order(3)
 public class SampleDataInitializer implements CommandLineRunner {
 
+    private static final Logger log = LoggerFactory.getLogger(SampleDataInitializer.class);
+
     private final DoctorRepository doctorRepository;
     private final PatientRepository patientRepository;
     private final AppointmentRepository appointmentRepository;
+    private final BootstrapProbe bootstrapProbe;
 
     public SampleDataInitializer(DoctorRepository doctorRepository,
                                  PatientRepository patientRepository,
-                                 AppointmentRepository appointmentRepository) {
+                                 AppointmentRepository appointmentRepository,
+                                 BootstrapProbe bootstrapProbe) {
         this.doctorRepository = doctorRepository;
         this.patientRepository = patientRepository;
         this.appointmentRepository = appointmentRepository;
+        this.bootstrapProbe = bootstrapProbe;
     }
 
     @Override
     public void run(String... args) {
-        if (doctorRepository.count() == 0) {
+        BootstrapProbe.State state = bootstrapProbe.state();
+        if (!state.hasDoctors()) {
             initializeDoctors();
         }
-        if (patientRepository.count() == 0) {
+        if (!state.hasPatients()) {
             initializePatients();
         }
-        if (appointmentRepository.count() == 0) {
+        // Doctors and patients exist at this point: they were either there or just inserted
+        if (!state.hasAppointments()) {
             initializeAppointments();
         }
     }
@@ -72,7 +81,7 @@ public class SampleDataInitializer implements CommandLineRunner {
         generalist.setUnavailableDates(List.of(LocalDate.now().plusDays(21).toString()));
 
         doctorRepository.saveAll(List.of(cardiology, pediatrics, generalist));
-        System.out.println("✓ Inserted 3 sample doctors");
+        log.info("Inserted 3 sample doctors");
     }
 
     private void initializePatients() {
@@ -93,15 +102,10 @@ public class SampleDataInitializer implements CommandLineRunner {
                 "rachid.amrani@patients.com", "Fès, Maroc");
 
         patientRepository.saveAll(List.of(nadia, karim, imane, rachid));
-        System.out.println("✓ Inserted 4 sample patients");
+        log.info("Inserted 4 sample patients");
     }
 
     private void initializeAppointments() {
-        if (doctorRepository.count() == 0 || patientRepository.count() == 0) {
-            System.out.println("⚠️  Skipping sample appointments: doctors or patients missing");
-            return;
-        }
-
         LocalDate today = LocalDate.now();
         List<Appointment> appointments = List.of(
                 new Appointment("A3001", "P1001", "D2001",
@@ -119,6 +123,6 @@ public class SampleDataInitializer implements CommandLineRunner {
         );
 
         appointmentRepository.saveAll(appointments);
-        System.out.println("✓ Inserted 4 sample appointments");
+        log.info("Inserted 4 sample appointments");
     }
 }
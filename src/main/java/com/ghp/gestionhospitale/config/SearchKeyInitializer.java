@@ -0,0 +1,37 @@
+package com.ghp.gestionhospitale.config;
+
+import com.ghp.gestionhospitale.repository.DoctorRepository;
+import com.ghp.gestionhospitale.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Computes the normalized search keys of patients and doctors saved before they were introduced.
+ * New writes maintain them through SearchKeyMongoListener, so this is a no-op once backfilled.
+ */
+@Component
+@Order(4)
+public class SearchKeyInitializer implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchKeyInitializer.class);
+
+    private final PatientRepository patientRepository;
+    private final DoctorRepository doctorRepository;
+
+    public SearchKeyInitializer(PatientRepository patientRepository, DoctorRepository doctorRepository) {
+        this.patientRepository = patientRepository;
+        this.doctorRepository = doctorRepository;
+    }
+
+    @Override
+    public void run(String... args) {
+        int patients = patientRepository.backfillSearchKeys();
+        int doctors = doctorRepository.backfillSearchKeys();
+        if (patients + doctors > 0) {
+            log.info("Backfilled search keys for {} patient(s) and {} doctor(s)", patients, doctors);
+        }
+    }
+}
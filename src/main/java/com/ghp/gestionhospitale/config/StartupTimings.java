@@ -0,0 +1,90 @@
+package com.ghp.gestionhospitale.config;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Startup timing breakdown: JVM start to ready, context refresh, runners, and the slowest steps
+ * recorded by the BufferingApplicationStartup installed in GestionHospitaleApplication.main.
+ */
+@Component
+public class StartupTimings {
+
+    private static final int SLOWEST_STEPS = 25;
+
+    private final ApplicationStartup applicationStartup;
+
+    private volatile Duration contextStarted;
+    private volatile Duration ready;
+    private volatile long jvmUptimeAtReady;
+
+    public StartupTimings(ApplicationStartup applicationStartup) {
+        this.applicationStartup = applicationStartup;
+    }
+
+    @EventListener
+    public void onStarted(ApplicationStartedEvent event) {
+        contextStarted = event.getTimeTaken();
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        ready = event.getTimeTaken();
+        jvmUptimeAtReady = ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+
+    public Map<String, Object> report() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("jvmToReadyMs", ready != null ? jvmUptimeAtReady : null);
+        report.put("applicationToReadyMs", ready != null ? ready.toMillis() : null);
+        report.put("contextRefreshMs", contextStarted != null ? contextStarted.toMillis() : null);
+        report.put("runnersMs", ready != null && contextStarted != null ? ready.minus(contextStarted).toMillis() : null);
+        report.put("aot", Boolean.getBoolean("spring.aot.enabled"));
+        report.put("cds", ManagementFactory.getRuntimeMXBean().getInputArguments().stream()
+                .anyMatch(argument -> argument.startsWith("-XX:SharedArchiveFile")));
+
+        if (!(applicationStartup instanceof BufferingApplicationStartup buffering)) {
+            report.put("steps", "not recorded (application not started through GestionHospitaleApplication.main)");
+            return report;
+        }
+
+        List<StartupTimeline.TimelineEvent> events = buffering.getBufferedTimeline().getEvents();
+        // Durations are inclusive of nested steps
+        report.put("totalsByStep", events.stream()
+                .collect(Collectors.groupingBy(event -> event.getStartupStep().getName(),
+                        Collectors.summingLong(event -> event.getDuration().toMillis())))
+                .entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new)));
+        report.put("slowestSteps", events.stream()
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(SLOWEST_STEPS)
+                .map(StartupTimings::describe)
+                .toList());
+        return report;
+    }
+
+    private static Map<String, Object> describe(StartupTimeline.TimelineEvent event) {
+        Map<String, Object> step = new LinkedHashMap<>();
+        step.put("name", event.getStartupStep().getName());
+        step.put("durationMs", event.getDuration().toMillis());
+        for (StartupStep.Tag tag : event.getStartupStep().getTags()) {
+            step.put(tag.getKey(), tag.getValue());
+        }
+        return step;
+    }
+}
@@ -0,0 +1,187 @@
+package com.ghp.gestionhospitale.controller;
+
+import com.ghp.gestionhospitale.config.StartupTimings;
+import com.ghp.gestionhospitale.jfr.FlightRecordings;
+import com.ghp.gestionhospitale.monitoring.SlowQueryLog;
+import com.ghp.gestionhospitale.security.RefreshTokenService;
+import com.ghp.gestionhospitale.security.VerifiedTokenCache;
+import com.ghp.gestionhospitale.services.CustomUserDetailsService;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Operational endpoints, restricted to ADMIN by SecurityConfig.
+ */
+@RestController
+@RequestMapping("/api/admin")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173", "http://web-frontend"})
+public class AdminController {
+
+    private final StartupTimings startupTimings;
+    private final CacheManager cacheManager;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final CustomUserDetailsService userDetailsService;
+    private final RefreshTokenService refreshTokenService;
+    private final FlightRecordings flightRecordings;
+    private final SlowQueryLog slowQueryLog;
+
+    public AdminController(StartupTimings startupTimings,
+                           CacheManager cacheManager,
+                           VerifiedTokenCache verifiedTokenCache,
+                           CustomUserDetailsService userDetailsService,
+                           RefreshTokenService refreshTokenService,
+                           FlightRecordings flightRecordings,
+                           SlowQueryLog slowQueryLog) {
+        this.startupTimings = startupTimings;
+        this.cacheManager = cacheManager;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.userDetailsService = userDetailsService;
+        this.refreshTokenService = refreshTokenService;
+        this.flightRecordings = flightRecordings;
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    /**
+     * Startup timing breakdown
+     * GET /api/admin/startup
+     */
+    @GetMapping("/startup")
+    public ResponseEntity<Map<String, Object>> getStartupTimings() {
+        return ResponseEntity.ok(startupTimings.report());
+    }
+
+    /**
+     * Size, hit rate and evictions of the in-process caches
+     * GET /api/admin/caches
+     */
+    @GetMapping("/caches")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        Map<String, Object> caches = new LinkedHashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            if (cacheManager.getCache(name).getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> cache) {
+                caches.put(name, describe(cache.estimatedSize(), cache.stats()));
+            }
+        }
+        caches.put("verifiedTokens", describe(verifiedTokenCache.size(), verifiedTokenCache.stats()));
+        return ResponseEntity.ok(caches);
+    }
+
+    /**
+     * Enable or disable an account; its tokens stop working at once and its refresh tokens are dropped
+     * PUT /api/admin/users/{username}/enabled?enabled=false
+     */
+    @PutMapping("/users/{username}/enabled")
+    public ResponseEntity<?> setUserEnabled(@PathVariable String username, @RequestParam boolean enabled) {
+        return userDetailsService.setEnabled(username, enabled)
+                .<ResponseEntity<?>>map(user -> {
+                    if (!user.isEnabled()) {
+                        refreshTokenService.revokeRefreshTokens(username);
+                    }
+                    return ResponseEntity.ok(Map.of(
+                            "username", user.getUsername(),
+                            "enabled", user.isEnabled()));
+                })
+                .orElseGet(() -> ResponseEntity.status(404).body(Map.of("error", "User not found: " + username)));
+    }
+
+    /**
+     * MongoDB commands over the slow-query threshold, grouped by shape, the largest total time first
+     * GET /api/admin/slow-queries?limit=50
+     */
+    @GetMapping("/slow-queries")
+    public ResponseEntity<Map<String, Object>> getSlowQueries(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(slowQueryLog.report(limit));
+    }
+
+    /**
+     * Empty the slow-query buffer and the captured explain plans
+     * DELETE /api/admin/slow-queries
+     */
+    @DeleteMapping("/slow-queries")
+    public ResponseEntity<Void> clearSlowQueries() {
+        slowQueryLog.clear();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * State of the flight recording of this node
+     * GET /api/admin/jfr
+     */
+    @GetMapping("/jfr")
+    public ResponseEntity<Map<String, Object>> getRecording() {
+        return ResponseEntity.ok(flightRecordings.status());
+    }
+
+    /**
+     * Start a flight recording (JDK settings "default" or "profile"), stopped after the duration
+     * POST /api/admin/jfr/start?settings=profile&duration=PT5M
+     */
+    @PostMapping("/jfr/start")
+    public ResponseEntity<Map<String, Object>> startRecording(@RequestParam(defaultValue = "default") String settings,
+                                                              @RequestParam(required = false) Duration duration)
+            throws IOException, ParseException {
+        try {
+            return ResponseEntity.ok(flightRecordings.start(settings, duration));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Download what the recording holds so far as a .jfr file (the recording goes on); 400 when there is none
+     * GET /api/admin/jfr/dump
+     */
+    @GetMapping("/jfr/dump")
+    public ResponseEntity<StreamingResponseBody> dumpRecording() throws IOException {
+        Path file = flightRecordings.dump();
+        StreamingResponseBody body = out -> {
+            try {
+                Files.copy(file, out);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=ghp-" + Instant.now().getEpochSecond() + ".jfr")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .contentLength(Files.size(file))
+                .body(body);
+    }
+
+    /**
+     * Stop the recording; it can still be dumped until the next start
+     * POST /api/admin/jfr/stop
+     */
+    @PostMapping("/jfr/stop")
+    public ResponseEntity<Map<String, Object>> stopRecording() {
+        try {
+            return ResponseEntity.ok(flightRecordings.stop());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private static Map<String, Object> describe(long size, CacheStats stats) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("size", size);
+        description.put("hits", stats.hitCount());
+        description.put("misses", stats.missCount());
+        description.put("hitRate", stats.hitRate());
+        description.put("evictions", stats.evictionCount());
+        return description;
+    }
+}
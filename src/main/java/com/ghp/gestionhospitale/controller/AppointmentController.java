@@ -2,8 +2,11 @@ package com.ghp.gestionhospitale.controller;
 
 import com.ghp.gestionhospitale.model.Appointment;
 import com.ghp.gestionhospitale.model.Doctor;
+import com.ghp.gestionhospitale.monitoring.SamplingFilter;
 import com.ghp.gestionhospitale.services.AppointmentService;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
@@ -19,6 +22,8 @@ import java.util.Map;
 @CrossOrigin(origins = {"*"}) // For frontend connection
 public class AppointmentController {
 
+    private static final Logger log = LoggerFactory.getLogger(AppointmentController.class);
+
     @Autowired
     private AppointmentService appointmentService;
 
@@ -48,14 +53,21 @@ public class AppointmentController {
     @PostMapping
     public ResponseEntity<?> bookAppointment(@Valid @RequestBody Appointment appointment) {
         try {
-            System.out.println("🎯 RECEIVED APPOINTMENT: " + appointment);
-            System.out.println("⏰ TIME FIELD: '" + appointment.getTime() + "'");
-            System.out.println("📅 DATE FIELD: " + appointment.getDate());
-
             Appointment savedAppointment = appointmentService.bookAppointment(appointment);
+            log.atInfo().addMarker(SamplingFilter.SAMPLED)
+                    .addKeyValue("appointmentId", savedAppointment.getAppointmentId())
+                    .addKeyValue("doctorId", savedAppointment.getDoctorId())
+                    .addKeyValue("date", savedAppointment.getDate())
+                    .addKeyValue("time", savedAppointment.getTime())
+                    .log("Appointment booked");
             return ResponseEntity.ok(savedAppointment);
         } catch (Exception e) {
-            System.out.println("❌ ERROR: " + e.getMessage());
+            // Mostly slots taken in the meantime: frequent under contention, so sampled too
+            log.atInfo().addMarker(SamplingFilter.SAMPLED)
+                    .addKeyValue("doctorId", appointment.getDoctorId())
+                    .addKeyValue("date", appointment.getDate())
+                    .addKeyValue("time", appointment.getTime())
+                    .log("Booking rejected: {}", e.getMessage());
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("error", "Failed to book appointment: " + e.getMessage());
             return ResponseEntity.badRequest().body(errorResponse);
@@ -4,21 +4,36 @@ import com.ghp.gestionhospitale.model.Patient;
 import com.ghp.gestionhospitale.model.User;
 import com.ghp.gestionhospitale.repository.UserRepository;
 import com.ghp.gestionhospitale.security.JwtUtil;
+import com.ghp.gestionhospitale.security.LoginExecutor;
+import com.ghp.gestionhospitale.security.RefreshTokenService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import com.ghp.gestionhospitale.services.CustomUserDetailsService;
 import com.ghp.gestionhospitale.services.PatientService;
 import lombok.Getter;
 import lombok.Setter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -30,52 +45,129 @@ import java.util.Map;
 })
 public class AuthController {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+
     private final AuthenticationManager authenticationManager;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final PatientService patientService;
+    private final CustomUserDetailsService userDetailsService;
+    private final LoginExecutor loginExecutor;
+    private final RefreshTokenService refreshTokenService;
+    private final Executor taskExecutor;
 
     @Autowired
     public AuthController(AuthenticationManager authenticationManager,
                           UserRepository userRepository,
                           PasswordEncoder passwordEncoder,
                           JwtUtil jwtUtil,
-                          PatientService patientService) {  // ← Add PatientService here
+                          PatientService patientService,  // ← Add PatientService here
+                          CustomUserDetailsService userDetailsService,
+                          LoginExecutor loginExecutor,
+                          RefreshTokenService refreshTokenService,
+                          @Qualifier("applicationTaskExecutor") Executor taskExecutor) {
         this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
         this.patientService = patientService;  // ← Now it will be properly injected
+        this.userDetailsService = userDetailsService;
+        this.loginExecutor = loginExecutor;
+        this.refreshTokenService = refreshTokenService;
+        this.taskExecutor = taskExecutor;
     }
 
 
     // LOGIN ENDPOINT
+    // Password verification runs on the bounded login pool, not on the request thread; the token
+    // issue and login record (MongoDB round trips) continue on the task executor so they do not hold
+    // a CPU-sized login thread
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest loginRequest) {
         try {
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())
-            );
+            return loginExecutor.submit(() -> authenticationManager.authenticate(
+                            new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())
+                    ))
+                    .thenApplyAsync(this::loginResponse, taskExecutor)
+                    .exceptionally(this::loginFailure);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(tooManyLogins());
+        }
+    }
 
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-            User user = (User) authentication.getPrincipal();
+    // Only bad credentials are a 401: an outage or overload must not look like a wrong password
+    private ResponseEntity<?> loginFailure(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (cause instanceof RejectedExecutionException) {
+            return tooManyLogins();
+        }
+        Map<String, String> errorResponse = new HashMap<>();
+        // Thrown by the authentication provider when loading the account failed (e.g. MongoDB unreachable)
+        if (cause instanceof InternalAuthenticationServiceException || cause instanceof DataAccessException) {
+            log.warn("Login unavailable: {}", cause.getMessage());
+            errorResponse.put("error", "Login temporarily unavailable, please retry shortly");
+            return ResponseEntity.status(503).body(errorResponse);
+        }
+        if (cause instanceof AuthenticationException) {
+            errorResponse.put("error", "Invalid username or password");
+            return ResponseEntity.status(401).body(errorResponse);
+        }
+        log.error("Login failed", cause);
+        errorResponse.put("error", "Login failed");
+        return ResponseEntity.status(500).body(errorResponse);
+    }
 
-            String jwt = jwtUtil.generateToken(user);
+    private ResponseEntity<?> tooManyLogins() {
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("error", "Too many logins in progress, please retry shortly");
+        return ResponseEntity.status(503)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(loginExecutor.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("token", jwt);
-            response.put("username", user.getUsername());
-            response.put("role", user.getRole());
-            response.put("patientId", user.getPatientId());
-            response.put("message", "Login successful");
+    private ResponseEntity<?> loginResponse(Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
 
-            return ResponseEntity.ok(response);
+        RefreshTokenService.TokenPair tokens = refreshTokenService.issue(user);
+        userDetailsService.recordLogin(user.getUsername());
 
-        } catch (Exception e) {
-            Map<String, String> errorResponse = new HashMap<>();
-            errorResponse.put("error", "Invalid username or password");
-            return ResponseEntity.status(401).body(errorResponse);
+        Map<String, Object> response = new HashMap<>();
+        response.put("token", tokens.accessToken());
+        response.put("refreshToken", tokens.refreshToken());
+        response.put("expiresIn", tokens.expiresInSeconds());
+        response.put("username", user.getUsername());
+        response.put("role", user.getRole());
+        response.put("patientId", user.getPatientId());
+        response.put("message", "Login successful");
+
+        return ResponseEntity.ok(response);
+    }
+
+    // REFRESH: single-use refresh token in, new access + refresh token out
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshRequest refreshRequest) {
+        return refreshTokenService.refresh(refreshRequest.getRefreshToken())
+                .<ResponseEntity<?>>map(tokens -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("token", tokens.accessToken());
+                    response.put("refreshToken", tokens.refreshToken());
+                    response.put("expiresIn", tokens.expiresInSeconds());
+                    return ResponseEntity.ok(response);
+                })
+                .orElseGet(() -> ResponseEntity.status(401).body(Map.of("error", "Invalid or expired refresh token")));
+    }
+
+    // LOGOUT: revokes the current access token and the given refresh token (all of them when omitted)
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader("Authorization") String authorizationHeader,
+                                    @RequestBody(required = false) RefreshRequest refreshRequest) {
+        try {
+            Claims claims = jwtUtil.extractAllClaims(authorizationHeader.substring("Bearer ".length()));
+            refreshTokenService.logout(claims, refreshRequest != null ? refreshRequest.getRefreshToken() : null);
+            return ResponseEntity.ok(Map.of("message", "Logged out"));
+        } catch (JwtException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
         }
     }
 
@@ -209,6 +301,12 @@ public class AuthController {
 
     }
 
+    @Setter
+    @Getter
+    public static class RefreshRequest {
+        private String refreshToken;
+    }
+
     @Setter
     @Getter
     public static class RegisterRequest {
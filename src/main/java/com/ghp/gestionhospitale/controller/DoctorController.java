@@ -67,8 +67,10 @@ public class DoctorController {
 
     // SEARCH - Search doctors by name
     @GetMapping("/search")
-    public ResponseEntity<List<Doctor>> searchDoctors(@RequestParam String name) {
-        List<Doctor> doctors = doctorService.searchByName(name);
+    public ResponseEntity<List<Doctor>> searchDoctors(
+            @RequestParam String name,
+            @RequestParam(defaultValue = "50") int limit) {
+        List<Doctor> doctors = doctorService.searchByName(name, Math.min(limit, 200));
         return ResponseEntity.ok(doctors);
     }
 }
\ No newline at end of file
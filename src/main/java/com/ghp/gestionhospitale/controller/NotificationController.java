@@ -2,12 +2,15 @@ package com.ghp.gestionhospitale.controller;
 
 import com.ghp.gestionhospitale.model.Notification;
 import com.ghp.gestionhospitale.repository.NotificationRepository;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -25,4 +28,13 @@ public class NotificationController {
     public ResponseEntity<List<Notification>> getRecentNotifications() {
         return ResponseEntity.ok(notificationRepository.findTop50ByOrderByTimestampDesc());
     }
+
+    // Archived notifications, newest first; page backwards by passing the last timestamp as "before"
+    @GetMapping("/archive")
+    public ResponseEntity<List<Notification>> getArchivedNotifications(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+            @RequestParam(defaultValue = "50") int limit) {
+        LocalDateTime upperBound = before != null ? before : LocalDateTime.now();
+        return ResponseEntity.ok(notificationRepository.findArchived(upperBound, Math.min(limit, 200)));
+    }
 }
@@ -1,5 +1,6 @@
 package com.ghp.gestionhospitale.controller;
 
+import com.ghp.gestionhospitale.dto.PatientSuggestion;
 import com.ghp.gestionhospitale.model.Patient;
 import com.ghp.gestionhospitale.services.PatientService;
 import jakarta.validation.Valid;
@@ -75,8 +76,18 @@ public class PatientController {
 
     // SEARCH - Search patients by name
     @GetMapping("/search")
-    public ResponseEntity<List<Patient>> searchPatients(@RequestParam String name) {
-        List<Patient> patients = patientService.searchByName(name);
+    public ResponseEntity<List<Patient>> searchPatients(
+            @RequestParam String name,
+            @RequestParam(defaultValue = "50") int limit) {
+        List<Patient> patients = patientService.searchByName(name, Math.min(limit, 200));
         return ResponseEntity.ok(patients);
     }
+
+    // TYPEAHEAD - Partial name, phone or email, answered from the in-memory index
+    @GetMapping("/typeahead")
+    public ResponseEntity<List<PatientSuggestion>> typeahead(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(patientService.typeahead(q, Math.min(limit, 50)));
+    }
 }
@@ -0,0 +1,72 @@
+package com.ghp.gestionhospitale.controller;
+
+import com.ghp.gestionhospitale.model.Appointment;
+import com.ghp.gestionhospitale.model.Notification;
+import com.ghp.gestionhospitale.repository.reactive.ReactiveNotificationRepository;
+import com.ghp.gestionhospitale.services.ReactiveAppointmentService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Non-blocking versions of the read-heavy endpoints. The request thread is released while
+ * MongoDB works, and lists are streamed as NDJSON (one JSON document per line) as they arrive.
+ */
+@RestController
+// The reactive repositories have no in-memory counterpart
+@Profile("!inmem")
+@RequestMapping("/api/reactive")
+@CrossOrigin(origins = {"*"}) // For frontend connection
+public class ReactiveReadController {
+
+    private final ReactiveAppointmentService reactiveAppointmentService;
+    private final ReactiveNotificationRepository notificationRepository;
+
+    public ReactiveReadController(ReactiveAppointmentService reactiveAppointmentService,
+                                  ReactiveNotificationRepository notificationRepository) {
+        this.reactiveAppointmentService = reactiveAppointmentService;
+        this.notificationRepository = notificationRepository;
+    }
+
+    // GET available time slots for a doctor on specific date
+    @GetMapping("/appointments/availability/{doctorId}")
+    public Mono<List<String>> getAvailableSlots(
+            @PathVariable String doctorId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return reactiveAppointmentService.getAvailableSlots(doctorId, date);
+    }
+
+    @GetMapping(value = "/appointments/doctor/{doctorId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Appointment> getAppointmentsByDoctor(@PathVariable String doctorId) {
+        return reactiveAppointmentService.findByDoctorId(doctorId);
+    }
+
+    @GetMapping(value = "/appointments/patient/{patientId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Appointment> getAppointmentsByPatient(@PathVariable String patientId) {
+        return reactiveAppointmentService.findByPatientId(patientId);
+    }
+
+    @GetMapping(value = "/appointments/date/{date}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Appointment> getAppointmentsByDate(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return reactiveAppointmentService.findByDate(date);
+    }
+
+    // Notifications, newest first; page backwards by passing the last timestamp as "before"
+    @GetMapping(value = "/notifications", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Notification> getNotifications(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+            @RequestParam(defaultValue = "50") int limit) {
+        LocalDateTime upperBound = before != null ? before : LocalDateTime.now().plusSeconds(1);
+        return notificationRepository.findByTimestampBeforeOrderByTimestampDesc(
+                upperBound, PageRequest.of(0, Math.max(1, Math.min(limit, 1000))));
+    }
+}
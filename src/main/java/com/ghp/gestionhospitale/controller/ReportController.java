@@ -4,6 +4,7 @@ import com.ghp.gestionhospitale.dto.AppointmentReport;
 import com.ghp.gestionhospitale.model.Appointment;
 import com.ghp.gestionhospitale.services.ReportService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -18,6 +19,7 @@ import java.util.Map;
 public class ReportController {
 
     @Autowired
+    @Lazy
     private ReportService reportService;
 
     /**
@@ -1,6 +1,7 @@
 package com.ghp.gestionhospitale.controller;
 
 import com.ghp.gestionhospitale.dto.AppointmentReport;
+import com.ghp.gestionhospitale.jfr.ReportRenderEvent;
 import com.ghp.gestionhospitale.services.ReportService;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
@@ -11,6 +12,9 @@ import org.apache.poi.xwpf.usermodel.ParagraphAlignment;
 import org.apache.poi.xwpf.usermodel.XWPFDocument;
 import org.apache.poi.xwpf.usermodel.XWPFParagraph;
 import org.apache.poi.xwpf.usermodel.XWPFRun;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -30,9 +34,11 @@ import java.util.Map;
 public class ReportExportController {
 
     private final ReportService reportService;
+    private final MeterRegistry meterRegistry;
 
-    public ReportExportController(ReportService reportService) {
+    public ReportExportController(@Lazy ReportService reportService, MeterRegistry meterRegistry) {
         this.reportService = reportService;
+        this.meterRegistry = meterRegistry;
     }
 
     @GetMapping("/pdf")
@@ -46,7 +52,16 @@ public class ReportExportController {
             @RequestParam("frequentMin") int frequentMin) throws IOException {
 
         ReportData reportData = loadReportData(date, doctorFrom, doctorTo, specialtyFrom, specialtyTo, frequentFrom, frequentMin);
-        byte[] bytes = buildPdf(reportData);
+        Timer.Sample rendering = Timer.start(meterRegistry);
+        ReportRenderEvent event = new ReportRenderEvent();
+        event.begin();
+        byte[] bytes;
+        try {
+            bytes = buildPdf(reportData);
+        } finally {
+            rendering.stop(renderTimer("pdf"));
+        }
+        recordRendering(event, "pdf", bytes);
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=rapport.pdf")
                 .contentType(MediaType.APPLICATION_PDF)
@@ -64,13 +79,39 @@ public class ReportExportController {
             @RequestParam("frequentMin") int frequentMin) throws IOException {
 
         ReportData reportData = loadReportData(date, doctorFrom, doctorTo, specialtyFrom, specialtyTo, frequentFrom, frequentMin);
-        byte[] bytes = buildDocx(reportData);
+        Timer.Sample rendering = Timer.start(meterRegistry);
+        ReportRenderEvent event = new ReportRenderEvent();
+        event.begin();
+        byte[] bytes;
+        try {
+            bytes = buildDocx(reportData);
+        } finally {
+            rendering.stop(renderTimer("docx"));
+        }
+        recordRendering(event, "docx", bytes);
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=rapport.docx")
                 .contentType(MediaType.APPLICATION_OCTET_STREAM)
                 .body(bytes);
     }
 
+    // Rendering only; loading the data is timed by ReportService
+    private Timer renderTimer(String format) {
+        return Timer.builder("ghp.reports.render")
+                .tag("format", format)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static void recordRendering(ReportRenderEvent event, String format, byte[] bytes) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.format = format;
+            event.bytes = bytes.length;
+            event.commit();
+        }
+    }
+
     private ReportData loadReportData(LocalDate date,
                                       LocalDate doctorFrom,
                                       LocalDate doctorTo,
@@ -93,7 +134,8 @@ public class ReportExportController {
         return data;
     }
 
-    private byte[] buildPdf(ReportData data) throws IOException {
+    // Package-private for the rendering benchmarks
+    byte[] buildPdf(ReportData data) throws IOException {
         try (PDDocument document = new PDDocument()) {
             PdfWriter writer = new PdfWriter(document);
             writer.writeTitle("Rapport d'activité");
@@ -156,7 +198,7 @@ public class ReportExportController {
         }
     }
 
-    private byte[] buildDocx(ReportData data) throws IOException {
+    byte[] buildDocx(ReportData data) throws IOException {
         try (XWPFDocument document = new XWPFDocument()) {
             addTitle(document, "Rapport d'activité");
             addParagraph(document, "Date de génération : " + DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm").format(java.time.LocalDateTime.now()), false);
@@ -246,7 +288,7 @@ public class ReportExportController {
         return date.format(DateTimeFormatter.ofPattern("dd/MM/yyyy"));
     }
 
-    private static class ReportData {
+    static class ReportData {
         LocalDate date;
         LocalDate doctorFrom;
         LocalDate doctorTo;
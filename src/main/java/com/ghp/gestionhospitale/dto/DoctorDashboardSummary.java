@@ -0,0 +1,42 @@
+package com.ghp.gestionhospitale.dto;
+
+import com.ghp.gestionhospitale.model.Appointment;
+
+import java.util.List;
+
+public class DoctorDashboardSummary {
+
+    private List<Appointment> todayAppointments;
+    private long upcoming;
+    private long completed;
+    private long cancelled;
+
+    public DoctorDashboardSummary() {
+    }
+
+    public DoctorDashboardSummary(List<Appointment> todayAppointments,
+                                  long upcoming,
+                                  long completed,
+                                  long cancelled) {
+        this.todayAppointments = todayAppointments;
+        this.upcoming = upcoming;
+        this.completed = completed;
+        this.cancelled = cancelled;
+    }
+
+    public List<Appointment> getTodayAppointments() {
+        return todayAppointments;
+    }
+
+    public long getUpcoming() {
+        return upcoming;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public long getCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,41 @@
+package com.ghp.gestionhospitale.dto;
+
+public class PatientSuggestion {
+
+    private String id;
+    private String patientId;
+    private String name;
+    private String phone;
+    private String email;
+
+    public PatientSuggestion() {
+    }
+
+    public PatientSuggestion(String id, String patientId, String name, String phone, String email) {
+        this.id = id;
+        this.patientId = patientId;
+        this.name = name;
+        this.phone = phone;
+        this.email = email;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getPatientId() {
+        return patientId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+}
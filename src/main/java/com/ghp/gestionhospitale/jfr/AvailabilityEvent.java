@@ -0,0 +1,34 @@
+package com.ghp.gestionhospitale.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Free slots of a doctor on a day, computed for the availability endpoint or a booking check.
+ */
+@Name("ghp.Availability")
+@Label("Availability")
+@Category({"GHP", "Appointments"})
+@StackTrace(false)
+public class AvailabilityEvent extends Event {
+
+    @Label("Doctor")
+    public String doctorId;
+
+    @Label("Date")
+    public String date;
+
+    @Label("Booked Slots")
+    public int bookedSlots;
+
+    @Label("Free Slots")
+    public int freeSlots;
+
+    @Label("Cached")
+    @Description("Booked times read from the lookup cache rather than MongoDB")
+    public boolean cached;
+}
@@ -0,0 +1,54 @@
+package com.ghp.gestionhospitale.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One stage of a booking: resolve (doctor and patient), availability, insert or notify.
+ */
+@Name("ghp.BookingStage")
+@Label("Booking Stage")
+@Category({"GHP", "Appointments"})
+@StackTrace(false)
+public class BookingStageEvent extends Event {
+
+    public static final String RESOLVE = "resolve";
+    public static final String AVAILABILITY = "availability";
+    public static final String INSERT = "insert";
+    public static final String NOTIFY = "notify";
+
+    @Label("Stage")
+    public String stage;
+
+    @Label("Doctor")
+    public String doctorId;
+
+    @Label("Appointment")
+    @Description("Custom appointment id, once generated")
+    public String appointmentId;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+
+    public static BookingStageEvent start(String stage) {
+        BookingStageEvent event = new BookingStageEvent();
+        event.stage = stage;
+        event.begin();
+        return event;
+    }
+
+    // The fields are only filled in when the event is recorded
+    public void finish(String doctorId, String appointmentId, boolean succeeded) {
+        end();
+        if (shouldCommit()) {
+            this.doctorId = doctorId;
+            this.appointmentId = appointmentId;
+            this.succeeded = succeeded;
+            commit();
+        }
+    }
+}
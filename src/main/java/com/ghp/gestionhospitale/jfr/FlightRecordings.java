@@ -0,0 +1,142 @@
+package com.ghp.gestionhospitale.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The on-demand flight recording of this node, driven from the admin endpoints. At most one runs
+ * at a time; it keeps the last max-age of events within max-size, and dumps copy what it holds so far.
+ */
+@Component
+public class FlightRecordings {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightRecordings.class);
+
+    private static final String RECORDING_NAME = "ghp-admin";
+    private static final List<String> SETTINGS = List.of("default", "profile");
+
+    private final Duration maxAge;
+    private final long maxSizeBytes;
+    private final Duration maxDuration;
+
+    private Recording recording;
+
+    public FlightRecordings(@Value("${jfr.recording.max-age-minutes:30}") long maxAgeMinutes,
+                            @Value("${jfr.recording.max-size-mb:100}") long maxSizeMb,
+                            @Value("${jfr.recording.max-duration-minutes:60}") long maxDurationMinutes) {
+        this.maxAge = Duration.ofMinutes(maxAgeMinutes);
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+        this.maxDuration = Duration.ofMinutes(maxDurationMinutes);
+    }
+
+    /**
+     * Starts a recording with the JDK "default" (about 1% overhead) or "profile" settings; the
+     * application events are always enabled. Stops on its own after the duration (capped by max-duration).
+     */
+    public synchronized Map<String, Object> start(String settings, Duration duration) throws IOException, ParseException {
+        if (!SETTINGS.contains(settings)) {
+            throw new IllegalArgumentException("Unknown settings '" + settings + "', expected one of " + SETTINGS);
+        }
+        if (!FlightRecorder.isAvailable()) {
+            throw new IllegalStateException("Flight Recorder is not available in this JVM");
+        }
+        if (isRunning()) {
+            throw new IllegalStateException("A recording is already running, stop it first");
+        }
+        close();
+
+        Recording started = new Recording(Configuration.getConfiguration(settings));
+        started.setName(RECORDING_NAME);
+        started.setToDisk(true);
+        started.setMaxAge(maxAge);
+        started.setMaxSize(maxSizeBytes);
+        started.setDuration(duration == null || duration.compareTo(maxDuration) > 0 ? maxDuration : duration);
+        started.enable(AvailabilityEvent.class);
+        started.enable(BookingStageEvent.class);
+        started.enable(ReportSectionEvent.class);
+        started.enable(ReportRenderEvent.class);
+        started.enable(MongoCommandEvent.class);
+        started.start();
+        recording = started;
+        log.info("Flight recording started ({} settings, stops after {})", settings, started.getDuration());
+        return status();
+    }
+
+    /**
+     * Copies what the recording holds so far to a temporary .jfr file, which the caller deletes.
+     * Works on a running recording and on one that stopped on its own.
+     */
+    public synchronized Path dump() throws IOException {
+        if (recording == null || recording.getState() == RecordingState.CLOSED) {
+            throw new IllegalStateException("No recording to dump, start one first");
+        }
+        Path file = Files.createTempFile("ghp-", ".jfr");
+        recording.dump(file);
+        return file;
+    }
+
+    public synchronized Map<String, Object> stop() {
+        if (!isRunning()) {
+            throw new IllegalStateException("No recording is running");
+        }
+        recording.stop();
+        log.info("Flight recording stopped");
+        return status();
+    }
+
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("available", FlightRecorder.isAvailable());
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("state", recording.getState().name());
+        status.put("startedAt", instantOrNull(recording.getStartTime()));
+        status.put("stopsAt", recording.getStartTime() != null && recording.getDuration() != null
+                ? recording.getStartTime().plus(recording.getDuration()).toString()
+                : null);
+        status.put("sizeBytes", recording.getSize());
+        status.put("maxAgeMinutes", maxAge.toMinutes());
+        status.put("maxSizeBytes", maxSizeBytes);
+        return status;
+    }
+
+    private boolean isRunning() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        close();
+    }
+
+    // A finished recording is kept until the next start, so it can still be dumped
+    private void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private static String instantOrNull(Instant instant) {
+        return instant != null ? instant.toString() : null;
+    }
+}
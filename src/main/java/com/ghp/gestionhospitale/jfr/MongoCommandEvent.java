@@ -0,0 +1,35 @@
+package com.ghp.gestionhospitale.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One MongoDB round trip, from the command being sent to its reply.
+ */
+@Name("ghp.MongoCommand")
+@Label("MongoDB Command")
+@Category({"GHP", "MongoDB"})
+@StackTrace(false)
+public class MongoCommandEvent extends Event {
+
+    @Label("Command")
+    public String command;
+
+    @Label("Database")
+    public String database;
+
+    @Label("Collection")
+    public String collection;
+
+    @Label("Server")
+    public String server;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+
+    @Label("Error")
+    public String error;
+}
@@ -0,0 +1,69 @@
+package com.ghp.gestionhospitale.jfr;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Turns the driver's command events into MongoCommandEvents. Nothing is allocated or kept
+ * while no recording has the event enabled.
+ */
+public class MongoCommandJfrListener implements CommandListener {
+
+    // Request ids are unique within the driver, across clients and connections
+    private final Map<Integer, MongoCommandEvent> inFlight = new ConcurrentHashMap<>();
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        MongoCommandEvent command = new MongoCommandEvent();
+        if (!command.isEnabled()) {
+            return;
+        }
+        command.command = event.getCommandName();
+        command.database = event.getDatabaseName();
+        command.collection = collectionOf(event.getCommandName(), event.getCommand());
+        command.server = event.getConnectionDescription().getServerAddress().toString();
+        command.begin();
+        inFlight.put(event.getRequestId(), command);
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        finish(event.getRequestId(), null);
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        Throwable failure = event.getThrowable();
+        finish(event.getRequestId(), failure != null ? failure.getClass().getSimpleName() + ": " + failure.getMessage() : "failed");
+    }
+
+    private void finish(int requestId, String error) {
+        MongoCommandEvent command = inFlight.remove(requestId);
+        if (command == null) {
+            return;
+        }
+        command.end();
+        if (command.shouldCommit()) {
+            command.succeeded = error == null;
+            command.error = error;
+            command.commit();
+        }
+    }
+
+    // find, insert, update, aggregate... name their collection; getMore has it in a separate field
+    private static String collectionOf(String commandName, BsonDocument command) {
+        BsonValue value = command.get(commandName);
+        if (value != null && value.isString()) {
+            return value.asString().getValue();
+        }
+        BsonValue collection = command.get("collection");
+        return collection != null && collection.isString() ? collection.asString().getValue() : null;
+    }
+}
@@ -0,0 +1,23 @@
+package com.ghp.gestionhospitale.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Rendering of a report export (PDF or DOCX), once its data is loaded.
+ */
+@Name("ghp.ReportRender")
+@Label("Report Render")
+@Category({"GHP", "Reports"})
+public class ReportRenderEvent extends Event {
+
+    @Label("Format")
+    public String format;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,48 @@
+package com.ghp.gestionhospitale.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One section of the reports (queries and grouping), as served by /api/reports or gathered for an export.
+ */
+@Name("ghp.ReportSection")
+@Label("Report Section")
+@Category({"GHP", "Reports"})
+public class ReportSectionEvent extends Event {
+
+    @Label("Section")
+    public String section;
+
+    @Label("From")
+    public String from;
+
+    @Label("To")
+    public String to;
+
+    @Label("Appointments")
+    public int appointments;
+
+    @Label("Rows")
+    public int rows;
+
+    public static ReportSectionEvent start(String section) {
+        ReportSectionEvent event = new ReportSectionEvent();
+        event.section = section;
+        event.begin();
+        return event;
+    }
+
+    public void finish(Object from, Object to, int appointments, int rows) {
+        end();
+        if (shouldCommit()) {
+            this.from = from != null ? from.toString() : null;
+            this.to = to != null ? to.toString() : null;
+            this.appointments = appointments;
+            this.rows = rows;
+            commit();
+        }
+    }
+}
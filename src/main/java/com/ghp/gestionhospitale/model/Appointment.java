@@ -3,11 +3,22 @@ package com.ghp.gestionhospitale.model;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDate;
 
 @Document(collection = "appointments")
+@CompoundIndexes({
+        @CompoundIndex(name = "doctor_date_time", def = "{'doctorId': 1, 'date': 1, 'time': 1}"),
+        // Covers the completed/cancelled counts of the doctor dashboard
+        @CompoundIndex(name = "doctor_status", def = "{'doctorId': 1, 'status': 1}"),
+        // At most one planned appointment per doctor and slot, whatever the races between bookings
+        @CompoundIndex(name = "doctor_date_time_planned", def = "{'doctorId': 1, 'date': 1, 'time': 1, 'status': 1}",
+                unique = true, partialFilter = "{ 'status': 'PLANIFIE' }")
+})
 public class Appointment {
     @Id
     private String id;
@@ -21,6 +32,7 @@ public class Appointment {
     private String doctorId;      // Reference to doctor
     
     @NotNull(message = "La date est obligatoire")
+    @Indexed
     private LocalDate date;       // Appointment date
     
     @NotBlank(message = "L'heure est obligatoire")
@@ -29,6 +41,9 @@ public class Appointment {
     private String status;        // "PLANIFIE", "TERMINE", "ANNULE"
     private String remarks;       // Additional notes
 
+    // Incremented by every partial update; send it back on update to detect concurrent changes
+    private Long version;
+
     // Default constructor
     public Appointment() {
     }
@@ -110,6 +125,14 @@ public class Appointment {
         this.remarks = remarks;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "Appointment{" +
@@ -1,8 +1,10 @@
 package com.ghp.gestionhospitale.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.List;
@@ -38,6 +40,17 @@ public class Doctor {
     private int appointmentDuration; // in minutes (e.g., 30)
     private List<String> unavailableDates; // ["2025-12-25", "2026-01-01"]
 
+    // Incremented by every partial update; send it back on update to detect concurrent changes
+    private Long version;
+
+    // Normalized name keys for search, maintained on write (see SearchKeys)
+    @JsonIgnore
+    private String searchName;
+
+    @JsonIgnore
+    @Indexed
+    private List<String> searchTokens;
+
     // Inner class for Working Hours
     public static class WorkingHours {
         private String start; // "09:00"
@@ -205,6 +218,30 @@ public class Doctor {
         this.unavailableDates = unavailableDates;
     }
 
+    public String getSearchName() {
+        return searchName;
+    }
+
+    public void setSearchName(String searchName) {
+        this.searchName = searchName;
+    }
+
+    public List<String> getSearchTokens() {
+        return searchTokens;
+    }
+
+    public void setSearchTokens(List<String> searchTokens) {
+        this.searchTokens = searchTokens;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "Doctor{" +
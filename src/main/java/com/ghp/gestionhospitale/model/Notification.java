@@ -3,6 +3,8 @@ package com.ghp.gestionhospitale.model;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.IndexDirection;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -15,6 +17,8 @@ public class Notification {
     @Id
     private String id;
 
+    // Backs the "latest 50" feed and the retention job
+    @Indexed(name = "timestamp_desc", direction = IndexDirection.DESCENDING)
     private LocalDateTime timestamp;
     private String channel; // EMAIL or SMS
     private String recipientType; // DOCTOR or PATIENT
@@ -1,5 +1,6 @@
 package com.ghp.gestionhospitale.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -10,6 +11,7 @@ import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDate;
+import java.util.List;
 
 @Setter
 @Getter
@@ -21,7 +23,7 @@ public class Patient {
 
     private String patientId; // Custom ID like "P1801"
 
-    @Indexed(unique = true)
+    @Indexed(unique = true, sparse = true)
     private String identifier; // Globally unique identifier like PID-XXXXXX
     
     @NotBlank(message = "Le nom est obligatoire")
@@ -43,6 +45,17 @@ public class Patient {
     @NotBlank(message = "L'adresse est obligatoire")
     private String address;
 
+    // Incremented by every partial update; send it back on update to detect concurrent changes
+    private Long version;
+
+    // Normalized name keys for search, maintained on write (see SearchKeys)
+    @JsonIgnore
+    private String searchName;
+
+    @JsonIgnore
+    @Indexed
+    private List<String> searchTokens;
+
     // Default constructor
     public Patient() {
     }
@@ -0,0 +1,38 @@
+package com.ghp.gestionhospitale.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Document(collection = "refresh_tokens")
+public class RefreshToken {
+
+    // SHA-256 of the token handed to the client, which is never stored
+    @Id
+    private String id;
+
+    @Indexed
+    private String username;
+
+    private Instant createdAt;
+
+    // MongoDB removes expired tokens
+    @Indexed(name = "expiresAt_ttl", expireAfter = "0s")
+    private Instant expiresAt;
+
+    public RefreshToken() {
+    }
+
+    public RefreshToken(String id, String username, Instant createdAt, Instant expiresAt) {
+        this.id = id;
+        this.username = username;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+}
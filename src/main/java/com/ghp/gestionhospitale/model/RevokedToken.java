@@ -0,0 +1,32 @@
+package com.ghp.gestionhospitale.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * An access token revoked before its expiry, by its jti. Kept until the token would have expired anyway.
+ */
+@Getter
+@Setter
+@Document(collection = "revoked_tokens")
+public class RevokedToken {
+
+    @Id
+    private String jti;
+
+    @Indexed(name = "expiresAt_ttl", expireAfter = "0s")
+    private Instant expiresAt;
+
+    public RevokedToken() {
+    }
+
+    public RevokedToken(String jti, Instant expiresAt) {
+        this.jti = jti;
+        this.expiresAt = expiresAt;
+    }
+}
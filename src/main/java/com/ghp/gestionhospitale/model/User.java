@@ -3,11 +3,13 @@ package com.ghp.gestionhospitale.model;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
 
@@ -19,6 +21,8 @@ public class User implements UserDetails {
     @Getter
     @Id
     private String id;
+    // Looked up on every login
+    @Indexed
     private String username;
     private String password;
     @Getter
@@ -26,6 +30,8 @@ public class User implements UserDetails {
     @Getter
     private String patientId; // For patient role
     private boolean enabled = true;
+    @Getter
+    private Instant lastLoginAt; // Picks the accounts loaded by the user cache warm-up
 
     // Spring Security 6 UserDetails implementation
     @Override
@@ -83,6 +89,7 @@ public class User implements UserDetails {
                 ", role='" + role + '\'' +
                 ", patientId='" + patientId + '\'' +
                 ", enabled=" + enabled +
+                ", lastLoginAt=" + lastLoginAt +
                 '}';
     }
 }
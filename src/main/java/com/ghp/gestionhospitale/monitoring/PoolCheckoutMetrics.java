@@ -0,0 +1,54 @@
+package com.ghp.gestionhospitale.monitoring;
+
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time spent waiting for a pooled MongoDB connection, and checkouts that gave up. Spring Boot already
+ * publishes the pool size, checked-out count and wait queue (mongodb.driver.pool.*); this adds how
+ * long callers were blocked, which is what shows a pool that is too small.
+ */
+@Component
+public class PoolCheckoutMetrics implements ConnectionPoolListener {
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> checkoutTimers = new ConcurrentHashMap<>();
+
+    public PoolCheckoutMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        String server = serverAddress(event.getConnectionId().getServerId());
+        checkoutTimers.computeIfAbsent(server, address -> Timer.builder("mongodb.driver.pool.checkout")
+                        .description("Time waited for a connection from the MongoDB pool")
+                        .tag("server.address", address)
+                        .register(registry))
+                .record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        Counter.builder("mongodb.driver.pool.checkout.failed")
+                .description("Connection checkouts that failed (TIMEOUT: pool exhausted for max-wait-time)")
+                .tag("server.address", serverAddress(event.getServerId()))
+                .tag("reason", event.getReason().name())
+                .register(registry)
+                .increment();
+    }
+
+    private static String serverAddress(ServerId serverId) {
+        return serverId.getAddress().getHost() + ":" + serverId.getAddress().getPort();
+    }
+}
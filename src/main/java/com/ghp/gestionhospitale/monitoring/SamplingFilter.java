@@ -0,0 +1,64 @@
+package com.ghp.gestionhospitale.monitoring;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate limit for high-volume log events: those carrying the SAMPLED marker pass at most perSecond
+ * times per logger and second, the rest are dropped before reaching the async queue. WARN and
+ * above always pass. Configured in logback-spring.xml.
+ */
+public class SamplingFilter extends Filter<ILoggingEvent> {
+
+    public static final Marker SAMPLED = MarkerFactory.getMarker("SAMPLED");
+
+    private static final LongAdder DROPPED = new LongAdder();
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private int perSecond = 20;
+
+    public void setPerSecond(int perSecond) {
+        this.perSecond = perSecond;
+    }
+
+    // Sampled events dropped since startup
+    public static long dropped() {
+        return DROPPED.sum();
+    }
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        if (event.getMarkerList() == null || !event.getMarkerList().contains(SAMPLED)
+                || event.getLevel().isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        Window window = windows.computeIfAbsent(event.getLoggerName(), name -> new Window());
+        if (window.admit(event.getTimeStamp() / 1000, perSecond)) {
+            return FilterReply.NEUTRAL;
+        }
+        DROPPED.increment();
+        return FilterReply.DENY;
+    }
+
+    private static final class Window {
+
+        private long second;
+        private int count;
+
+        synchronized boolean admit(long now, int limit) {
+            if (now != second) {
+                second = now;
+                count = 0;
+            }
+            return ++count <= limit;
+        }
+    }
+}
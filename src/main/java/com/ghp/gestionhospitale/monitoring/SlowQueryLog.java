@@ -0,0 +1,401 @@
+package com.ghp.gestionhospitale.monitoring;
+
+import com.mongodb.MongoException;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * MongoDB commands slower than the threshold, kept in a bounded ring buffer with their collection,
+ * filter shape (field names and operators, values left out), duration and documents returned.
+ * Optionally runs explain once per new slow shape, off the request path. Replaces turning on DEBUG
+ * logging of org.springframework.data.mongodb.core, which logs every query.
+ * <p>
+ * getMores that wait for data on purpose are left out: those on change stream cursors (the cache
+ * invalidation watch idles in them) and any other awaitData getMore, which carries maxTimeMS.
+ */
+@Component
+public class SlowQueryLog implements CommandListener {
+
+    // Commands with a filter worth a shape (and an explain); the others are recorded by name only
+    private static final Map<String, String> FILTER_FIELDS = Map.of(
+            "find", "filter",
+            "count", "query",
+            "distinct", "query",
+            "findAndModify", "query",
+            "aggregate", "pipeline",
+            "update", "updates",
+            "delete", "deletes");
+    private static final Set<String> RECORDED = Set.of("find", "count", "distinct", "findAndModify", "aggregate",
+            "update", "delete", "insert", "getMore");
+    // Added by the driver; explain rejects some of them and needs none
+    private static final Set<String> DRIVER_FIELDS = Set.of("lsid", "txnNumber", "autocommit", "startTransaction",
+            "apiVersion", "apiStrict", "apiDeprecationErrors", "readConcern", "writeConcern");
+    private static final int MAX_EXPLAINED_SHAPES = 200;
+
+    private final boolean enabled;
+    private final long thresholdMs;
+    private final int capacity;
+    private final boolean explain;
+    private final ObjectProvider<MongoTemplate> mongoTemplate;
+
+    private final Map<Integer, Pending> inFlight = new ConcurrentHashMap<>();
+    // Ids of the open change stream cursors, from the aggregate that opened them until killCursors
+    private final Set<Long> changeStreamCursors = ConcurrentHashMap.newKeySet();
+    private final ArrayDeque<SlowQuery> recent = new ArrayDeque<>();
+    private final Map<String, Object> explained = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor explainer;
+
+    public SlowQueryLog(@Value("${mongodb.slow-query.enabled:true}") boolean enabled,
+                        @Value("${mongodb.slow-query.threshold-ms:100}") long thresholdMs,
+                        @Value("${mongodb.slow-query.capacity:500}") int capacity,
+                        @Value("${mongodb.slow-query.explain:false}") boolean explain,
+                        ObjectProvider<MongoTemplate> mongoTemplate) {
+        this.enabled = enabled;
+        this.thresholdMs = thresholdMs;
+        this.capacity = capacity;
+        this.explain = explain;
+        this.mongoTemplate = mongoTemplate;
+        // One explain at a time; new shapes arriving while the queue is full are explained on their next slow run
+        this.explainer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(16), runnable -> {
+            Thread thread = new Thread(runnable, "slow-query-explain");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    record SlowQuery(Instant at, String command, String database, String collection, String shape,
+                     long durationMs, long documents, boolean failed) {
+    }
+
+    // What is known when the command starts: the command document is only readable during the callback
+    private record Pending(String command, String database, String collection, String shape, BsonDocument explainable,
+                           boolean changeStream) {
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        String commandName = event.getCommandName();
+        BsonDocument command = event.getCommand();
+        if ("killCursors".equals(commandName)) {
+            BsonValue cursors = command.get("cursors");
+            if (cursors != null && cursors.isArray()) {
+                cursors.asArray().forEach(cursor -> changeStreamCursors.remove(cursor.asNumber().longValue()));
+            }
+            return;
+        }
+        if (!RECORDED.contains(commandName) || isAwaitingGetMore(commandName, command)) {
+            return;
+        }
+        String collection = collectionOf(commandName, command);
+        String shape = shapeOf(commandName, command);
+        BsonDocument explainable = explain && FILTER_FIELDS.containsKey(commandName)
+                && !explained.containsKey(key(commandName, collection, shape))
+                ? explainable(command)
+                : null;
+        inFlight.put(event.getRequestId(), new Pending(commandName, event.getDatabaseName(), collection, shape, explainable,
+                "aggregate".equals(commandName) && opensChangeStream(command)));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        Pending pending = inFlight.remove(event.getRequestId());
+        if (pending != null && pending.changeStream()) {
+            long cursorId = cursorIdOf(event.getResponse());
+            if (cursorId != 0) {
+                changeStreamCursors.add(cursorId);
+            }
+        }
+        if (pending != null && event.getElapsedTime(TimeUnit.MILLISECONDS) >= thresholdMs) {
+            record(pending, event.getElapsedTime(TimeUnit.MILLISECONDS), documentsIn(event.getResponse()), false);
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        Pending pending = inFlight.remove(event.getRequestId());
+        if (pending != null && event.getElapsedTime(TimeUnit.MILLISECONDS) >= thresholdMs) {
+            record(pending, event.getElapsedTime(TimeUnit.MILLISECONDS), 0, true);
+        }
+    }
+
+    private void record(Pending pending, long durationMs, long documents, boolean failed) {
+        SlowQuery slowQuery = new SlowQuery(Instant.now(), pending.command(), pending.database(), pending.collection(),
+                pending.shape(), durationMs, documents, failed);
+        synchronized (recent) {
+            if (recent.size() == capacity) {
+                recent.removeFirst();
+            }
+            recent.addLast(slowQuery);
+        }
+        if (pending.explainable() != null && explained.size() < MAX_EXPLAINED_SHAPES) {
+            String key = key(pending.command(), pending.collection(), pending.shape());
+            explainer.execute(() -> explain(key, pending));
+        }
+    }
+
+    private void explain(String key, Pending pending) {
+        if (explained.containsKey(key)) {
+            return;
+        }
+        MongoTemplate template = mongoTemplate.getIfAvailable();
+        if (template == null) {
+            return;
+        }
+        try {
+            Document result = template.getMongoDatabaseFactory().getMongoDatabase(pending.database())
+                    .runCommand(new Document("explain", pending.explainable()).append("verbosity", "queryPlanner"));
+            Object winningPlan = find(result, "winningPlan");
+            explained.put(key, winningPlan != null ? winningPlan : result);
+        } catch (MongoException e) {
+            explained.put(key, Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+
+    /**
+     * Slow commands still in the buffer, grouped by shape, the largest total time first.
+     */
+    public Map<String, Object> report(int limit) {
+        List<SlowQuery> snapshot;
+        synchronized (recent) {
+            snapshot = new ArrayList<>(recent);
+        }
+        Map<String, List<SlowQuery>> byShape = snapshot.stream()
+                .collect(Collectors.groupingBy(query -> key(query.command(), query.collection(), query.shape()),
+                        LinkedHashMap::new, Collectors.toList()));
+
+        List<Map<String, Object>> shapes = byShape.entrySet().stream()
+                .map(entry -> describe(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingLong((Map<String, Object> shape) -> (Long) shape.get("totalMs")).reversed())
+                .limit(limit)
+                .toList();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("enabled", enabled);
+        report.put("thresholdMs", thresholdMs);
+        report.put("captured", snapshot.size());
+        report.put("capacity", capacity);
+        report.put("since", snapshot.isEmpty() ? null : snapshot.get(0).at().toString());
+        report.put("shapes", shapes);
+        return report;
+    }
+
+    public void clear() {
+        synchronized (recent) {
+            recent.clear();
+        }
+        explained.clear();
+    }
+
+    private Map<String, Object> describe(String key, List<SlowQuery> queries) {
+        SlowQuery first = queries.get(0);
+        long total = queries.stream().mapToLong(SlowQuery::durationMs).sum();
+        Map<String, Object> shape = new LinkedHashMap<>();
+        shape.put("command", first.command());
+        shape.put("collection", first.collection());
+        shape.put("shape", first.shape());
+        shape.put("count", (long) queries.size());
+        shape.put("totalMs", total);
+        shape.put("avgMs", total / queries.size());
+        shape.put("maxMs", queries.stream().mapToLong(SlowQuery::durationMs).max().orElse(0));
+        shape.put("documents", queries.stream().mapToLong(SlowQuery::documents).sum());
+        shape.put("failed", queries.stream().filter(SlowQuery::failed).count());
+        shape.put("lastAt", queries.get(queries.size() - 1).at().toString());
+        if (explained.containsKey(key)) {
+            shape.put("winningPlan", explained.get(key));
+        }
+        return shape;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        explainer.shutdownNow();
+    }
+
+    private static String key(String command, String collection, String shape) {
+        return command + " " + collection + " " + shape;
+    }
+
+    private boolean isAwaitingGetMore(String commandName, BsonDocument command) {
+        if (!"getMore".equals(commandName)) {
+            return false;
+        }
+        BsonValue cursorId = command.get("getMore");
+        return command.containsKey("maxTimeMS")
+                || (cursorId != null && cursorId.isNumber() && changeStreamCursors.contains(cursorId.asNumber().longValue()));
+    }
+
+    private static boolean opensChangeStream(BsonDocument command) {
+        BsonValue pipeline = command.get("pipeline");
+        return pipeline != null && pipeline.isArray() && !pipeline.asArray().isEmpty()
+                && pipeline.asArray().get(0).isDocument()
+                && pipeline.asArray().get(0).asDocument().containsKey("$changeStream");
+    }
+
+    private static long cursorIdOf(BsonDocument response) {
+        BsonValue cursor = response.get("cursor");
+        BsonValue id = cursor != null && cursor.isDocument() ? cursor.asDocument().get("id") : null;
+        return id != null && id.isNumber() ? id.asNumber().longValue() : 0;
+    }
+
+    private static String collectionOf(String commandName, BsonDocument command) {
+        BsonValue value = command.get(commandName);
+        if (value != null && value.isString()) {
+            return value.asString().getValue();
+        }
+        // getMore names its collection separately
+        BsonValue collection = command.get("collection");
+        return collection != null && collection.isString() ? collection.asString().getValue() : null;
+    }
+
+    static String shapeOf(String commandName, BsonDocument command) {
+        String field = FILTER_FIELDS.get(commandName);
+        BsonValue filter = field != null ? command.get(field) : null;
+        if (filter == null) {
+            return "";
+        }
+        StringBuilder shape = new StringBuilder();
+        switch (commandName) {
+            case "aggregate" -> {
+                // Stage names, with the shape of $match stages
+                shape.append('[');
+                for (BsonValue stage : filter.asArray()) {
+                    if (shape.length() > 1) {
+                        shape.append(", ");
+                    }
+                    String name = stage.asDocument().getFirstKey();
+                    shape.append(name);
+                    if ("$match".equals(name)) {
+                        appendShape(shape, stage.asDocument().get(name));
+                    }
+                }
+                shape.append(']');
+            }
+            case "update", "delete" -> {
+                // Bulk statements: the first one stands for the batch
+                BsonArray statements = filter.asArray();
+                if (!statements.isEmpty()) {
+                    appendShape(shape, statements.get(0).asDocument().get("q"));
+                }
+            }
+            default -> appendShape(shape, filter);
+        }
+        BsonValue sort = command.get("sort");
+        if (sort != null && sort.isDocument() && !sort.asDocument().isEmpty()) {
+            shape.append(" sort ").append(sort.asDocument().toJson());
+        }
+        return shape.toString();
+    }
+
+    // Field names and operators as they are, values replaced by ?
+    private static void appendShape(StringBuilder shape, BsonValue value) {
+        if (value == null) {
+            return;
+        }
+        if (value.isDocument()) {
+            shape.append('{');
+            boolean first = true;
+            for (Map.Entry<String, BsonValue> entry : value.asDocument().entrySet()) {
+                if (!first) {
+                    shape.append(", ");
+                }
+                first = false;
+                shape.append(entry.getKey()).append(": ");
+                BsonValue nested = entry.getValue();
+                if (nested.isDocument() || (nested.isArray() && isLogical(entry.getKey()))) {
+                    appendShape(shape, nested);
+                } else {
+                    shape.append('?');
+                }
+            }
+            shape.append('}');
+        } else if (value.isArray()) {
+            shape.append('[');
+            boolean first = true;
+            for (BsonValue element : value.asArray()) {
+                if (!first) {
+                    shape.append(", ");
+                }
+                first = false;
+                appendShape(shape, element);
+            }
+            shape.append(']');
+        } else {
+            shape.append('?');
+        }
+    }
+
+    private static boolean isLogical(String operator) {
+        return "$and".equals(operator) || "$or".equals(operator) || "$nor".equals(operator);
+    }
+
+    private static BsonDocument explainable(BsonDocument command) {
+        BsonDocument copy = command.clone();
+        copy.keySet().removeIf(field -> field.startsWith("$") || DRIVER_FIELDS.contains(field));
+        return copy;
+    }
+
+    private static long documentsIn(BsonDocument response) {
+        BsonValue cursor = response.get("cursor");
+        if (cursor != null && cursor.isDocument()) {
+            BsonValue batch = cursor.asDocument().containsKey("firstBatch")
+                    ? cursor.asDocument().get("firstBatch")
+                    : cursor.asDocument().get("nextBatch");
+            return batch != null && batch.isArray() ? batch.asArray().size() : 0;
+        }
+        BsonValue values = response.get("values");
+        if (values != null && values.isArray()) {
+            return values.asArray().size();
+        }
+        BsonValue n = response.get("n");
+        return n != null && n.isNumber() ? n.asNumber().longValue() : 0;
+    }
+
+    private static Object find(Map<?, ?> document, String key) {
+        if (document.containsKey(key)) {
+            return document.get(key);
+        }
+        for (Object value : document.values()) {
+            Object found = value instanceof Map<?, ?> nested ? find(nested, key) : null;
+            if (found == null && value instanceof List<?> list) {
+                for (Object element : list) {
+                    found = element instanceof Map<?, ?> nested ? find(nested, key) : null;
+                    if (found != null) {
+                        break;
+                    }
+                }
+            }
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+}
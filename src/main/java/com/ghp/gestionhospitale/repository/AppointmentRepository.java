@@ -8,7 +8,7 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
-public interface AppointmentRepository extends MongoRepository<Appointment, String> {
+public interface AppointmentRepository extends MongoRepository<Appointment, String>, AppointmentRepositoryCustom {
 
     // Find appointments by doctor ID and date
     List<Appointment> findByDoctorIdAndDate(String doctorId, LocalDate date);
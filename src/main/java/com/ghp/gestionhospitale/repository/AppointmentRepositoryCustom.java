@@ -0,0 +1,66 @@
+package com.ghp.gestionhospitale.repository;
+
+import com.ghp.gestionhospitale.dto.DoctorDashboardSummary;
+import com.ghp.gestionhospitale.model.Appointment;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Appointment queries that cannot be expressed as derived repository methods.
+ */
+public interface AppointmentRepositoryCustom {
+
+    // Completed and cancelled appointments past the archive horizon live here
+    String ARCHIVE_COLLECTION = "appointments_archive";
+
+    /**
+     * Today's appointments (sorted by time) and the status counters of a doctor, each read
+     * from an index so the cost does not depend on how long the doctor's history is.
+     */
+    DoctorDashboardSummary loadDoctorDashboard(String doctorId, LocalDate today);
+
+    /**
+     * Sets the status in one round trip; empty when the appointment does not exist.
+     */
+    Optional<Appointment> updateStatus(String id, String status);
+
+    /**
+     * Sets date, time, status and remarks in one round trip, provided the appointment is still at
+     * currentDate/currentTime (and at expectedVersion when not null). Empty when nothing matched.
+     */
+    Optional<Appointment> updateIfAt(String id, LocalDate currentDate, String currentTime, Long expectedVersion,
+                                     LocalDate date, String time, String status, String remarks);
+
+    /**
+     * Like {@link #updateIfAt}, for an appointment the caller has read: matches only while it is still
+     * at currentDate/currentTime and at exactly readVersion (null: still without a version).
+     */
+    Optional<Appointment> updateIfUnchanged(String id, LocalDate currentDate, String currentTime, Long readVersion,
+                                            LocalDate date, String time, String status, String remarks);
+
+    /**
+     * Marks every planned appointment before today as completed; returns the number updated.
+     */
+    long completePastAppointments(LocalDate today);
+
+    /**
+     * A patient's appointments from the hot and archive collections, most recent first.
+     */
+    List<Appointment> findHistoryByPatientId(String patientId);
+
+    /**
+     * Moves up to batchSize completed or cancelled appointments dated before cutoff (oldest first)
+     * to the archive collection; returns the number moved.
+     */
+    int archiveBatchBefore(LocalDate cutoff, int batchSize);
+
+    void ensureArchiveIndexes();
+
+    /**
+     * Next number of the appointmentId sequence (counters collection), unique across concurrent
+     * bookings and instances. The sequence starts above the appointments already stored.
+     */
+    long nextAppointmentNumber();
+}
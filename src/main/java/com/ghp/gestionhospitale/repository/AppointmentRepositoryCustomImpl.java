@@ -0,0 +1,192 @@
+package com.ghp.gestionhospitale.repository;
+
+import com.ghp.gestionhospitale.dto.DoctorDashboardSummary;
+import com.ghp.gestionhospitale.model.Appointment;
+import com.ghp.gestionhospitale.model.AppointmentStatus;
+import org.bson.Document;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.aggregation.UnionWithOperation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class AppointmentRepositoryCustomImpl implements AppointmentRepositoryCustom {
+
+    private static final List<String> ARCHIVABLE_STATUSES = List.of(AppointmentStatus.TERMINE, AppointmentStatus.ANNULE);
+    private static final String COUNTERS_COLLECTION = "counters";
+    private static final String APPOINTMENT_SEQUENCE = "appointmentId";
+    // Appointment numbers used to be 3000 + count + 1
+    private static final long FIRST_APPOINTMENT_NUMBER = 3000;
+    private static final Pattern APPOINTMENT_NUMBER = Pattern.compile("A(\\d+)");
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private volatile boolean sequenceSeeded;
+
+    public AppointmentRepositoryCustomImpl(MongoTemplate mongoTemplate, ApplicationEventPublisher eventPublisher) {
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public Optional<Appointment> updateStatus(String id, String status) {
+        return PartialUpdateSupport.findAndModify(mongoTemplate, eventPublisher, Appointment.class, id,
+                Criteria.where("id").is(id),
+                new Update().set("status", status));
+    }
+
+    @Override
+    public Optional<Appointment> updateIfAt(String id, LocalDate currentDate, String currentTime, Long expectedVersion,
+                                            LocalDate date, String time, String status, String remarks) {
+        return PartialUpdateSupport.findAndModify(mongoTemplate, eventPublisher, Appointment.class, id,
+                PartialUpdateSupport.byIdAndVersion(id, expectedVersion)
+                        .and("date").is(currentDate)
+                        .and("time").is(currentTime),
+                new Update()
+                        .set("date", date)
+                        .set("time", time)
+                        .set("status", status)
+                        .set("remarks", remarks));
+    }
+
+    @Override
+    public Optional<Appointment> updateIfUnchanged(String id, LocalDate currentDate, String currentTime, Long readVersion,
+                                                   LocalDate date, String time, String status, String remarks) {
+        return PartialUpdateSupport.findAndModify(mongoTemplate, eventPublisher, Appointment.class, id,
+                PartialUpdateSupport.byIdAndReadVersion(id, readVersion)
+                        .and("date").is(currentDate)
+                        .and("time").is(currentTime),
+                new Update()
+                        .set("date", date)
+                        .set("time", time)
+                        .set("status", status)
+                        .set("remarks", remarks));
+    }
+
+    @Override
+    public long completePastAppointments(LocalDate today) {
+        // Status only: the booked times held by the lookup caches do not change
+        return mongoTemplate.updateMulti(
+                new Query(Criteria.where("date").lt(today).and("status").is(AppointmentStatus.PLANIFIE)),
+                new Update().set("status", AppointmentStatus.TERMINE).inc("version", 1),
+                Appointment.class).getModifiedCount();
+    }
+
+    @Override
+    public DoctorDashboardSummary loadDoctorDashboard(String doctorId, LocalDate today) {
+        // Every section is an index query, so the cost does not grow with the doctor's history:
+        // today's list on doctor_date_time, the counts as COUNT_SCANs on doctor_date_time_planned
+        // (its partial filter matches the PLANIFIE condition) and doctor_status
+        Query todays = new Query(Criteria.where("doctorId").is(doctorId).and("date").is(today))
+                .with(Sort.by(Sort.Direction.ASC, "time"));
+        long upcoming = mongoTemplate.count(new Query(Criteria.where("doctorId").is(doctorId)
+                .and("date").gte(today)
+                .and("status").is(AppointmentStatus.PLANIFIE)), Appointment.class);
+
+        return new DoctorDashboardSummary(mongoTemplate.find(todays, Appointment.class), upcoming,
+                countByStatus(doctorId, AppointmentStatus.TERMINE) + archivedCount(doctorId, AppointmentStatus.TERMINE),
+                countByStatus(doctorId, AppointmentStatus.ANNULE) + archivedCount(doctorId, AppointmentStatus.ANNULE));
+    }
+
+    private long countByStatus(String doctorId, String status) {
+        return mongoTemplate.count(new Query(Criteria.where("doctorId").is(doctorId).and("status").is(status)),
+                Appointment.class);
+    }
+
+    // Covered by the archive's doctor_status index: nothing is fetched, however long the history
+    private long archivedCount(String doctorId, String status) {
+        return mongoTemplate.count(new Query(Criteria.where("doctorId").is(doctorId).and("status").is(status)),
+                ARCHIVE_COLLECTION);
+    }
+
+    @Override
+    public List<Appointment> findHistoryByPatientId(String patientId) {
+        TypedAggregation<Appointment> aggregation = Aggregation.newAggregation(Appointment.class,
+                Aggregation.match(Criteria.where("patientId").is(patientId)),
+                UnionWithOperation.unionWith(ARCHIVE_COLLECTION)
+                        .pipeline(Aggregation.match(Criteria.where("patientId").is(patientId)))
+                        .mapFieldsTo(Appointment.class),
+                Aggregation.sort(Sort.by(Sort.Direction.DESC, "date", "time")));
+        return mongoTemplate.aggregate(aggregation, Appointment.class).getMappedResults();
+    }
+
+    @Override
+    public int archiveBatchBefore(LocalDate cutoff, int batchSize) {
+        String hotCollection = mongoTemplate.getCollectionName(Appointment.class);
+        Query query = new Query(Criteria.where("date").lt(cutoff).and("status").in(ARCHIVABLE_STATUSES))
+                .with(Sort.by(Sort.Direction.ASC, "date"))
+                .limit(batchSize);
+        List<Document> batch = mongoTemplate.find(query, Document.class, hotCollection);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        // Upsert by _id so a batch interrupted between copy and delete can simply be replayed
+        BulkOperations archive = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ARCHIVE_COLLECTION);
+        for (Document document : batch) {
+            archive.replaceOne(new Query(Criteria.where("_id").is(document.get("_id"))), document,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        archive.execute();
+
+        // The status condition leaves alone anything reopened since it was read
+        List<Object> ids = batch.stream().map(document -> document.get("_id")).toList();
+        mongoTemplate.remove(new Query(Criteria.where("_id").in(ids).and("status").in(ARCHIVABLE_STATUSES)), hotCollection);
+        return batch.size();
+    }
+
+    @Override
+    public void ensureArchiveIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(ARCHIVE_COLLECTION);
+        indexOps.ensureIndex(new Index().on("patientId", Sort.Direction.ASC).on("date", Sort.Direction.DESC)
+                .named("patient_date"));
+        indexOps.ensureIndex(new Index().on("doctorId", Sort.Direction.ASC).on("date", Sort.Direction.ASC)
+                .named("doctor_date"));
+        indexOps.ensureIndex(new Index().on("doctorId", Sort.Direction.ASC).on("status", Sort.Direction.ASC)
+                .named("doctor_status"));
+        indexOps.ensureIndex(new Index().on("date", Sort.Direction.ASC).named("date"));
+    }
+
+    @Override
+    public long nextAppointmentNumber() {
+        Query sequence = new Query(Criteria.where("_id").is(APPOINTMENT_SEQUENCE));
+        if (!sequenceSeeded) {
+            // $max is idempotent, so concurrent first calls (or instances) can all seed safely
+            mongoTemplate.upsert(sequence, new Update().max("seq", highestAppointmentNumber()), COUNTERS_COLLECTION);
+            sequenceSeeded = true;
+        }
+        Document counter = mongoTemplate.findAndModify(sequence, new Update().inc("seq", 1L),
+                FindAndModifyOptions.options().upsert(true).returnNew(true), Document.class, COUNTERS_COLLECTION);
+        return counter.get("seq", Number.class).longValue();
+    }
+
+    // Above every number handed out by the count-based generator: the count, or the newest id if higher
+    private long highestAppointmentNumber() {
+        long highest = FIRST_APPOINTMENT_NUMBER + mongoTemplate.estimatedCount(Appointment.class);
+        Query newest = new Query().with(Sort.by(Sort.Direction.DESC, "_id")).limit(1);
+        newest.fields().include("appointmentId");
+        Appointment latest = mongoTemplate.findOne(newest, Appointment.class);
+        if (latest != null && latest.getAppointmentId() != null) {
+            Matcher matcher = APPOINTMENT_NUMBER.matcher(latest.getAppointmentId());
+            if (matcher.matches()) {
+                highest = Math.max(highest, Long.parseLong(matcher.group(1)));
+            }
+        }
+        return highest;
+    }
+}
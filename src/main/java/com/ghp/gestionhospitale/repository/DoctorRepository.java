@@ -7,7 +7,7 @@ import org.springframework.data.mongodb.repository.Query;
 import java.util.List;
 import java.util.Optional;
 
-public interface DoctorRepository extends MongoRepository<Doctor, String> {
+public interface DoctorRepository extends MongoRepository<Doctor, String>, DoctorRepositoryCustom {
 
     // Find doctor by custom doctorId
     Optional<Doctor> findByDoctorId(String doctorId);
@@ -15,9 +15,6 @@ public interface DoctorRepository extends MongoRepository<Doctor, String> {
     // Find doctors by specialization
     List<Doctor> findBySpecialization(String specialization);
 
-    // Search doctors by name (case-insensitive)
-    List<Doctor> findByNameContainingIgnoreCase(String name);
-
     List<Doctor> findBySpecializationContainingIgnoreCase(String specialization);
 
     // Check if doctor email exists
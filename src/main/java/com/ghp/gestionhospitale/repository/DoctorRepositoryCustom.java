@@ -0,0 +1,28 @@
+package com.ghp.gestionhospitale.repository;
+
+import com.ghp.gestionhospitale.model.Doctor;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Doctor queries that cannot be expressed as derived repository methods.
+ */
+public interface DoctorRepositoryCustom {
+
+    /**
+     * Accent-insensitive name search over the normalized search tokens, most relevant first.
+     */
+    List<Doctor> searchByName(String text, int limit);
+
+    /**
+     * Fills in the search keys of doctors stored before they existed; returns the number updated.
+     */
+    int backfillSearchKeys();
+
+    /**
+     * Overwrites the editable fields in one round trip and returns the new state; empty when the
+     * doctor does not exist. A non-null version on the details must match the stored one.
+     */
+    Optional<Doctor> updateProfile(String id, Doctor details);
+}
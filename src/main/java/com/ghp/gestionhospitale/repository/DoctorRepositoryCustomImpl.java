@@ -0,0 +1,54 @@
+package com.ghp.gestionhospitale.repository;
+
+import com.ghp.gestionhospitale.model.Doctor;
+import com.ghp.gestionhospitale.search.SearchKeys;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Optional;
+
+public class DoctorRepositoryCustomImpl implements DoctorRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public DoctorRepositoryCustomImpl(MongoTemplate mongoTemplate, ApplicationEventPublisher eventPublisher) {
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public List<Doctor> searchByName(String text, int limit) {
+        return NameSearchSupport.search(mongoTemplate, Doctor.class, text, limit,
+                Doctor::getId, Doctor::getSearchName, Doctor::getSearchTokens);
+    }
+
+    @Override
+    public int backfillSearchKeys() {
+        return NameSearchSupport.backfill(mongoTemplate, Doctor.class);
+    }
+
+    @Override
+    public Optional<Doctor> updateProfile(String id, Doctor details) {
+        Update update = new Update()
+                .set("name", details.getName())
+                .set("specialization", details.getSpecialization())
+                .set("email", details.getEmail())
+                .set("phone", details.getPhone())
+                .set("workingDays", details.getWorkingDays())
+                .set("workingHours", details.getWorkingHours())
+                .set("breakTime", details.getBreakTime())
+                .set("appointmentDuration", details.getAppointmentDuration())
+                .set("unavailableDates", details.getUnavailableDates())
+                .set("searchName", SearchKeys.normalize(details.getName()))
+                .set("searchTokens", SearchKeys.tokenize(details.getName()));
+
+        Optional<Doctor> updated = PartialUpdateSupport.findAndModify(mongoTemplate, eventPublisher, Doctor.class, id,
+                PartialUpdateSupport.byIdAndVersion(id, details.getVersion()), update);
+        return updated.isPresent()
+                ? updated
+                : PartialUpdateSupport.notFoundOrConflict(mongoTemplate, Doctor.class, id, details.getVersion());
+    }
+}
@@ -0,0 +1,133 @@
+package com.ghp.gestionhospitale.repository;
+
+import com.ghp.gestionhospitale.model.Appointment;
+import com.ghp.gestionhospitale.model.Doctor;
+import com.ghp.gestionhospitale.model.Patient;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.ProjectionOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.aggregation.UnionWithOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Report queries on the dedicated report template. Every query is bounded by maxTimeMS,
+ * only loads the fields the reports actually use, and covers archived appointments too.
+ */
+@Repository
+@Profile("!inmem")
+@Lazy
+public class MongoReportRepository implements ReportRepository {
+
+    private final MongoTemplate reportMongoTemplate;
+    private final Duration maxTime;
+
+    public MongoReportRepository(@Qualifier("reportMongoTemplate") MongoTemplate reportMongoTemplate,
+                                 @Value("${reports.mongodb.max-time-ms:30000}") long maxTimeMs) {
+        this.reportMongoTemplate = reportMongoTemplate;
+        this.maxTime = Duration.ofMillis(maxTimeMs);
+    }
+
+    @Override
+    public List<Appointment> findAppointmentsByDate(LocalDate date) {
+        return findAppointments(Criteria.where("date").is(date));
+    }
+
+    @Override
+    public List<Appointment> findAppointmentsBetween(LocalDate from, LocalDate to) {
+        return findAppointments(Criteria.where("date").gte(from).lte(to));
+    }
+
+    @Override
+    public List<Appointment> findAppointmentsFrom(LocalDate from) {
+        return findAppointments(Criteria.where("date").gte(from));
+    }
+
+    @Override
+    public Map<String, Doctor> findDoctors(Collection<String> identifiers) {
+        Set<String> wanted = distinctNonNull(identifiers);
+        if (wanted.isEmpty()) {
+            return Map.of();
+        }
+
+        Query query = new Query(new Criteria().orOperator(
+                Criteria.where("doctorId").in(wanted),
+                Criteria.where("id").in(wanted)));
+        query.fields().include("doctorId", "name", "specialization");
+        query.maxTime(maxTime);
+
+        Map<String, Doctor> doctors = new HashMap<>();
+        for (Doctor doctor : reportMongoTemplate.find(query, Doctor.class)) {
+            // Same precedence as the single lookups: doctorId before the MongoDB id
+            putIfWanted(doctors, wanted, doctor.getId(), doctor);
+            putIfWanted(doctors, wanted, doctor.getDoctorId(), doctor);
+        }
+        return doctors;
+    }
+
+    @Override
+    public Map<String, Patient> findPatients(Collection<String> identifiers) {
+        Set<String> wanted = distinctNonNull(identifiers);
+        if (wanted.isEmpty()) {
+            return Map.of();
+        }
+
+        Query query = new Query(new Criteria().orOperator(
+                Criteria.where("patientId").in(wanted),
+                Criteria.where("identifier").in(wanted),
+                Criteria.where("id").in(wanted)));
+        query.fields().include("patientId", "identifier", "name");
+        query.maxTime(maxTime);
+
+        Map<String, Patient> patients = new HashMap<>();
+        for (Patient patient : reportMongoTemplate.find(query, Patient.class)) {
+            // Same precedence as the single lookups: patientId, then identifier, then the MongoDB id
+            putIfWanted(patients, wanted, patient.getId(), patient);
+            putIfWanted(patients, wanted, patient.getIdentifier(), patient);
+            putIfWanted(patients, wanted, patient.getPatientId(), patient);
+        }
+        return patients;
+    }
+
+    // Hot and archived appointments in one round trip
+    private List<Appointment> findAppointments(Criteria criteria) {
+        ProjectionOperation reportFields = Aggregation.project("appointmentId", "patientId", "doctorId", "date", "time", "status");
+        TypedAggregation<Appointment> aggregation = Aggregation.newAggregation(Appointment.class,
+                        Aggregation.match(criteria),
+                        reportFields,
+                        UnionWithOperation.unionWith(AppointmentRepositoryCustom.ARCHIVE_COLLECTION)
+                                .pipeline(Aggregation.match(criteria), reportFields)
+                                .mapFieldsTo(Appointment.class))
+                .withOptions(AggregationOptions.builder().maxTime(maxTime).build());
+        return reportMongoTemplate.aggregate(aggregation, Appointment.class).getMappedResults();
+    }
+
+    private static Set<String> distinctNonNull(Collection<String> identifiers) {
+        return identifiers.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    private static <T> void putIfWanted(Map<String, T> target, Set<String> wanted, String key, T value) {
+        if (key != null && wanted.contains(key)) {
+            target.put(key, value);
+        }
+    }
+}
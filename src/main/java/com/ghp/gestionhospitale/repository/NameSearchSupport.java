@@ -0,0 +1,99 @@
+package com.ghp.gestionhospitale.repository;
+
+import com.ghp.gestionhospitale.search.SearchKeys;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Shared implementation of the index-backed name search over the {@code searchTokens} key.
+ */
+final class NameSearchSupport {
+
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    private NameSearchSupport() {
+    }
+
+    /**
+     * Documents whose tokens match every query token, exact matches first, then prefix matches.
+     * Both lookups are equality/anchored-prefix conditions on the multikey index and stop at {@code limit}.
+     */
+    static <T> List<T> search(MongoTemplate mongoTemplate, Class<T> type, String text, int limit,
+                              Function<T, String> idOf,
+                              Function<T, String> searchNameOf,
+                              Function<T, List<String>> searchTokensOf) {
+        List<String> queryTokens = SearchKeys.tokenize(text);
+        if (queryTokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Map<String, T> found = new LinkedHashMap<>();
+        Query exact = new Query(Criteria.where("searchTokens").all(queryTokens)).limit(limit);
+        mongoTemplate.find(exact, type).forEach(item -> found.put(idOf.apply(item), item));
+
+        if (found.size() < limit) {
+            // Tokens are letters/digits only, so they need no regex escaping and keep a pure prefix
+            Object[] prefixes = queryTokens.stream().map(token -> "^" + token)
+                    .map(Pattern::compile)
+                    .toArray();
+            Query prefix = new Query(Criteria.where("searchTokens").all(prefixes)
+                    .and("_id").nin(found.keySet()))
+                    .limit(limit - found.size());
+            mongoTemplate.find(prefix, type).forEach(item -> found.putIfAbsent(idOf.apply(item), item));
+        }
+
+        List<T> results = new ArrayList<>(found.values());
+        results.sort(SearchKeys.byRelevance(queryTokens, searchNameOf, searchTokensOf));
+        return results;
+    }
+
+    /**
+     * Computes the search keys of documents written before they existed.
+     */
+    static int backfill(MongoTemplate mongoTemplate, Class<?> type) {
+        Query missing = new Query(Criteria.where("searchTokens").is(null));
+        missing.fields().include("name");
+        String collection = mongoTemplate.getCollectionName(type);
+
+        int updated = 0;
+        List<Document> batch = new ArrayList<>(BACKFILL_BATCH_SIZE);
+        try (Stream<Document> documents = mongoTemplate.stream(missing, Document.class, collection)) {
+            for (Document document : (Iterable<Document>) documents::iterator) {
+                batch.add(document);
+                if (batch.size() == BACKFILL_BATCH_SIZE) {
+                    updated += writeKeys(mongoTemplate, collection, batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            updated += writeKeys(mongoTemplate, collection, batch);
+        }
+        return updated;
+    }
+
+    private static int writeKeys(MongoTemplate mongoTemplate, String collection, List<Document> documents) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+        for (Document document : documents) {
+            String name = document.getString("name");
+            bulk.updateOne(
+                    new Query(Criteria.where("_id").is(document.get("_id"))),
+                    new Update()
+                            .set("searchName", SearchKeys.normalize(name))
+                            .set("searchTokens", SearchKeys.tokenize(name)));
+        }
+        return bulk.execute().getModifiedCount();
+    }
+}
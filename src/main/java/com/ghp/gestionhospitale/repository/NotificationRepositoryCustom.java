@@ -0,0 +1,36 @@
+package com.ghp.gestionhospitale.repository;
+
+import com.ghp.gestionhospitale.model.Notification;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Retention operations on the notifications collection and its archive.
+ */
+public interface NotificationRepositoryCustom {
+
+    String ARCHIVE_COLLECTION = "notifications_archive";
+
+    /**
+     * Moves up to {@code batchSize} of the oldest notifications written before {@code cutoff}
+     * into the archive collection; returns the number moved.
+     */
+    int archiveBatchOlderThan(LocalDateTime cutoff, int batchSize);
+
+    /**
+     * Deletes up to {@code batchSize} of the oldest notifications written before {@code cutoff}.
+     */
+    int deleteBatchOlderThan(LocalDateTime cutoff, int batchSize);
+
+    /**
+     * Archived notifications older than {@code before}, most recent first.
+     */
+    List<Notification> findArchived(LocalDateTime before, int limit);
+
+    /**
+     * Creates the archive timestamp index, expiring entries after {@code retention} (null keeps them forever).
+     */
+    void ensureArchiveIndexes(Duration retention);
+}
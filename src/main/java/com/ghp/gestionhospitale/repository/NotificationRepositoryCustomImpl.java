@@ -0,0 +1,97 @@
+package com.ghp.gestionhospitale.repository;
+
+import com.ghp.gestionhospitale.model.Notification;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public class NotificationRepositoryCustomImpl implements NotificationRepositoryCustom {
+
+    private static final String ARCHIVE_TTL_INDEX = "timestamp_ttl";
+
+    private final MongoTemplate mongoTemplate;
+
+    public NotificationRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public int archiveBatchOlderThan(LocalDateTime cutoff, int batchSize) {
+        List<Document> batch = findOldestBatch(cutoff, batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        // Upsert by _id so a batch interrupted between copy and delete can simply be replayed
+        BulkOperations archive = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ARCHIVE_COLLECTION);
+        for (Document document : batch) {
+            archive.replaceOne(new Query(Criteria.where("_id").is(document.get("_id"))), document,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        archive.execute();
+
+        deleteByIds(batch);
+        return batch.size();
+    }
+
+    @Override
+    public int deleteBatchOlderThan(LocalDateTime cutoff, int batchSize) {
+        List<Document> batch = findOldestBatch(cutoff, batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        deleteByIds(batch);
+        return batch.size();
+    }
+
+    @Override
+    public List<Notification> findArchived(LocalDateTime before, int limit) {
+        Query query = new Query(Criteria.where("timestamp").lt(before))
+                .with(Sort.by(Sort.Direction.DESC, "timestamp"))
+                .limit(limit);
+        return mongoTemplate.find(query, Notification.class, ARCHIVE_COLLECTION);
+    }
+
+    @Override
+    public void ensureArchiveIndexes(Duration retention) {
+        IndexOperations indexOps = mongoTemplate.indexOps(ARCHIVE_COLLECTION);
+        Optional<IndexInfo> existing = indexOps.getIndexInfo().stream()
+                .filter(info -> ARCHIVE_TTL_INDEX.equals(info.getName()))
+                .findFirst();
+
+        // A TTL change cannot be applied in place through createIndex: drop and recreate
+        if (existing.isPresent() && !existing.get().getExpireAfter().equals(Optional.ofNullable(retention))) {
+            indexOps.dropIndex(ARCHIVE_TTL_INDEX);
+        }
+
+        Index index = new Index().on("timestamp", Sort.Direction.DESC).named(ARCHIVE_TTL_INDEX);
+        if (retention != null) {
+            index.expire(retention);
+        }
+        indexOps.ensureIndex(index);
+    }
+
+    private List<Document> findOldestBatch(LocalDateTime cutoff, int batchSize) {
+        Query query = new Query(Criteria.where("timestamp").lt(cutoff))
+                .with(Sort.by(Sort.Direction.ASC, "timestamp"))
+                .limit(batchSize);
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Notification.class));
+    }
+
+    private void deleteByIds(List<Document> batch) {
+        List<Object> ids = batch.stream().map(document -> document.get("_id")).toList();
+        mongoTemplate.remove(new Query(Criteria.where("_id").in(ids)), mongoTemplate.getCollectionName(Notification.class));
+    }
+}
@@ -0,0 +1,70 @@
+package com.ghp.gestionhospitale.repository;
+
+import com.ghp.gestionhospitale.cache.CacheInvalidationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Optional;
+
+/**
+ * Targeted single-round-trip updates shared by the custom repository fragments. Every update bumps
+ * the version field, and raises the cache invalidation that save() raises through the mapping events.
+ */
+final class PartialUpdateSupport {
+
+    private PartialUpdateSupport() {
+    }
+
+    /**
+     * Matches the document by id and, when the client supplied one, by its expected version.
+     */
+    static Criteria byIdAndVersion(String id, Long expectedVersion) {
+        Criteria criteria = Criteria.where("id").is(id);
+        if (expectedVersion != null) {
+            criteria = criteria.and("version").is(expectedVersion);
+        }
+        return criteria;
+    }
+
+    /**
+     * Matches the document by id and exactly the version it was read with; a document read without a
+     * version only matches while it still has none.
+     */
+    static Criteria byIdAndReadVersion(String id, Long readVersion) {
+        Criteria criteria = Criteria.where("id").is(id);
+        return readVersion != null
+                ? criteria.and("version").is(readVersion)
+                : criteria.and("version").exists(false);
+    }
+
+    /**
+     * Applies the update to the single matching document and returns its new state, or empty when nothing matched.
+     */
+    static <T> Optional<T> findAndModify(MongoTemplate mongoTemplate, ApplicationEventPublisher eventPublisher,
+                                         Class<T> entityClass, String id, Criteria criteria, Update update) {
+        T updated = mongoTemplate.findAndModify(new Query(criteria), update.inc("version", 1),
+                FindAndModifyOptions.options().returnNew(true), entityClass);
+        if (updated != null) {
+            eventPublisher.publishEvent(CacheInvalidationEvent.upsert(
+                    mongoTemplate.getCollectionName(entityClass), id, updated));
+        }
+        return Optional.ofNullable(updated);
+    }
+
+    /**
+     * Nothing matched: a conflict if the document exists with another version, otherwise simply not found.
+     */
+    static <T> Optional<T> notFoundOrConflict(MongoTemplate mongoTemplate, Class<T> entityClass,
+                                              String id, Long expectedVersion) {
+        if (expectedVersion != null && mongoTemplate.exists(new Query(Criteria.where("id").is(id)), entityClass)) {
+            throw new OptimisticLockingFailureException(entityClass.getSimpleName() + " " + id
+                    + " was modified concurrently (expected version " + expectedVersion + ")");
+        }
+        return Optional.empty();
+    }
+}
@@ -2,11 +2,12 @@ package com.ghp.gestionhospitale.repository;
 
 import com.ghp.gestionhospitale.model.Patient;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
-import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface PatientRepository extends MongoRepository<Patient, String> {
+public interface PatientRepository extends MongoRepository<Patient, String>, PatientRepositoryCustom {
 
     // Find patient by custom patientId (like "P1801")
     Optional<Patient> findByPatientId(String patientId);
@@ -14,9 +15,6 @@ public interface PatientRepository extends MongoRepository<Patient, String> {
     // Find patient by globally unique identifier
     Optional<Patient> findByIdentifier(String identifier);
 
-    // Search patients by name (case-insensitive)
-    List<Patient> findByNameContainingIgnoreCase(String name);
-
     // Check if email already exists
     boolean existsByEmail(String email);
 
@@ -24,4 +22,8 @@ public interface PatientRepository extends MongoRepository<Patient, String> {
 
     // Find patient by phone number
     Optional<Patient> findByPhone(String phone);
+
+    // Cursor over the fields indexed by the patient typeahead
+    @Query(value = "{}", fields = "{ 'patientId': 1, 'name': 1, 'phone': 1, 'email': 1 }")
+    Stream<Patient> streamTypeaheadFields();
 }
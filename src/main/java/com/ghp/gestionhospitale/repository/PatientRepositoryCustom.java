@@ -0,0 +1,28 @@
+package com.ghp.gestionhospitale.repository;
+
+import com.ghp.gestionhospitale.model.Patient;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Patient queries that cannot be expressed as derived repository methods.
+ */
+public interface PatientRepositoryCustom {
+
+    /**
+     * Accent-insensitive name search over the normalized search tokens, most relevant first.
+     */
+    List<Patient> searchByName(String text, int limit);
+
+    /**
+     * Fills in the search keys of patients stored before they existed; returns the number updated.
+     */
+    int backfillSearchKeys();
+
+    /**
+     * Overwrites the editable fields in one round trip and returns the new state; empty when the
+     * patient does not exist. A non-null version on the details must match the stored one.
+     */
+    Optional<Patient> updateProfile(String id, Patient details);
+}
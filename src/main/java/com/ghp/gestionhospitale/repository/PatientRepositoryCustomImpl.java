@@ -0,0 +1,51 @@
+package com.ghp.gestionhospitale.repository;
+
+import com.ghp.gestionhospitale.model.Patient;
+import com.ghp.gestionhospitale.search.SearchKeys;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Optional;
+
+public class PatientRepositoryCustomImpl implements PatientRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public PatientRepositoryCustomImpl(MongoTemplate mongoTemplate, ApplicationEventPublisher eventPublisher) {
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public List<Patient> searchByName(String text, int limit) {
+        return NameSearchSupport.search(mongoTemplate, Patient.class, text, limit,
+                Patient::getId, Patient::getSearchName, Patient::getSearchTokens);
+    }
+
+    @Override
+    public int backfillSearchKeys() {
+        return NameSearchSupport.backfill(mongoTemplate, Patient.class);
+    }
+
+    @Override
+    public Optional<Patient> updateProfile(String id, Patient details) {
+        Update update = new Update()
+                .set("name", details.getName())
+                .set("dob", details.getDob())
+                .set("gender", details.getGender())
+                .set("phone", details.getPhone())
+                .set("email", details.getEmail())
+                .set("address", details.getAddress())
+                .set("searchName", SearchKeys.normalize(details.getName()))
+                .set("searchTokens", SearchKeys.tokenize(details.getName()));
+
+        Optional<Patient> updated = PartialUpdateSupport.findAndModify(mongoTemplate, eventPublisher, Patient.class, id,
+                PartialUpdateSupport.byIdAndVersion(id, details.getVersion()), update);
+        return updated.isPresent()
+                ? updated
+                : PartialUpdateSupport.notFoundOrConflict(mongoTemplate, Patient.class, id, details.getVersion());
+    }
+}
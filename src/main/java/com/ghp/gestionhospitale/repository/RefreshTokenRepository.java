@@ -0,0 +1,9 @@
+package com.ghp.gestionhospitale.repository;
+
+import com.ghp.gestionhospitale.model.RefreshToken;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface RefreshTokenRepository extends MongoRepository<RefreshToken, String>, RefreshTokenRepositoryCustom {
+
+    long deleteByUsername(String username);
+}
@@ -0,0 +1,15 @@
+package com.ghp.gestionhospitale.repository;
+
+import com.ghp.gestionhospitale.model.RefreshToken;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface RefreshTokenRepositoryCustom {
+
+    /**
+     * Atomically removes and returns the token if it exists and has not expired at the given instant,
+     * so a refresh token can be used once even with concurrent requests.
+     */
+    Optional<RefreshToken> consume(String id, Instant now);
+}
@@ -0,0 +1,25 @@
+package com.ghp.gestionhospitale.repository;
+
+import com.ghp.gestionhospitale.model.RefreshToken;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public class RefreshTokenRepositoryCustomImpl implements RefreshTokenRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public RefreshTokenRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Optional<RefreshToken> consume(String id, Instant now) {
+        // The TTL monitor runs about once a minute, so expired tokens may still be there
+        Query query = new Query(Criteria.where("id").is(id).and("expiresAt").gt(now));
+        return Optional.ofNullable(mongoTemplate.findAndRemove(query, RefreshToken.class));
+    }
+}
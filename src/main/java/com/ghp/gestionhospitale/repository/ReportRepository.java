@@ -0,0 +1,34 @@
+package com.ghp.gestionhospitale.repository;
+
+import com.ghp.gestionhospitale.model.Appointment;
+import com.ghp.gestionhospitale.model.Doctor;
+import com.ghp.gestionhospitale.model.Patient;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only queries behind the reports and exports, served by the dedicated report connection.
+ */
+public interface ReportRepository {
+
+    List<Appointment> findAppointmentsByDate(LocalDate date);
+
+    // Appointments with from <= date <= to
+    List<Appointment> findAppointmentsBetween(LocalDate from, LocalDate to);
+
+    // Appointments with date >= from
+    List<Appointment> findAppointmentsFrom(LocalDate from);
+
+    /**
+     * Doctors matching any of the identifiers (doctorId or MongoDB id), keyed by every identifier that matched.
+     */
+    Map<String, Doctor> findDoctors(Collection<String> identifiers);
+
+    /**
+     * Patients matching any of the identifiers (patientId, identifier or MongoDB id), keyed by every identifier that matched.
+     */
+    Map<String, Patient> findPatients(Collection<String> identifiers);
+}
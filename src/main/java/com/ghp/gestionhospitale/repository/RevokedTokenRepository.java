@@ -0,0 +1,7 @@
+package com.ghp.gestionhospitale.repository;
+
+import com.ghp.gestionhospitale.model.RevokedToken;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface RevokedTokenRepository extends MongoRepository<RevokedToken, String> {
+}
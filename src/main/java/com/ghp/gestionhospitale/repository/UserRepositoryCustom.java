@@ -0,0 +1,34 @@
+package com.ghp.gestionhospitale.repository;
+
+import com.ghp.gestionhospitale.model.User;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * User account updates and queries that cannot be expressed as derived repository methods.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Enables or disables the account in one round trip and returns its new state; empty when the
+     * username does not exist.
+     */
+    Optional<User> updateEnabled(String username, boolean enabled);
+
+    /**
+     * Replaces the password hash and returns the new state; empty when the username does not exist.
+     */
+    Optional<User> updatePassword(String username, String encodedPassword);
+
+    /**
+     * Stamps the last successful login.
+     */
+    void recordLogin(String username, Instant at);
+
+    /**
+     * The enabled accounts that logged in most recently, newest first.
+     */
+    List<User> findRecentlyLoggedIn(int limit);
+}
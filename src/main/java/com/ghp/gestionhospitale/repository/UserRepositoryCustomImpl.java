@@ -0,0 +1,63 @@
+package com.ghp.gestionhospitale.repository;
+
+import com.ghp.gestionhospitale.cache.CacheInvalidationEvent;
+import com.ghp.gestionhospitale.model.User;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public UserRepositoryCustomImpl(MongoTemplate mongoTemplate, ApplicationEventPublisher eventPublisher) {
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public Optional<User> updateEnabled(String username, boolean enabled) {
+        return update(username, new Update().set("enabled", enabled));
+    }
+
+    @Override
+    public Optional<User> updatePassword(String username, String encodedPassword) {
+        return update(username, new Update().set("password", encodedPassword));
+    }
+
+    @Override
+    public void recordLogin(String username, Instant at) {
+        // Nothing cached depends on it: no invalidation here, and ChangeStreamInvalidator filters it out
+        // (a login would otherwise make every instance reload the user)
+        mongoTemplate.updateFirst(new Query(Criteria.where("username").is(username)),
+                new Update().set("lastLoginAt", at), User.class);
+    }
+
+    @Override
+    public List<User> findRecentlyLoggedIn(int limit) {
+        Query query = new Query(Criteria.where("enabled").is(true).and("lastLoginAt").exists(true))
+                .with(Sort.by(Sort.Direction.DESC, "lastLoginAt"))
+                .limit(limit);
+        return mongoTemplate.find(query, User.class);
+    }
+
+    private Optional<User> update(String username, Update update) {
+        User updated = mongoTemplate.findAndModify(new Query(Criteria.where("username").is(username)), update,
+                FindAndModifyOptions.options().returnNew(true), User.class);
+        if (updated != null) {
+            // Targeted updates bypass the mapping events that invalidate the caches on save()
+            eventPublisher.publishEvent(CacheInvalidationEvent.upsert(
+                    mongoTemplate.getCollectionName(User.class), updated.getId(), updated));
+        }
+        return Optional.ofNullable(updated);
+    }
+}
@@ -0,0 +1,270 @@
+package com.ghp.gestionhospitale.repository.inmem;
+
+import com.ghp.gestionhospitale.cache.CacheInvalidationEvent;
+import com.ghp.gestionhospitale.dto.DoctorDashboardSummary;
+import com.ghp.gestionhospitale.model.Appointment;
+import com.ghp.gestionhospitale.model.AppointmentStatus;
+import com.ghp.gestionhospitale.repository.AppointmentRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+@Repository
+@Profile("inmem")
+public class InMemoryAppointmentRepository extends InMemoryRepository<Appointment> implements AppointmentRepository {
+
+    private static final List<String> ARCHIVABLE_STATUSES = List.of(AppointmentStatus.TERMINE, AppointmentStatus.ANNULE);
+    private static final Comparator<Appointment> MOST_RECENT_FIRST = Comparator
+            .comparing(Appointment::getDate, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Appointment::getTime, Comparator.nullsLast(Comparator.reverseOrder()));
+    private static final long FIRST_APPOINTMENT_NUMBER = 3000;
+    private static final Pattern APPOINTMENT_NUMBER = Pattern.compile("A(\\d+)");
+
+    private final InMemoryStore.HashIndex<Appointment, DoctorDay> byDoctorAndDate =
+            store.hashIndex("doctor_date_time", appointment -> DoctorDay.of(appointment), false);
+    // The unique partial index: planned appointments only
+    private final InMemoryStore.HashIndex<Appointment, PlannedSlot> byPlannedSlot =
+            store.hashIndex("doctor_date_time_planned", appointment -> PlannedSlot.of(appointment), true);
+    private final InMemoryStore.HashIndex<Appointment, String> byDoctor =
+            store.hashIndex("doctorId", Appointment::getDoctorId, false);
+    private final InMemoryStore.HashIndex<Appointment, String> byPatient =
+            store.hashIndex("patientId", Appointment::getPatientId, false);
+    private final InMemoryStore.HashIndex<Appointment, String> byAppointmentId =
+            store.hashIndex("appointmentId", Appointment::getAppointmentId, false);
+    private final InMemoryStore.HashIndex<Appointment, String> byStatus =
+            store.hashIndex("status", Appointment::getStatus, false);
+    private final InMemoryStore.TreeIndex<Appointment, LocalDate> byDate =
+            store.treeIndex("date", Appointment::getDate);
+
+    // Same indexes as the MongoDB archive collection
+    private final InMemoryStore<Appointment> archive = new InMemoryStore<>(ARCHIVE_COLLECTION, Appointment::getId);
+    private final InMemoryStore.HashIndex<Appointment, String> archiveByDoctor =
+            archive.hashIndex("doctor_date", Appointment::getDoctorId, false);
+    private final InMemoryStore.HashIndex<Appointment, String> archiveByPatient =
+            archive.hashIndex("patient_date", Appointment::getPatientId, false);
+    private final InMemoryStore.TreeIndex<Appointment, LocalDate> archiveByDate =
+            archive.treeIndex("date", Appointment::getDate);
+
+    // The counters document; seeded on first use
+    private final AtomicLong appointmentSequence = new AtomicLong(-1);
+
+    public InMemoryAppointmentRepository(ApplicationEventPublisher eventPublisher) {
+        super(Appointment.class, eventPublisher);
+    }
+
+    // The compound doctorId/date key of the doctor_date_time index
+    record DoctorDay(String doctorId, LocalDate date) {
+
+        static DoctorDay of(Appointment appointment) {
+            return appointment.getDoctorId() == null || appointment.getDate() == null
+                    ? null
+                    : new DoctorDay(appointment.getDoctorId(), appointment.getDate());
+        }
+    }
+
+    // The doctorId/date/time key of the doctor_date_time_planned index, absent unless the appointment is planned
+    record PlannedSlot(String doctorId, LocalDate date, String time) {
+
+        static PlannedSlot of(Appointment appointment) {
+            return AppointmentStatus.PLANIFIE.equals(appointment.getStatus())
+                    ? new PlannedSlot(appointment.getDoctorId(), appointment.getDate(), appointment.getTime())
+                    : null;
+        }
+    }
+
+    @Override
+    public List<Appointment> findByDoctorIdAndDate(String doctorId, LocalDate date) {
+        return copies(store.find(byDoctorAndDate, new DoctorDay(doctorId, date)));
+    }
+
+    @Override
+    public List<Appointment> findByPatientId(String patientId) {
+        return copies(store.find(byPatient, patientId));
+    }
+
+    @Override
+    public List<Appointment> findByDate(LocalDate date) {
+        return copies(store.range(byDate, date, true, date, true, false));
+    }
+
+    @Override
+    public Optional<Appointment> findByAppointmentId(String appointmentId) {
+        return store.find(byAppointmentId, appointmentId).findFirst().map(this::copy);
+    }
+
+    @Override
+    public List<Appointment> findByStatus(String status) {
+        return copies(store.find(byStatus, status));
+    }
+
+    @Override
+    public List<Appointment> findByDoctorId(String doctorId) {
+        return copies(store.find(byDoctor, doctorId));
+    }
+
+    @Override
+    public DoctorDashboardSummary loadDoctorDashboard(String doctorId, LocalDate today) {
+        List<Appointment> all = Stream.concat(store.find(byDoctor, doctorId), archive.find(archiveByDoctor, doctorId))
+                .toList();
+
+        List<Appointment> todays = copies(all.stream()
+                .filter(appointment -> today.equals(appointment.getDate()))
+                .sorted(Comparator.comparing(Appointment::getTime, Comparator.nullsFirst(Comparator.naturalOrder()))));
+        long upcoming = all.stream()
+                .filter(appointment -> appointment.getDate() != null && !appointment.getDate().isBefore(today)
+                        && AppointmentStatus.PLANIFIE.equals(appointment.getStatus()))
+                .count();
+        long completed = all.stream().filter(appointment -> AppointmentStatus.TERMINE.equals(appointment.getStatus())).count();
+        long cancelled = all.stream().filter(appointment -> AppointmentStatus.ANNULE.equals(appointment.getStatus())).count();
+
+        return new DoctorDashboardSummary(todays, upcoming, completed, cancelled);
+    }
+
+    @Override
+    public Optional<Appointment> updateStatus(String id, String status) {
+        return modify(id, appointment -> true, appointment -> appointment.setStatus(status), true);
+    }
+
+    @Override
+    public Optional<Appointment> updateIfAt(String id, LocalDate currentDate, String currentTime, Long expectedVersion,
+                                            LocalDate date, String time, String status, String remarks) {
+        return modify(id,
+                appointment -> (expectedVersion == null || expectedVersion.equals(appointment.getVersion()))
+                        && Objects.equals(currentDate, appointment.getDate())
+                        && Objects.equals(currentTime, appointment.getTime()),
+                appointment -> {
+                    appointment.setDate(date);
+                    appointment.setTime(time);
+                    appointment.setStatus(status);
+                    appointment.setRemarks(remarks);
+                },
+                true);
+    }
+
+    @Override
+    public Optional<Appointment> updateIfUnchanged(String id, LocalDate currentDate, String currentTime, Long readVersion,
+                                                   LocalDate date, String time, String status, String remarks) {
+        return modify(id,
+                appointment -> Objects.equals(readVersion, appointment.getVersion())
+                        && Objects.equals(currentDate, appointment.getDate())
+                        && Objects.equals(currentTime, appointment.getTime()),
+                appointment -> {
+                    appointment.setDate(date);
+                    appointment.setTime(time);
+                    appointment.setStatus(status);
+                    appointment.setRemarks(remarks);
+                },
+                true);
+    }
+
+    @Override
+    public long completePastAppointments(LocalDate today) {
+        // Status only: the booked times held by the lookup caches do not change
+        List<String> past = store.range(byDate, null, false, today, false, false)
+                .filter(appointment -> AppointmentStatus.PLANIFIE.equals(appointment.getStatus()))
+                .map(Appointment::getId)
+                .toList();
+        return past.stream()
+                .filter(id -> modify(id,
+                        appointment -> AppointmentStatus.PLANIFIE.equals(appointment.getStatus()),
+                        appointment -> appointment.setStatus(AppointmentStatus.TERMINE),
+                        false).isPresent())
+                .count();
+    }
+
+    @Override
+    public long nextAppointmentNumber() {
+        if (appointmentSequence.get() < 0) {
+            appointmentSequence.compareAndSet(-1, highestAppointmentNumber());
+        }
+        return appointmentSequence.incrementAndGet();
+    }
+
+    private long highestAppointmentNumber() {
+        long highest = FIRST_APPOINTMENT_NUMBER + store.size();
+        for (Appointment appointment : store.all()) {
+            Matcher matcher = appointment.getAppointmentId() != null
+                    ? APPOINTMENT_NUMBER.matcher(appointment.getAppointmentId())
+                    : null;
+            if (matcher != null && matcher.matches()) {
+                highest = Math.max(highest, Long.parseLong(matcher.group(1)));
+            }
+        }
+        return highest;
+    }
+
+    @Override
+    public List<Appointment> findHistoryByPatientId(String patientId) {
+        return copies(Stream.concat(store.find(byPatient, patientId), archive.find(archiveByPatient, patientId))
+                .sorted(MOST_RECENT_FIRST));
+    }
+
+    @Override
+    public int archiveBatchBefore(LocalDate cutoff, int batchSize) {
+        int moved = store.write(() -> {
+            List<Appointment> batch = store.range(byDate, null, false, cutoff, false, false)
+                    .filter(appointment -> ARCHIVABLE_STATUSES.contains(appointment.getStatus()))
+                    .limit(batchSize)
+                    .toList();
+            for (Appointment appointment : batch) {
+                archive.put(appointment);
+                store.remove(appointment.getId());
+            }
+            return batch.size();
+        });
+        if (moved > 0) {
+            // Same as the multi-document remove on MongoDB
+            publish(CacheInvalidationEvent.reset(collection));
+        }
+        return moved;
+    }
+
+    @Override
+    public void ensureArchiveIndexes() {
+        // Declared with the archive store
+    }
+
+    /**
+     * Hot and archived appointments with a date in the range (null bounds are open), for the report repository.
+     */
+    List<Appointment> findBetween(LocalDate from, LocalDate to) {
+        return copies(Stream.concat(
+                store.range(byDate, from, true, to, true, false),
+                archive.range(archiveByDate, from, true, to, true, false)));
+    }
+
+    @Override
+    protected String idOf(Appointment appointment) {
+        return appointment.getId();
+    }
+
+    @Override
+    protected void setId(Appointment appointment, String id) {
+        appointment.setId(id);
+    }
+
+    @Override
+    protected Long versionOf(Appointment appointment) {
+        return appointment.getVersion();
+    }
+
+    @Override
+    protected void setVersion(Appointment appointment, Long version) {
+        appointment.setVersion(version);
+    }
+
+    @Override
+    protected boolean versioned() {
+        return true;
+    }
+}
@@ -0,0 +1,128 @@
+package com.ghp.gestionhospitale.repository.inmem;
+
+import com.ghp.gestionhospitale.model.Doctor;
+import com.ghp.gestionhospitale.repository.DoctorRepository;
+import com.ghp.gestionhospitale.search.SearchKeys;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+@Repository
+@Profile("inmem")
+public class InMemoryDoctorRepository extends InMemoryRepository<Doctor> implements DoctorRepository {
+
+    private final InMemoryStore.HashIndex<Doctor, String> byDoctorId =
+            store.hashIndex("doctorId", Doctor::getDoctorId, false);
+    private final InMemoryStore.HashIndex<Doctor, String> bySpecialization =
+            store.hashIndex("specialization", Doctor::getSpecialization, false);
+    private final InMemoryStore.HashIndex<Doctor, String> byEmail =
+            store.hashIndex("email", Doctor::getEmail, false);
+    private final InMemoryStore.HashIndex<Doctor, String> byWorkingDay =
+            store.hashIndex("workingDays", Doctor::getWorkingDays, false);
+    private final InMemoryStore.TreeIndex<Doctor, String> bySearchToken =
+            store.treeIndex("searchTokens", Doctor::getSearchTokens);
+
+    public InMemoryDoctorRepository(ApplicationEventPublisher eventPublisher) {
+        super(Doctor.class, eventPublisher);
+    }
+
+    @Override
+    public Optional<Doctor> findByDoctorId(String doctorId) {
+        return store.find(byDoctorId, doctorId).findFirst().map(this::copy);
+    }
+
+    @Override
+    public List<Doctor> findBySpecialization(String specialization) {
+        return copies(store.find(bySpecialization, specialization));
+    }
+
+    @Override
+    public List<Doctor> findBySpecializationContainingIgnoreCase(String specialization) {
+        // A regex in MongoDB too, so a scan either way
+        String wanted = specialization.toLowerCase(Locale.ROOT);
+        return copies(store.all().stream()
+                .filter(doctor -> doctor.getSpecialization() != null
+                        && doctor.getSpecialization().toLowerCase(Locale.ROOT).contains(wanted)));
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return store.find(byEmail, email).findAny().isPresent();
+    }
+
+    @Override
+    public List<Doctor> findByWorkingDay(String day) {
+        return copies(store.find(byWorkingDay, day));
+    }
+
+    @Override
+    public List<Doctor> searchByName(String text, int limit) {
+        return copies(InMemoryNameSearch.search(store, bySearchToken, text, limit,
+                Doctor::getId, Doctor::getSearchName, Doctor::getSearchTokens).stream());
+    }
+
+    @Override
+    public int backfillSearchKeys() {
+        List<String> missing = store.all().stream()
+                .filter(doctor -> doctor.getSearchTokens() == null)
+                .map(Doctor::getId)
+                .toList();
+        return (int) missing.stream()
+                .filter(id -> modify(id, doctor -> doctor.getSearchTokens() == null, SearchKeys::applyTo, false).isPresent())
+                .count();
+    }
+
+    @Override
+    public Optional<Doctor> updateProfile(String id, Doctor details) {
+        Optional<Doctor> updated = modify(id,
+                doctor -> details.getVersion() == null || details.getVersion().equals(doctor.getVersion()),
+                doctor -> {
+                    doctor.setName(details.getName());
+                    doctor.setSpecialization(details.getSpecialization());
+                    doctor.setEmail(details.getEmail());
+                    doctor.setPhone(details.getPhone());
+                    doctor.setWorkingDays(details.getWorkingDays());
+                    doctor.setWorkingHours(details.getWorkingHours());
+                    doctor.setBreakTime(details.getBreakTime());
+                    doctor.setAppointmentDuration(details.getAppointmentDuration());
+                    doctor.setUnavailableDates(details.getUnavailableDates());
+                    SearchKeys.applyTo(doctor);
+                },
+                true);
+        return updated.isPresent() ? updated : notFoundOrConflict(id, details.getVersion());
+    }
+
+    @Override
+    protected void beforeSave(Doctor doctor) {
+        SearchKeys.applyTo(doctor);
+    }
+
+    @Override
+    protected String idOf(Doctor doctor) {
+        return doctor.getId();
+    }
+
+    @Override
+    protected void setId(Doctor doctor, String id) {
+        doctor.setId(id);
+    }
+
+    @Override
+    protected Long versionOf(Doctor doctor) {
+        return doctor.getVersion();
+    }
+
+    @Override
+    protected void setVersion(Doctor doctor, Long version) {
+        doctor.setVersion(version);
+    }
+
+    @Override
+    protected boolean versioned() {
+        return true;
+    }
+}
@@ -0,0 +1,50 @@
+package com.ghp.gestionhospitale.repository.inmem;
+
+import com.ghp.gestionhospitale.search.SearchKeys;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Name search over the {@code searchTokens} tree index, with the same results as the MongoDB
+ * version: documents holding every query token first, then documents where every query token
+ * prefixes one of their tokens, ordered by relevance.
+ */
+final class InMemoryNameSearch {
+
+    private InMemoryNameSearch() {
+    }
+
+    static <T> List<T> search(InMemoryStore<T> store, InMemoryStore.TreeIndex<T, String> tokens, String text, int limit,
+                              Function<T, String> idOf,
+                              Function<T, String> searchNameOf,
+                              Function<T, List<String>> searchTokensOf) {
+        List<String> queryTokens = SearchKeys.tokenize(text);
+        if (queryTokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Map<String, T> found = new LinkedHashMap<>();
+        // Candidates come from the index entries of the first token only
+        store.range(tokens, queryTokens.get(0), true, queryTokens.get(0), true, false)
+                .filter(item -> searchTokensOf.apply(item).containsAll(queryTokens))
+                .limit(limit)
+                .forEach(item -> found.put(idOf.apply(item), item));
+
+        if (found.size() < limit) {
+            store.prefix(tokens, queryTokens.get(0))
+                    .filter(item -> !found.containsKey(idOf.apply(item)))
+                    .filter(item -> queryTokens.stream().allMatch(query ->
+                            searchTokensOf.apply(item).stream().anyMatch(token -> token.startsWith(query))))
+                    .limit(limit - found.size())
+                    .forEach(item -> found.putIfAbsent(idOf.apply(item), item));
+        }
+
+        List<T> results = new ArrayList<>(found.values());
+        results.sort(SearchKeys.byRelevance(queryTokens, searchNameOf, searchTokensOf));
+        return results;
+    }
+}
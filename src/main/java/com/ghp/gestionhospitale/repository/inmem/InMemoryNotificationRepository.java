@@ -0,0 +1,93 @@
+package com.ghp.gestionhospitale.repository.inmem;
+
+import com.ghp.gestionhospitale.model.Notification;
+import com.ghp.gestionhospitale.repository.NotificationRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+@Profile("inmem")
+public class InMemoryNotificationRepository extends InMemoryRepository<Notification> implements NotificationRepository {
+
+    private final InMemoryStore.TreeIndex<Notification, LocalDateTime> byTimestamp =
+            store.treeIndex("timestamp_desc", Notification::getTimestamp);
+
+    private final InMemoryStore<Notification> archive = new InMemoryStore<>(ARCHIVE_COLLECTION, Notification::getId);
+    private final InMemoryStore.TreeIndex<Notification, LocalDateTime> archiveByTimestamp =
+            archive.treeIndex("timestamp_ttl", Notification::getTimestamp);
+
+    // Expiry of archived notifications (the TTL index on MongoDB), null keeps them forever
+    private volatile Duration archiveRetention;
+
+    public InMemoryNotificationRepository(ApplicationEventPublisher eventPublisher) {
+        super(Notification.class, eventPublisher);
+    }
+
+    @Override
+    public List<Notification> findTop50ByOrderByTimestampDesc() {
+        return copies(store.range(byTimestamp, null, false, null, false, true).limit(50));
+    }
+
+    @Override
+    public int archiveBatchOlderThan(LocalDateTime cutoff, int batchSize) {
+        expireArchive();
+        return store.write(() -> {
+            List<Notification> batch = oldestBatch(cutoff, batchSize);
+            for (Notification notification : batch) {
+                archive.put(notification);
+                store.remove(notification.getId());
+            }
+            return batch.size();
+        });
+    }
+
+    @Override
+    public int deleteBatchOlderThan(LocalDateTime cutoff, int batchSize) {
+        return store.write(() -> {
+            List<Notification> batch = oldestBatch(cutoff, batchSize);
+            batch.forEach(notification -> store.remove(notification.getId()));
+            return batch.size();
+        });
+    }
+
+    @Override
+    public List<Notification> findArchived(LocalDateTime before, int limit) {
+        expireArchive();
+        return copies(archive.range(archiveByTimestamp, null, false, before, false, true).limit(limit));
+    }
+
+    @Override
+    public void ensureArchiveIndexes(Duration retention) {
+        this.archiveRetention = retention;
+        expireArchive();
+    }
+
+    private List<Notification> oldestBatch(LocalDateTime cutoff, int batchSize) {
+        return store.range(byTimestamp, null, false, cutoff, false, false).limit(batchSize).toList();
+    }
+
+    private void expireArchive() {
+        Duration retention = archiveRetention;
+        if (retention != null) {
+            archive.range(archiveByTimestamp, null, false, LocalDateTime.now().minus(retention), false, false)
+                    .map(Notification::getId)
+                    .toList()
+                    .forEach(archive::remove);
+        }
+    }
+
+    @Override
+    protected String idOf(Notification notification) {
+        return notification.getId();
+    }
+
+    @Override
+    protected void setId(Notification notification, String id) {
+        notification.setId(id);
+    }
+}
@@ -0,0 +1,127 @@
+package com.ghp.gestionhospitale.repository.inmem;
+
+import com.ghp.gestionhospitale.model.Patient;
+import com.ghp.gestionhospitale.repository.PatientRepository;
+import com.ghp.gestionhospitale.search.SearchKeys;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+@Profile("inmem")
+public class InMemoryPatientRepository extends InMemoryRepository<Patient> implements PatientRepository {
+
+    private final InMemoryStore.HashIndex<Patient, String> byPatientId =
+            store.hashIndex("patientId", Patient::getPatientId, false);
+    // Unique and sparse, like the MongoDB index
+    private final InMemoryStore.HashIndex<Patient, String> byIdentifier =
+            store.hashIndex("identifier", Patient::getIdentifier, true);
+    private final InMemoryStore.HashIndex<Patient, String> byEmail =
+            store.hashIndex("email", Patient::getEmail, false);
+    private final InMemoryStore.HashIndex<Patient, String> byPhone =
+            store.hashIndex("phone", Patient::getPhone, false);
+    private final InMemoryStore.TreeIndex<Patient, String> bySearchToken =
+            store.treeIndex("searchTokens", Patient::getSearchTokens);
+
+    public InMemoryPatientRepository(ApplicationEventPublisher eventPublisher) {
+        super(Patient.class, eventPublisher);
+    }
+
+    @Override
+    public Optional<Patient> findByPatientId(String patientId) {
+        return store.find(byPatientId, patientId).findFirst().map(this::copy);
+    }
+
+    @Override
+    public Optional<Patient> findByIdentifier(String identifier) {
+        return store.find(byIdentifier, identifier).findFirst().map(this::copy);
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return store.find(byEmail, email).findAny().isPresent();
+    }
+
+    @Override
+    public Optional<Patient> findByEmail(String email) {
+        return store.find(byEmail, email).findFirst().map(this::copy);
+    }
+
+    @Override
+    public Optional<Patient> findByPhone(String phone) {
+        return store.find(byPhone, phone).findFirst().map(this::copy);
+    }
+
+    @Override
+    public Stream<Patient> streamTypeaheadFields() {
+        return store.all().stream().map(this::copy);
+    }
+
+    @Override
+    public List<Patient> searchByName(String text, int limit) {
+        return copies(InMemoryNameSearch.search(store, bySearchToken, text, limit,
+                Patient::getId, Patient::getSearchName, Patient::getSearchTokens).stream());
+    }
+
+    @Override
+    public int backfillSearchKeys() {
+        List<String> missing = store.all().stream()
+                .filter(patient -> patient.getSearchTokens() == null)
+                .map(Patient::getId)
+                .toList();
+        return (int) missing.stream()
+                .filter(id -> modify(id, patient -> patient.getSearchTokens() == null, SearchKeys::applyTo, false).isPresent())
+                .count();
+    }
+
+    @Override
+    public Optional<Patient> updateProfile(String id, Patient details) {
+        Optional<Patient> updated = modify(id,
+                patient -> details.getVersion() == null || details.getVersion().equals(patient.getVersion()),
+                patient -> {
+                    patient.setName(details.getName());
+                    patient.setDob(details.getDob());
+                    patient.setGender(details.getGender());
+                    patient.setPhone(details.getPhone());
+                    patient.setEmail(details.getEmail());
+                    patient.setAddress(details.getAddress());
+                    SearchKeys.applyTo(patient);
+                },
+                true);
+        return updated.isPresent() ? updated : notFoundOrConflict(id, details.getVersion());
+    }
+
+    @Override
+    protected void beforeSave(Patient patient) {
+        SearchKeys.applyTo(patient);
+    }
+
+    @Override
+    protected String idOf(Patient patient) {
+        return patient.getId();
+    }
+
+    @Override
+    protected void setId(Patient patient, String id) {
+        patient.setId(id);
+    }
+
+    @Override
+    protected Long versionOf(Patient patient) {
+        return patient.getVersion();
+    }
+
+    @Override
+    protected void setVersion(Patient patient, Long version) {
+        patient.setVersion(version);
+    }
+
+    @Override
+    protected boolean versioned() {
+        return true;
+    }
+}
@@ -0,0 +1,66 @@
+package com.ghp.gestionhospitale.repository.inmem;
+
+import com.ghp.gestionhospitale.model.RefreshToken;
+import com.ghp.gestionhospitale.repository.RefreshTokenRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@Profile("inmem")
+public class InMemoryRefreshTokenRepository extends InMemoryRepository<RefreshToken> implements RefreshTokenRepository {
+
+    private final InMemoryStore.HashIndex<RefreshToken, String> byUsername =
+            store.hashIndex("username", RefreshToken::getUsername, false);
+    private final InMemoryStore.TreeIndex<RefreshToken, Instant> byExpiry =
+            store.treeIndex("expiresAt_ttl", RefreshToken::getExpiresAt);
+
+    public InMemoryRefreshTokenRepository(ApplicationEventPublisher eventPublisher) {
+        super(RefreshToken.class, eventPublisher);
+    }
+
+    @Override
+    public long deleteByUsername(String username) {
+        return store.find(byUsername, username)
+                .map(RefreshToken::getId)
+                .toList().stream()
+                .filter(id -> store.remove(id) != null)
+                .count();
+    }
+
+    @Override
+    public Optional<RefreshToken> consume(String id, Instant now) {
+        return Optional.ofNullable(store.write(() -> {
+            RefreshToken token = store.get(id);
+            if (token == null || token.getExpiresAt() == null || !token.getExpiresAt().isAfter(now)) {
+                return null;
+            }
+            store.remove(id);
+            return copy(token);
+        }));
+    }
+
+    // The TTL monitor of MongoDB, which also runs about once a minute
+    @Scheduled(fixedDelay = 60_000)
+    public void removeExpired() {
+        List<String> expired = store.range(byExpiry, null, false, Instant.now(), true, false)
+                .map(RefreshToken::getId)
+                .toList();
+        expired.forEach(store::remove);
+    }
+
+    @Override
+    protected String idOf(RefreshToken token) {
+        return token.getId();
+    }
+
+    @Override
+    protected void setId(RefreshToken token, String id) {
+        token.setId(id);
+    }
+}
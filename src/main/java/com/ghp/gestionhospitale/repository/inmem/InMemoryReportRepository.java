@@ -0,0 +1,75 @@
+package com.ghp.gestionhospitale.repository.inmem;
+
+import com.ghp.gestionhospitale.model.Appointment;
+import com.ghp.gestionhospitale.model.Doctor;
+import com.ghp.gestionhospitale.model.Patient;
+import com.ghp.gestionhospitale.repository.ReportRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Report queries over the in-memory repositories, archived appointments included.
+ */
+@Repository
+@Profile("inmem")
+public class InMemoryReportRepository implements ReportRepository {
+
+    private final InMemoryAppointmentRepository appointmentRepository;
+    private final InMemoryDoctorRepository doctorRepository;
+    private final InMemoryPatientRepository patientRepository;
+
+    public InMemoryReportRepository(InMemoryAppointmentRepository appointmentRepository,
+                                    InMemoryDoctorRepository doctorRepository,
+                                    InMemoryPatientRepository patientRepository) {
+        this.appointmentRepository = appointmentRepository;
+        this.doctorRepository = doctorRepository;
+        this.patientRepository = patientRepository;
+    }
+
+    @Override
+    public List<Appointment> findAppointmentsByDate(LocalDate date) {
+        return appointmentRepository.findBetween(date, date);
+    }
+
+    @Override
+    public List<Appointment> findAppointmentsBetween(LocalDate from, LocalDate to) {
+        return appointmentRepository.findBetween(from, to);
+    }
+
+    @Override
+    public List<Appointment> findAppointmentsFrom(LocalDate from) {
+        return appointmentRepository.findBetween(from, null);
+    }
+
+    @Override
+    public Map<String, Doctor> findDoctors(Collection<String> identifiers) {
+        Map<String, Doctor> doctors = new HashMap<>();
+        // Same precedence as the single lookups: doctorId before the MongoDB id
+        identifiers.stream().filter(Objects::nonNull).distinct().forEach(identifier ->
+                doctorRepository.findByDoctorId(identifier)
+                        .or(() -> doctorRepository.findById(identifier))
+                        .ifPresent(doctor -> doctors.put(identifier, doctor)));
+        return doctors;
+    }
+
+    @Override
+    public Map<String, Patient> findPatients(Collection<String> identifiers) {
+        Map<String, Patient> patients = new HashMap<>();
+        // Same precedence as the single lookups: patientId, then identifier, then the MongoDB id
+        identifiers.stream().filter(Objects::nonNull).distinct().forEach(identifier -> {
+            Optional<Patient> patient = patientRepository.findByPatientId(identifier)
+                    .or(() -> patientRepository.findByIdentifier(identifier))
+                    .or(() -> patientRepository.findById(identifier));
+            patient.ifPresent(found -> patients.put(identifier, found));
+        });
+        return patients;
+    }
+}
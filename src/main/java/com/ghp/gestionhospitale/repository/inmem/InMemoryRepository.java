@@ -0,0 +1,298 @@
+package com.ghp.gestionhospitale.repository.inmem;
+
+import com.ghp.gestionhospitale.cache.CacheInvalidationEvent;
+import com.ghp.gestionhospitale.cache.LookupCaches;
+import org.bson.types.ObjectId;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * MongoRepository semantics over an {@link InMemoryStore}: generated ObjectId ids, save as an upsert
+ * that stores the version field as given (it is not a @Version; only the findAndModify updates
+ * increment it), copies in and out (callers never share an instance with the store), and the same
+ * CacheInvalidationEvents that the mapping events raise for a MongoDB save or delete.
+ * Query by example is not supported.
+ */
+abstract class InMemoryRepository<T> implements MongoRepository<T, String> {
+
+    protected final InMemoryStore<T> store;
+    protected final String collection;
+    private final Class<T> type;
+    private final ApplicationEventPublisher eventPublisher;
+
+    protected InMemoryRepository(Class<T> type, ApplicationEventPublisher eventPublisher) {
+        this.type = type;
+        this.collection = type.getAnnotation(Document.class).collection();
+        this.eventPublisher = eventPublisher;
+        this.store = new InMemoryStore<>(collection, this::idOf);
+    }
+
+    protected abstract String idOf(T entity);
+
+    protected abstract void setId(T entity, String id);
+
+    // Overridden by the entities that have a version field
+    protected Long versionOf(T entity) {
+        return null;
+    }
+
+    protected void setVersion(T entity, Long version) {
+    }
+
+    protected boolean versioned() {
+        return false;
+    }
+
+    // The in-memory counterpart of the BeforeConvert listeners
+    protected void beforeSave(T entity) {
+    }
+
+    @Override
+    public <S extends T> S save(S entity) {
+        return write(entity, false);
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        entities.forEach(entity -> saved.add(save(entity)));
+        return saved;
+    }
+
+    @Override
+    public <S extends T> S insert(S entity) {
+        return write(entity, true);
+    }
+
+    @Override
+    public <S extends T> List<S> insert(Iterable<S> entities) {
+        List<S> inserted = new ArrayList<>();
+        entities.forEach(entity -> inserted.add(insert(entity)));
+        return inserted;
+    }
+
+    @Override
+    public Optional<T> findById(String id) {
+        return Optional.ofNullable(store.get(id)).map(this::copy);
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return store.get(id) != null;
+    }
+
+    @Override
+    public List<T> findAll() {
+        return copies(store.all().stream());
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<String> ids) {
+        return copies(StreamSupport.stream(ids.spliterator(), false).distinct().map(store::get).filter(Objects::nonNull));
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        return copies(store.all().stream().sorted(comparator(sort)));
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        List<T> sorted = store.all().stream().sorted(comparator(pageable.getSort())).toList();
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(copies(sorted.stream()), pageable, sorted.size());
+        }
+        List<T> content = copies(sorted.stream().skip(pageable.getOffset()).limit(pageable.getPageSize()));
+        return new PageImpl<>(content, pageable, sorted.size());
+    }
+
+    @Override
+    public long count() {
+        return store.size();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        if (store.remove(id) != null) {
+            publish(CacheInvalidationEvent.delete(collection, id));
+        }
+    }
+
+    @Override
+    public void delete(T entity) {
+        deleteById(idOf(entity));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        store.clear();
+        publish(CacheInvalidationEvent.reset(collection));
+    }
+
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        throw unsupported();
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example) {
+        throw unsupported();
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        throw unsupported();
+    }
+
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw unsupported();
+    }
+
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        throw unsupported();
+    }
+
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        throw unsupported();
+    }
+
+    @Override
+    public <S extends T, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw unsupported();
+    }
+
+    /**
+     * findAndModify: applies the update to a copy of the document when it matches the condition,
+     * bumps the version and returns the new state; empty when nothing matched.
+     */
+    protected Optional<T> modify(String id, Predicate<T> condition, Consumer<T> update, boolean invalidate) {
+        T updated = store.write(() -> {
+            T current = store.get(id);
+            if (current == null || !condition.test(current)) {
+                return null;
+            }
+            T next = copy(current);
+            update.accept(next);
+            if (versioned()) {
+                // $inc on a missing field sets it to 1
+                setVersion(next, versionOf(current) == null ? 1L : versionOf(current) + 1);
+            }
+            store.put(next);
+            return next;
+        });
+        if (updated == null) {
+            return Optional.empty();
+        }
+        if (invalidate) {
+            publish(CacheInvalidationEvent.upsert(collection, id, copy(updated)));
+        }
+        return Optional.of(copy(updated));
+    }
+
+    /**
+     * Nothing matched: a conflict if the document exists with another version, otherwise simply not found.
+     */
+    protected Optional<T> notFoundOrConflict(String id, Long expectedVersion) {
+        if (expectedVersion != null && store.get(id) != null) {
+            throw new OptimisticLockingFailureException(type.getSimpleName() + " " + id
+                    + " was modified concurrently (expected version " + expectedVersion + ")");
+        }
+        return Optional.empty();
+    }
+
+    protected void publish(CacheInvalidationEvent event) {
+        if (LookupCaches.isWatched(collection)) {
+            eventPublisher.publishEvent(event);
+        }
+    }
+
+    protected T copy(T entity) {
+        T copy = BeanUtils.instantiateClass(type);
+        BeanUtils.copyProperties(entity, copy);
+        return copy;
+    }
+
+    // Mutable, like the lists returned by the MongoDB repositories
+    protected List<T> copies(Stream<T> documents) {
+        return documents.map(this::copy).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private <S extends T> S write(S entity, boolean insertOnly) {
+        beforeSave(entity);
+        T stored = store.write(() -> {
+            String id = idOf(entity);
+            T current = store.get(id);
+            if (insertOnly && current != null) {
+                throw new DuplicateKeyException("E11000 duplicate key error collection: " + collection
+                        + " index: _id_ dup key: " + id);
+            }
+
+            T next = copy(entity);
+            if (id == null) {
+                setId(next, new ObjectId().toHexString());
+            }
+            store.put(next);
+            return next;
+        });
+        // Like MongoDB, the saved instance gets its id only once the write succeeded
+        setId(entity, idOf(stored));
+        publish(CacheInvalidationEvent.upsert(collection, idOf(stored), copy(stored)));
+        return entity;
+    }
+
+    private Comparator<T> comparator(Sort sort) {
+        Comparator<T> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<T> byProperty = Comparator.comparing(
+                    (T entity) -> propertyOf(entity, order.getProperty()),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        return comparator;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> propertyOf(Object entity, String property) {
+        return (Comparable<Object>) new BeanWrapperImpl(entity).getPropertyValue(property);
+    }
+
+    private UnsupportedOperationException unsupported() {
+        return new UnsupportedOperationException("Query by example is not supported by the in-memory " + collection + " repository");
+    }
+}
@@ -0,0 +1,39 @@
+package com.ghp.gestionhospitale.repository.inmem;
+
+import com.ghp.gestionhospitale.cache.LookupCacheTtl;
+import com.ghp.gestionhospitale.config.BootstrapProbe;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * The "inmem" profile: every repository is held in memory (see application-inmem.properties), so
+ * the application, the benchmarks and CI run without MongoDB. The data starts empty, is filled by
+ * the usual initializers and is lost on shutdown.
+ */
+@Configuration
+@Profile("inmem")
+public class InMemoryRepositoryConf {
+
+    public InMemoryRepositoryConf(LookupCacheTtl lookupCacheTtl) {
+        // No change stream here, and none needed: every write goes through this process and
+        // raises its invalidation, so the lookup caches keep their full TTL
+        lookupCacheTtl.setChangeStreamLive(true);
+    }
+
+    @Bean
+    public BootstrapProbe bootstrapProbe(InMemoryUserRepository userRepository,
+                                         InMemoryDoctorRepository doctorRepository,
+                                         InMemoryPatientRepository patientRepository,
+                                         InMemoryAppointmentRepository appointmentRepository) {
+        return new BootstrapProbe() {
+            @Override
+            protected State probe() {
+                return new State(userRepository.existsByUsername(ADMIN_USERNAME),
+                        doctorRepository.count() > 0,
+                        patientRepository.count() > 0,
+                        appointmentRepository.count() > 0);
+            }
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.ghp.gestionhospitale.repository.inmem;
+
+import com.ghp.gestionhospitale.model.RevokedToken;
+import com.ghp.gestionhospitale.repository.RevokedTokenRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+@Profile("inmem")
+public class InMemoryRevokedTokenRepository extends InMemoryRepository<RevokedToken> implements RevokedTokenRepository {
+
+    private final InMemoryStore.TreeIndex<RevokedToken, Instant> byExpiry =
+            store.treeIndex("expiresAt_ttl", RevokedToken::getExpiresAt);
+
+    public InMemoryRevokedTokenRepository(ApplicationEventPublisher eventPublisher) {
+        super(RevokedToken.class, eventPublisher);
+    }
+
+    // The TTL monitor of MongoDB, which also runs about once a minute
+    @Scheduled(fixedDelay = 60_000)
+    public void removeExpired() {
+        List<String> expired = store.range(byExpiry, null, false, Instant.now(), true, false)
+                .map(RevokedToken::getJti)
+                .toList();
+        expired.forEach(store::remove);
+    }
+
+    @Override
+    protected String idOf(RevokedToken token) {
+        return token.getJti();
+    }
+
+    @Override
+    protected void setId(RevokedToken token, String id) {
+        token.setJti(id);
+    }
+}
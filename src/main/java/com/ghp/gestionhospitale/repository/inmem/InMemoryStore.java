@@ -0,0 +1,239 @@
+package com.ghp.gestionhospitale.repository.inmem;
+
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * One in-memory collection: documents by id plus secondary indexes, the in-memory counterpart of
+ * the MongoDB indexes the derived queries rely on.
+ * <p>
+ * Writes are serialized on the store; reads are lock-free. A reader may briefly see an index entry
+ * that is being replaced, so every lookup re-checks the key against the current document. Stored
+ * documents are never mutated: a write replaces the whole document.
+ */
+final class InMemoryStore<T> {
+
+    private final String collection;
+    private final Function<T, String> idOf;
+    private final Map<String, T> documents = new ConcurrentHashMap<>();
+    private final List<Index<T, ?>> indexes = new ArrayList<>();
+
+    InMemoryStore(String collection, Function<T, String> idOf) {
+        this.collection = collection;
+        this.idOf = idOf;
+    }
+
+    /**
+     * Equality index. The key may be a collection (one entry per element, like a multikey index);
+     * documents whose key is null are not indexed (sparse).
+     */
+    <K> HashIndex<T, K> hashIndex(String name, Function<T, ?> key, boolean unique) {
+        HashIndex<T, K> index = new HashIndex<>(name, key, unique);
+        indexes.add(index);
+        return index;
+    }
+
+    /**
+     * Ordered index for range and sorted scans; same key rules as the equality index.
+     */
+    <K extends Comparable<? super K>> TreeIndex<T, K> treeIndex(String name, Function<T, ?> key) {
+        TreeIndex<T, K> index = new TreeIndex<>(name, key);
+        indexes.add(index);
+        return index;
+    }
+
+    T get(String id) {
+        return id == null ? null : documents.get(id);
+    }
+
+    Collection<T> all() {
+        return documents.values();
+    }
+
+    int size() {
+        return documents.size();
+    }
+
+    /**
+     * Runs a read-modify-write atomically with respect to the other writes (findAndModify).
+     */
+    synchronized <R> R write(Supplier<R> action) {
+        return action.get();
+    }
+
+    /**
+     * Inserts or replaces the document; fails like MongoDB when a unique index already has the key.
+     */
+    synchronized T put(T document) {
+        String id = idOf.apply(document);
+        T previous = documents.get(id);
+        for (Index<T, ?> index : indexes) {
+            if (index.unique) {
+                index.checkUnique(collection, id, document);
+            }
+        }
+        if (previous != null) {
+            indexes.forEach(index -> index.remove(id, previous));
+        }
+        documents.put(id, document);
+        indexes.forEach(index -> index.add(id, document));
+        return previous;
+    }
+
+    synchronized T remove(String id) {
+        T previous = id == null ? null : documents.remove(id);
+        if (previous != null) {
+            indexes.forEach(index -> index.remove(id, previous));
+        }
+        return previous;
+    }
+
+    synchronized void clear() {
+        documents.clear();
+        indexes.forEach(index -> index.entries.clear());
+    }
+
+    /**
+     * Documents whose key equals the given one.
+     */
+    <K> Stream<T> find(HashIndex<T, K> index, K key) {
+        Set<String> ids = index.entries.get(key);
+        if (ids == null) {
+            return Stream.empty();
+        }
+        return ids.stream()
+                .map(documents::get)
+                .filter(document -> document != null && index.keysOf(document).contains(key));
+    }
+
+    /**
+     * Documents with a key in the range, in key order (descending when asked); null bounds are open.
+     */
+    <K extends Comparable<? super K>> Stream<T> range(TreeIndex<T, K> index, K from, boolean fromInclusive,
+                                                      K to, boolean toInclusive, boolean descending) {
+        NavigableMap<K, Set<String>> range = index.sorted;
+        if (from != null) {
+            range = range.tailMap(from, fromInclusive);
+        }
+        if (to != null) {
+            range = range.headMap(to, toInclusive);
+        }
+        if (descending) {
+            range = range.descendingMap();
+        }
+        return range.values().stream()
+                .flatMap(Set::stream)
+                // A multikey document is listed once per matching key
+                .distinct()
+                .map(documents::get)
+                .filter(document -> document != null
+                        && index.keysOf(document).stream().anyMatch(key -> index.within(key, from, fromInclusive, to, toInclusive)));
+    }
+
+    /**
+     * Documents having a string key that starts with the prefix.
+     */
+    Stream<T> prefix(TreeIndex<T, String> index, String prefix) {
+        return range(index, prefix, true, prefix + Character.MAX_VALUE, false, false)
+                .filter(document -> index.keysOf(document).stream().anyMatch(key -> key.startsWith(prefix)));
+    }
+
+    abstract static class Index<T, K> {
+
+        final String name;
+        final boolean unique;
+        private final Function<T, ?> key;
+        final Map<K, Set<String>> entries;
+
+        Index(String name, Function<T, ?> key, boolean unique, Map<K, Set<String>> entries) {
+            this.name = name;
+            this.key = key;
+            this.unique = unique;
+            this.entries = entries;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<K> keysOf(T document) {
+            Object value = key.apply(document);
+            if (value == null) {
+                return List.of();
+            }
+            if (value instanceof Collection<?> values) {
+                return (List<K>) values.stream().filter(Objects::nonNull).distinct().toList();
+            }
+            return List.of((K) value);
+        }
+
+        void add(String id, T document) {
+            for (K value : keysOf(document)) {
+                entries.computeIfAbsent(value, k -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+        }
+
+        void remove(String id, T document) {
+            for (K value : keysOf(document)) {
+                entries.computeIfPresent(value, (k, ids) -> {
+                    ids.remove(id);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+
+        void checkUnique(String collection, String id, T document) {
+            for (K value : keysOf(document)) {
+                Set<String> ids = entries.get(value);
+                if (ids != null && ids.stream().anyMatch(other -> !other.equals(id))) {
+                    throw new DuplicateKeyException("E11000 duplicate key error collection: " + collection
+                            + " index: " + name + " dup key: " + value);
+                }
+            }
+        }
+    }
+
+    static final class HashIndex<T, K> extends Index<T, K> {
+
+        HashIndex(String name, Function<T, ?> key, boolean unique) {
+            super(name, key, unique, new ConcurrentHashMap<>());
+        }
+    }
+
+    static final class TreeIndex<T, K extends Comparable<? super K>> extends Index<T, K> {
+
+        final ConcurrentSkipListMap<K, Set<String>> sorted;
+
+        TreeIndex(String name, Function<T, ?> key) {
+            this(name, key, new ConcurrentSkipListMap<>());
+        }
+
+        private TreeIndex(String name, Function<T, ?> key, ConcurrentSkipListMap<K, Set<String>> sorted) {
+            super(name, key, false, sorted);
+            this.sorted = sorted;
+        }
+
+        boolean within(K key, K from, boolean fromInclusive, K to, boolean toInclusive) {
+            if (from != null) {
+                int c = key.compareTo(from);
+                if (c < 0 || (c == 0 && !fromInclusive)) {
+                    return false;
+                }
+            }
+            if (to != null) {
+                int c = key.compareTo(to);
+                return c < 0 || (c == 0 && toInclusive);
+            }
+            return true;
+        }
+    }
+}
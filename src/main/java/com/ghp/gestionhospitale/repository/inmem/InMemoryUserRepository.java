@@ -0,0 +1,81 @@
+package com.ghp.gestionhospitale.repository.inmem;
+
+import com.ghp.gestionhospitale.model.User;
+import com.ghp.gestionhospitale.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@Repository
+@Profile("inmem")
+public class InMemoryUserRepository extends InMemoryRepository<User> implements UserRepository {
+
+    private final InMemoryStore.HashIndex<User, String> byUsername =
+            store.hashIndex("username", User::getUsername, false);
+    private final InMemoryStore.HashIndex<User, String> byPatientId =
+            store.hashIndex("patientId", User::getPatientId, false);
+    private final InMemoryStore.TreeIndex<User, Instant> byLastLogin =
+            store.treeIndex("lastLoginAt", User::getLastLoginAt);
+
+    public InMemoryUserRepository(ApplicationEventPublisher eventPublisher) {
+        super(User.class, eventPublisher);
+    }
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        return store.find(byUsername, username).findFirst().map(this::copy);
+    }
+
+    @Override
+    public boolean existsByUsername(String username) {
+        return store.find(byUsername, username).findAny().isPresent();
+    }
+
+    @Override
+    public Optional<User> findByPatientId(String patientId) {
+        return store.find(byPatientId, patientId).findFirst().map(this::copy);
+    }
+
+    @Override
+    public Optional<User> updateEnabled(String username, boolean enabled) {
+        return update(username, user -> user.setEnabled(enabled), true);
+    }
+
+    @Override
+    public Optional<User> updatePassword(String username, String encodedPassword) {
+        return update(username, user -> user.setPassword(encodedPassword), true);
+    }
+
+    @Override
+    public void recordLogin(String username, Instant at) {
+        // Nothing cached depends on it, so no invalidation (ChangeStreamInvalidator filters it out too)
+        update(username, user -> user.setLastLoginAt(at), false);
+    }
+
+    @Override
+    public List<User> findRecentlyLoggedIn(int limit) {
+        return copies(store.range(byLastLogin, null, false, null, false, true)
+                .filter(User::isEnabled)
+                .limit(limit));
+    }
+
+    private Optional<User> update(String username, Consumer<User> update, boolean invalidate) {
+        return store.find(byUsername, username).findFirst()
+                .flatMap(user -> modify(user.getId(), current -> username.equals(current.getUsername()), update, invalidate));
+    }
+
+    @Override
+    protected String idOf(User user) {
+        return user.getId();
+    }
+
+    @Override
+    protected void setId(User user, String id) {
+        user.setId(id);
+    }
+}
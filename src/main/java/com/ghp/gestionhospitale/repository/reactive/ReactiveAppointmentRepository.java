@@ -0,0 +1,18 @@
+package com.ghp.gestionhospitale.repository.reactive;
+
+import com.ghp.gestionhospitale.model.Appointment;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+
+public interface ReactiveAppointmentRepository extends ReactiveMongoRepository<Appointment, String> {
+
+    Flux<Appointment> findByDoctorIdAndDate(String doctorId, LocalDate date);
+
+    Flux<Appointment> findByDoctorId(String doctorId);
+
+    Flux<Appointment> findByPatientId(String patientId);
+
+    Flux<Appointment> findByDate(LocalDate date);
+}
@@ -0,0 +1,10 @@
+package com.ghp.gestionhospitale.repository.reactive;
+
+import com.ghp.gestionhospitale.model.Doctor;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveDoctorRepository extends ReactiveMongoRepository<Doctor, String> {
+
+    Mono<Doctor> findByDoctorId(String doctorId);
+}
@@ -0,0 +1,13 @@
+package com.ghp.gestionhospitale.repository.reactive;
+
+import com.ghp.gestionhospitale.model.Notification;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+public interface ReactiveNotificationRepository extends ReactiveMongoRepository<Notification, String> {
+
+    Flux<Notification> findByTimestampBeforeOrderByTimestampDesc(LocalDateTime before, Pageable pageable);
+}
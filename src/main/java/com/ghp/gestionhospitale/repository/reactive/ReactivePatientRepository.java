@@ -0,0 +1,12 @@
+package com.ghp.gestionhospitale.repository.reactive;
+
+import com.ghp.gestionhospitale.model.Patient;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+public interface ReactivePatientRepository extends ReactiveMongoRepository<Patient, String> {
+
+    Mono<Patient> findByPatientId(String patientId);
+
+    Mono<Patient> findByIdentifier(String identifier);
+}
@@ -0,0 +1,468 @@
+package com.ghp.gestionhospitale.search;
+
+import com.ghp.gestionhospitale.cache.CacheInvalidationEvent;
+import com.ghp.gestionhospitale.dto.PatientSuggestion;
+import com.ghp.gestionhospitale.model.Patient;
+import com.ghp.gestionhospitale.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-process trigram index over patient name, phone (digits only) and email, used by the
+ * reception-desk typeahead so that keystrokes never reach MongoDB.
+ * <p>
+ * Every field is indexed with its substring trigrams plus "word start" grams, so queries of
+ * one or two characters match the beginning of a word and longer ones match anywhere.
+ * The index is loaded from a cursor once the application is ready and kept current from
+ * CacheInvalidationEvent: local saves and deletes, and writes of other instances seen on the
+ * change stream.
+ */
+@Component
+public class PatientTypeaheadIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientTypeaheadIndex.class);
+
+    private static final char WORD_START = '\u0001';
+    private static final int BUILD_BATCH_SIZE = 1000;
+    private static final int MAX_VERIFIED_MATCHES = 1000;
+    private static final Pattern PHONE_QUERY = Pattern.compile("[0-9+()./\\s-]*[0-9][0-9+()./\\s-]*");
+
+    private final PatientRepository patientRepository;
+    private final Executor executor;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock: ordinals index into entries, postings hold ascending ordinals
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<String, Integer> ordinalsById = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private int tombstones;
+
+    private volatile boolean ready;
+    // Also guarded by lock, so a live write is either wiped by the clear (and then read by the cursor) or marked
+    private boolean building;
+    private final Set<String> touchedDuringBuild = ConcurrentHashMap.newKeySet();
+
+    // One build at a time; a rebuild requested meanwhile runs once the current one is done
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile boolean rebuildRequested;
+
+    public PatientTypeaheadIndex(PatientRepository patientRepository,
+                                 @Qualifier("applicationTaskExecutor") Executor executor) {
+        this.patientRepository = patientRepository;
+        this.executor = executor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        executor.execute(this::rebuild);
+    }
+
+    @EventListener
+    public void onPatientChange(CacheInvalidationEvent event) {
+        if (!event.affects("patients")) {
+            return;
+        }
+        switch (event.type()) {
+            case UPSERT -> {
+                if (event.entity() instanceof Patient patient) {
+                    put(patient);
+                }
+            }
+            case DELETE -> remove(event.id());
+            // Changes may have been missed; an index still building reads the current state anyway
+            case RESET -> {
+                if (ready) {
+                    executor.execute(this::rebuild);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reloads the whole index from the patients collection. Requests made while a build is
+     * running are coalesced into a single follow-up build.
+     */
+    public void rebuild() {
+        rebuildRequested = true;
+        while (rebuildRequested && rebuilding.compareAndSet(false, true)) {
+            try {
+                rebuildRequested = false;
+                load();
+            } finally {
+                rebuilding.set(false);
+            }
+        }
+    }
+
+    private void load() {
+        ready = false;
+        long start = System.currentTimeMillis();
+
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            ordinalsById.clear();
+            postings.clear();
+            tombstones = 0;
+            touchedDuringBuild.clear();
+            building = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try (Stream<Patient> patients = patientRepository.streamTypeaheadFields()) {
+            List<Patient> batch = new ArrayList<>(BUILD_BATCH_SIZE);
+            for (Iterator<Patient> it = patients.iterator(); it.hasNext(); ) {
+                batch.add(it.next());
+                if (batch.size() == BUILD_BATCH_SIZE) {
+                    loadBatch(batch);
+                    batch.clear();
+                }
+            }
+            loadBatch(batch);
+            ready = true;
+            log.info("Patient typeahead index built: {} patient(s) in {} ms", size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.warn("Patient typeahead index build failed: {}", e.getMessage());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                building = false;
+                touchedDuringBuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinalsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(Patient patient) {
+        if (patient == null || patient.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (building) {
+                touchedDuringBuild.add(patient.getId());
+            }
+            removeLocked(patient.getId());
+            addLocked(Entry.of(patient));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String id) {
+        if (id == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (building) {
+                touchedDuringBuild.add(id);
+            }
+            removeLocked(id);
+            if (tombstones > 10_000 && tombstones > ordinalsById.size() / 4) {
+                compactLocked();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Patients whose name, phone or email match every term of the query, best matches first.
+     */
+    public List<PatientSuggestion> search(String query, int limit) {
+        List<String> terms = queryTerms(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        List<Long> grams = new ArrayList<>();
+        for (String term : terms) {
+            queryGrams(term, grams::add);
+        }
+
+        List<Entry> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[grams.size()];
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = postings.get(grams.get(i));
+                if (lists[i] == null) {
+                    return List.of();
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt(p -> p.size));
+
+            Postings smallest = lists[0];
+            for (int i = 0; i < smallest.size && matches.size() < MAX_VERIFIED_MATCHES; i++) {
+                int ordinal = smallest.ordinals[i];
+                if (!containsInAll(lists, ordinal)) {
+                    continue;
+                }
+                Entry entry = entries.get(ordinal);
+                // Trigrams can match out of order, so confirm against the actual fields
+                if (entry != null && entry.matchesAll(terms)) {
+                    matches.add(entry);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        String joined = String.join(" ", terms);
+        matches.sort(Comparator.<Entry>comparingInt(entry -> entry.rank(joined, terms.get(0)))
+                .thenComparingInt(entry -> entry.foldedName.length())
+                .thenComparing(entry -> entry.foldedName));
+        return matches.stream()
+                .limit(limit)
+                .map(Entry::toSuggestion)
+                .toList();
+    }
+
+    private void loadBatch(List<Patient> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Patient patient : batch) {
+                // Live writes that happened while the cursor was open are more recent than the cursor
+                if (!touchedDuringBuild.contains(patient.getId()) && !ordinalsById.containsKey(patient.getId())) {
+                    addLocked(Entry.of(patient));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addLocked(Entry entry) {
+        int ordinal = entries.size();
+        entries.add(entry);
+        ordinalsById.put(entry.id, ordinal);
+        entry.forEachGram(gram -> postings.computeIfAbsent(gram, key -> new Postings()).add(ordinal));
+    }
+
+    private void removeLocked(String id) {
+        Integer ordinal = ordinalsById.remove(id);
+        if (ordinal != null) {
+            entries.set(ordinal, null);
+            tombstones++;
+        }
+    }
+
+    private void compactLocked() {
+        List<Entry> live = new ArrayList<>(ordinalsById.size());
+        for (Entry entry : entries) {
+            if (entry != null) {
+                live.add(entry);
+            }
+        }
+        entries.clear();
+        ordinalsById.clear();
+        postings.clear();
+        tombstones = 0;
+        live.forEach(this::addLocked);
+    }
+
+    private static boolean containsInAll(Postings[] lists, int ordinal) {
+        for (int i = 1; i < lists.length; i++) {
+            if (Arrays.binarySearch(lists[i].ordinals, 0, lists[i].size, ordinal) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> queryTerms(String query) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        if (PHONE_QUERY.matcher(query).matches()) {
+            // Drop separators and the national trunk prefix: "06 12" matches "+212612..."
+            String digits = digitsOf(query).replaceFirst("^0+", "");
+            return digits.isEmpty() ? List.of() : List.of(digits);
+        }
+        if (query.indexOf('@') >= 0 || query.indexOf('.') >= 0) {
+            return Arrays.stream(SearchKeys.fold(query).trim().split("\\s+"))
+                    .filter(term -> !term.isEmpty())
+                    .toList();
+        }
+        return SearchKeys.tokenize(query);
+    }
+
+    private static void queryGrams(String term, LongConsumer sink) {
+        if (term.length() == 1) {
+            sink.accept(gram(WORD_START, WORD_START, term.charAt(0)));
+        } else if (term.length() == 2) {
+            sink.accept(gram(WORD_START, term.charAt(0), term.charAt(1)));
+        } else {
+            for (int i = 0; i + 3 <= term.length(); i++) {
+                sink.accept(gram(term.charAt(i), term.charAt(i + 1), term.charAt(i + 2)));
+            }
+        }
+    }
+
+    private static void indexGrams(String field, LongConsumer sink) {
+        for (String word : field.split(" ")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            sink.accept(gram(WORD_START, WORD_START, word.charAt(0)));
+            if (word.length() > 1) {
+                sink.accept(gram(WORD_START, word.charAt(0), word.charAt(1)));
+            }
+            for (int i = 0; i + 3 <= word.length(); i++) {
+                sink.accept(gram(word.charAt(i), word.charAt(i + 1), word.charAt(i + 2)));
+            }
+        }
+    }
+
+    private static long gram(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    private static String digitsOf(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder digits = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+
+    private static boolean wordStartsWith(String field, String prefix) {
+        if (field.startsWith(prefix)) {
+            return true;
+        }
+        int from = 0;
+        int space;
+        while ((space = field.indexOf(' ', from)) >= 0) {
+            if (field.startsWith(prefix, space + 1)) {
+                return true;
+            }
+            from = space + 1;
+        }
+        return false;
+    }
+
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private int size;
+
+        void add(int ordinal) {
+            // Ordinals only grow, but a field can repeat a gram: keep the list sorted and distinct
+            if (size > 0 && ordinals[size - 1] == ordinal) {
+                return;
+            }
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size + (size >> 1) + 1);
+            }
+            ordinals[size++] = ordinal;
+        }
+    }
+
+    private static final class Entry {
+        private final String id;
+        private final String patientId;
+        private final String name;
+        private final String phone;
+        private final String email;
+        private final String foldedName;
+        private final String foldedEmail;
+        private final String phoneDigits;
+
+        private Entry(String id, String patientId, String name, String phone, String email) {
+            this.id = id;
+            this.patientId = patientId;
+            this.name = name;
+            this.phone = phone;
+            this.email = email;
+            this.foldedName = SearchKeys.normalize(name);
+            String folded = SearchKeys.fold(email).trim();
+            // Most emails are already folded: share the string instead of holding two copies
+            this.foldedEmail = folded.equals(email) ? email : folded;
+            this.phoneDigits = digitsOf(phone);
+        }
+
+        static Entry of(Patient patient) {
+            return new Entry(patient.getId(), patient.getPatientId(), patient.getName(),
+                    patient.getPhone(), patient.getEmail());
+        }
+
+        void forEachGram(LongConsumer sink) {
+            indexGrams(foldedName, sink);
+            indexGrams(foldedEmail, sink);
+            indexGrams(phoneDigits, sink);
+        }
+
+        boolean matchesAll(List<String> terms) {
+            for (String term : terms) {
+                boolean matched = term.length() < 3
+                        ? wordStartsWith(foldedName, term) || foldedEmail.startsWith(term) || phoneDigits.startsWith(term)
+                        : foldedName.contains(term) || foldedEmail.contains(term) || phoneDigits.contains(term);
+                if (!matched) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        int rank(String query, String firstTerm) {
+            if (foldedName.startsWith(query)) {
+                return 0;
+            }
+            if (wordStartsWith(foldedName, firstTerm)) {
+                return 1;
+            }
+            if (foldedName.contains(firstTerm)) {
+                return 2;
+            }
+            return 3;
+        }
+
+        PatientSuggestion toSuggestion() {
+            return new PatientSuggestion(id, patientId, name, phone, email);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.ghp.gestionhospitale.search;
+
+import com.ghp.gestionhospitale.model.Doctor;
+import com.ghp.gestionhospitale.model.Patient;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the normalized search keys in sync with the name on every save/insert.
+ */
+@Component
+public class SearchKeyMongoListener extends AbstractMongoEventListener<Object> {
+
+    @Override
+    public void onBeforeConvert(BeforeConvertEvent<Object> event) {
+        Object source = event.getSource();
+        if (source instanceof Patient patient) {
+            SearchKeys.applyTo(patient);
+        } else if (source instanceof Doctor doctor) {
+            SearchKeys.applyTo(doctor);
+        }
+    }
+}
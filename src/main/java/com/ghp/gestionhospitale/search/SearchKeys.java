@@ -0,0 +1,126 @@
+package com.ghp.gestionhospitale.search;
+
+import com.ghp.gestionhospitale.model.Doctor;
+import com.ghp.gestionhospitale.model.Patient;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Builds the normalized search keys stored next to patient and doctor names:
+ * lowercased, accent-folded (Latin and Arabic) and split into tokens.
+ */
+public final class SearchKeys {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern TOKEN_SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private SearchKeys() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * Lowercases and strips diacritics: "Hélène" -> "helene", "أمين" -> "امين".
+     */
+    public static String fold(String value) {
+        if (value == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(value.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        String stripped = COMBINING_MARKS.matcher(decomposed).replaceAll("");
+
+        StringBuilder folded = new StringBuilder(stripped.length());
+        for (int i = 0; i < stripped.length(); i++) {
+            char c = stripped.charAt(i);
+            switch (c) {
+                case 'ß' -> folded.append("ss");
+                case 'æ' -> folded.append("ae");
+                case 'œ' -> folded.append("oe");
+                case 'ø' -> folded.append('o');
+                case 'đ' -> folded.append('d');
+                case 'ł' -> folded.append('l');
+                case 'ı' -> folded.append('i');
+                case 'ة' -> folded.append('ه'); // teh marbuta -> heh
+                case 'ى' -> folded.append('ي'); // alef maksura -> yeh
+                case 'ـ' -> { } // tatweel
+                default -> folded.append(c);
+            }
+        }
+        return folded.toString();
+    }
+
+    /**
+     * Distinct folded tokens in their original order.
+     */
+    public static List<String> tokenize(String value) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : TOKEN_SEPARATORS.split(fold(value))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    public static String normalize(String value) {
+        return String.join(" ", tokenize(value));
+    }
+
+    public static void applyTo(Patient patient) {
+        patient.setSearchName(normalize(patient.getName()));
+        patient.setSearchTokens(tokenize(patient.getName()));
+    }
+
+    public static void applyTo(Doctor doctor) {
+        doctor.setSearchName(normalize(doctor.getName()));
+        doctor.setSearchTokens(tokenize(doctor.getName()));
+    }
+
+    /**
+     * Relevance of a stored name for the query tokens: exact token matches weigh more
+     * than prefix matches, and a name starting with the whole query gets a bonus.
+     */
+    public static int score(String searchName, List<String> searchTokens, List<String> queryTokens) {
+        if (searchTokens == null || searchTokens.isEmpty()) {
+            return 0;
+        }
+        int score = 0;
+        for (String queryToken : queryTokens) {
+            int best = 0;
+            for (String token : searchTokens) {
+                if (token.equals(queryToken)) {
+                    best = 3;
+                    break;
+                }
+                if (token.startsWith(queryToken)) {
+                    best = 1;
+                }
+            }
+            score += best;
+        }
+        if (searchName != null && searchName.startsWith(String.join(" ", queryTokens))) {
+            score += 2;
+        }
+        return score;
+    }
+
+    /**
+     * Orders candidates by descending relevance, then by the shortest and alphabetically first name.
+     */
+    public static <T> Comparator<T> byRelevance(List<String> queryTokens,
+                                                Function<T, String> searchName,
+                                                Function<T, List<String>> searchTokens) {
+        Comparator<T> byScore = Comparator.comparingInt(
+                item -> score(searchName.apply(item), searchTokens.apply(item), queryTokens));
+        return byScore.reversed()
+                .thenComparingInt(item -> searchName.apply(item) == null ? 0 : searchName.apply(item).length())
+                .thenComparing(item -> searchName.apply(item) == null ? "" : searchName.apply(item));
+    }
+}
@@ -0,0 +1,39 @@
+package com.ghp.gestionhospitale.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picks the BCrypt strength whose verification takes at most the target time on this machine.
+ * Each strength step doubles the work, so timing a cheap strength is enough to extrapolate.
+ */
+final class BCryptStrengthCalibrator {
+
+    private static final int SAMPLE_STRENGTH = 8;
+    private static final int SAMPLES = 3;
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder sampler = new BCryptPasswordEncoder(SAMPLE_STRENGTH);
+        String hash = sampler.encode("calibration");
+        long best = Long.MAX_VALUE;
+        // Best of a few runs: the first one also pays for class loading and JIT
+        for (int i = 0; i < SAMPLES; i++) {
+            long started = System.nanoTime();
+            sampler.matches("calibration", hash);
+            best = Math.min(best, System.nanoTime() - started);
+        }
+
+        long targetNanos = TimeUnit.MILLISECONDS.toNanos(targetMillis);
+        int strength = SAMPLE_STRENGTH;
+        long estimate = best;
+        while (strength < maxStrength && estimate * 2 <= targetNanos) {
+            strength++;
+            estimate *= 2;
+        }
+        return Math.max(minStrength, Math.min(maxStrength, strength));
+    }
+}
@@ -1,9 +1,10 @@
 package com.ghp.gestionhospitale.security;
 
+import com.ghp.gestionhospitale.model.User;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.ExpiredJwtException;
-import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,18 +16,27 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
 
+    public static final String ROLE_CLAIM = "role";
+    public static final String PATIENT_ID_CLAIM = "patientId";
+
     private final SecretKey secretKey;
     private final long expirationTimeMs;
+    // Thread-safe and immutable, built once instead of on every parse
+    private final JwtParser parser;
 
     public JwtUtil(@Value("${jwt.secret}") String secret,
-                   @Value("${jwt.expiration-ms:36000000}") long expirationTimeMs) {
+                   @Value("${jwt.expiration-ms:900000}") long expirationTimeMs) {
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.expirationTimeMs = expirationTimeMs;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build();
     }
 
     public String extractUsername(String token) {
@@ -42,20 +52,35 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Verifies the signature and the expiration and returns the claims, in a single parse.
+     * Throws a JwtException (ExpiredJwtException included) for any invalid token.
+     */
+    public Claims extractAllClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * The authenticated user described by the claims, or null for tokens issued before the
+     * role claim existed (their user has to be loaded from the database).
+     */
+    public User toPrincipal(Claims claims) {
+        String role = claims.get(ROLE_CLAIM, String.class);
+        if (claims.getSubject() == null || role == null) {
+            return null;
+        }
+        return new User(claims.getSubject(), null, role, claims.get(PATIENT_ID_CLAIM, String.class));
     }
 
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        // Lets the filter authenticate requests without loading the user
+        if (userDetails instanceof User user) {
+            claims.put(ROLE_CLAIM, user.getRole());
+            if (user.getPatientId() != null) {
+                claims.put(PATIENT_ID_CLAIM, user.getPatientId());
+            }
+        }
         return createToken(claims, userDetails.getUsername());
     }
 
@@ -63,16 +88,22 @@ public class JwtUtil {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
+                // jti: lets a single token be revoked
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expirationTimeMs))
                 .signWith(secretKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    public long getExpirationTimeMs() {
+        return expirationTimeMs;
+    }
+
     public Boolean validateToken(String token, UserDetails userDetails) {
         try {
-            final String username = extractUsername(token);
-            return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+            // The parser already rejects expired tokens
+            return extractUsername(token).equals(userDetails.getUsername());
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
@@ -0,0 +1,58 @@
+package com.ghp.gestionhospitale.security;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs password verification (BCrypt, CPU-bound by design) on a small dedicated pool, so a burst of
+ * logins cannot take the request threads and cores that bookings need. Work beyond the pool and
+ * its bounded queue is rejected at once rather than left to pile up.
+ */
+@Component
+public class LoginExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+
+    public LoginExecutor(@Value("${auth.login.pool-size:0}") int poolSize,
+                         @Value("${auth.login.queue-capacity:100}") int queueCapacity,
+                         @Value("${auth.login.retry-after-seconds:2}") long retryAfterSeconds) {
+        // Default: half the cores, the rest stays available to the other requests
+        int threads = poolSize > 0 ? poolSize : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "login-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Schedules the verification; throws RejectedExecutionException when the pool and its queue are full.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> verification) throws RejectedExecutionException {
+        return CompletableFuture.supplyAsync(verification, executor);
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
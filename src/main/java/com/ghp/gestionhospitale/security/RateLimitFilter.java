@@ -0,0 +1,247 @@
+package com.ghp.gestionhospitale.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket limits per user and per client IP, with a separate budget per endpoint class.
+ * Runs before JwtAuthenticationFilter, so a client over its budget costs neither a token check
+ * nor a MongoDB query; it gets 429 with Retry-After.
+ * <p>
+ * The client IP is the one Tomcat resolves from X-Forwarded-For when the request comes through a
+ * trusted proxy (server.forward-headers-strategy, server.tomcat.remoteip.*), not the proxy's own.
+ * Logins are also limited per submitted username, whichever addresses they come from.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    enum EndpointClass {
+        AUTH(20, 2),
+        BOOKING(10, 0.5),
+        AVAILABILITY(30, 5),
+        REPORTS(5, 0.2);
+
+        private final int defaultCapacity;
+        private final double defaultRefillPerSecond;
+
+        EndpointClass(int defaultCapacity, double defaultRefillPerSecond) {
+            this.defaultCapacity = defaultCapacity;
+            this.defaultRefillPerSecond = defaultRefillPerSecond;
+        }
+
+        String property() {
+            return "ratelimit." + name().toLowerCase();
+        }
+    }
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    // Login bodies are a username and a password; anything larger is only limited per IP
+    private static final int MAX_LOGIN_BODY = 4096;
+
+    private final TokenBucketStore buckets;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final boolean enabled;
+    private final Map<EndpointClass, TokenBucketStore.Limit> userLimits = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, TokenBucketStore.Limit> ipLimits = new EnumMap<>(EndpointClass.class);
+
+    public RateLimitFilter(TokenBucketStore buckets,
+                           VerifiedTokenCache verifiedTokenCache,
+                           Environment environment,
+                           @Value("${ratelimit.enabled:true}") boolean enabled,
+                           @Value("${ratelimit.ip-multiplier:4}") int ipMultiplier) {
+        this.buckets = buckets;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.enabled = enabled;
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            int capacity = environment.getProperty(endpointClass.property() + ".capacity",
+                    Integer.class, endpointClass.defaultCapacity);
+            double refill = environment.getProperty(endpointClass.property() + ".refill-per-second",
+                    Double.class, endpointClass.defaultRefillPerSecond);
+            userLimits.put(endpointClass, new TokenBucketStore.Limit(capacity, refill));
+            // Several users may share an address (NAT, hospital proxy)
+            ipLimits.put(endpointClass, new TokenBucketStore.Limit(capacity * ipMultiplier, refill * ipMultiplier));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || HttpMethod.OPTIONS.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        EndpointClass endpointClass = classify(request);
+        if (endpointClass == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String scope = endpointClass.name() + ":";
+        long waitNanos = buckets.tryAcquire("ip:" + scope + request.getRemoteAddr(), ipLimits.get(endpointClass));
+        if (waitNanos == 0) {
+            String username;
+            if (endpointClass == EndpointClass.AUTH) {
+                CachedBodyRequest login = isLogin(request) ? CachedBodyRequest.of(request, MAX_LOGIN_BODY) : null;
+                if (login != null) {
+                    request = login;
+                }
+                username = login != null ? submittedUsername(login.body) : null;
+            } else {
+                username = username(request);
+            }
+            if (username != null) {
+                waitNanos = buckets.tryAcquire("user:" + scope + username, userLimits.get(endpointClass));
+            }
+        }
+
+        if (waitNanos > 0) {
+            long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+            response.setStatus(429);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Too many requests, retry in " + retryAfterSeconds + " s\"}");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    static EndpointClass classify(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith("/api/auth/")) {
+            return EndpointClass.AUTH;
+        }
+        if (path.startsWith("/api/reports")) {
+            return EndpointClass.REPORTS;
+        }
+        if (path.startsWith("/api/appointments/availability/") || path.startsWith("/api/reactive/appointments/availability/")) {
+            return EndpointClass.AVAILABILITY;
+        }
+        if (path.startsWith("/api/appointments") && !HttpMethod.GET.matches(request.getMethod())) {
+            return EndpointClass.BOOKING;
+        }
+        return null;
+    }
+
+    private static boolean isLogin(HttpServletRequest request) {
+        return HttpMethod.POST.matches(request.getMethod())
+                && request.getRequestURI().substring(request.getContextPath().length()).equals("/api/auth/login");
+    }
+
+    // Case-insensitive like the usernames guessed against; null when the body is not a login request
+    static String submittedUsername(byte[] body) {
+        try {
+            JsonNode username = JSON.readTree(body).path("username");
+            return username.isTextual() && !username.asText().isBlank()
+                    ? username.asText().trim().toLowerCase(Locale.ROOT)
+                    : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Same (cached) verification the JWT filter does next; an invalid token only counts against the IP
+    private String username(HttpServletRequest request) {
+        String authorizationHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
+            return null;
+        }
+        UserDetails user = verifiedTokenCache.resolve(authorizationHeader.substring(7));
+        return user != null ? user.getUsername() : null;
+    }
+
+    // The login body, read once here to find the username and replayed to the controller
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        static CachedBodyRequest of(HttpServletRequest request, int maxSize) throws IOException {
+            long length = request.getContentLengthLong();
+            if (length > maxSize) {
+                return null;
+            }
+            byte[] body = request.getInputStream().readNBytes(maxSize + 1);
+            // Without a Content-Length the body can only be checked by reading it
+            return body.length > maxSize ? null : new CachedBodyRequest(request, body);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException("The login body is already buffered");
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.ghp.gestionhospitale.security;
+
+import com.ghp.gestionhospitale.model.RefreshToken;
+import com.ghp.gestionhospitale.model.User;
+import com.ghp.gestionhospitale.repository.RefreshTokenRepository;
+import com.ghp.gestionhospitale.services.CustomUserDetailsService;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Issues the short-lived access token together with an opaque refresh token stored server-side
+ * (hashed). A refresh token is single use: refreshing consumes it and returns a new pair.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final RevocationList revocationList;
+    private final CustomUserDetailsService userDetailsService;
+    private final JwtUtil jwtUtil;
+    private final Duration refreshTokenLifetime;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               RevocationList revocationList,
+                               CustomUserDetailsService userDetailsService,
+                               JwtUtil jwtUtil,
+                               @Value("${jwt.refresh-expiration-ms:1209600000}") long refreshExpirationMs) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.revocationList = revocationList;
+        this.userDetailsService = userDetailsService;
+        this.jwtUtil = jwtUtil;
+        this.refreshTokenLifetime = Duration.ofMillis(refreshExpirationMs);
+    }
+
+    public record TokenPair(String accessToken, String refreshToken, long expiresInSeconds) {
+    }
+
+    public TokenPair issue(User user) {
+        String refreshToken = randomToken();
+        Instant now = Instant.now();
+        refreshTokenRepository.save(new RefreshToken(digest(refreshToken), user.getUsername(),
+                now, now.plus(refreshTokenLifetime)));
+        return new TokenPair(jwtUtil.generateToken(user), refreshToken, jwtUtil.getExpirationTimeMs() / 1000);
+    }
+
+    /**
+     * A new pair for a valid refresh token of an enabled account; empty otherwise.
+     */
+    public Optional<TokenPair> refresh(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return Optional.empty();
+        }
+        return refreshTokenRepository.consume(digest(refreshToken), Instant.now())
+                .flatMap(consumed -> enabledUser(consumed.getUsername()))
+                .map(this::issue);
+    }
+
+    /**
+     * Logout: revokes the access token until its expiry and drops the refresh token, or all the
+     * account's refresh tokens when none is given.
+     */
+    public void logout(Claims accessToken, String refreshToken) {
+        revocationList.revoke(accessToken.getId(), accessToken.getExpiration().toInstant());
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenRepository.deleteById(digest(refreshToken));
+        } else {
+            refreshTokenRepository.deleteByUsername(accessToken.getSubject());
+        }
+    }
+
+    // Disabled accounts: no new access token can be obtained
+    public long revokeRefreshTokens(String username) {
+        return refreshTokenRepository.deleteByUsername(username);
+    }
+
+    private Optional<User> enabledUser(String username) {
+        try {
+            UserDetails user = userDetailsService.loadUserByUsername(username);
+            return user.isEnabled() && user instanceof User account ? Optional.of(account) : Optional.empty();
+        } catch (UsernameNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static String randomToken() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
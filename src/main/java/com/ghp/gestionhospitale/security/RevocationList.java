@@ -0,0 +1,131 @@
+package com.ghp.gestionhospitale.security;
+
+import com.ghp.gestionhospitale.cache.CacheInvalidationEvent;
+import com.ghp.gestionhospitale.cache.LookupCacheTtl;
+import com.ghp.gestionhospitale.model.RevokedToken;
+import com.ghp.gestionhospitale.repository.RevokedTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Revoked access tokens, checked on every request. An in-memory Bloom filter of the revoked jtis
+ * answers "not revoked" without any I/O; only its rare positives are confirmed in revoked_tokens.
+ * <p>
+ * Revocations made on other instances arrive through the change stream. The filter is also
+ * rebuilt from the collection periodically (more often while the change stream is down), which
+ * drops the tokens that have expired since and keeps the false positive rate low.
+ */
+@Component
+public class RevocationList {
+
+    private static final Logger log = LoggerFactory.getLogger(RevocationList.class);
+
+    public static final String COLLECTION = "revoked_tokens";
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final LookupCacheTtl lookupCacheTtl;
+    private final long expectedRevocations;
+    private final double falsePositiveRate;
+    private final long rebuildIntervalMillis;
+
+    private volatile BloomFilter filter;
+    // Receives the revocations made while a rebuild reads the collection
+    private volatile BloomFilter building;
+    private volatile long lastRebuild;
+
+    public RevocationList(RevokedTokenRepository revokedTokenRepository,
+                          LookupCacheTtl lookupCacheTtl,
+                          @Value("${jwt.revocation.expected-revocations:100000}") long expectedRevocations,
+                          @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                          @Value("${jwt.revocation.rebuild-minutes:15}") long rebuildMinutes) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.lookupCacheTtl = lookupCacheTtl;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.rebuildIntervalMillis = TimeUnit.MINUTES.toMillis(rebuildMinutes);
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            // Tokens issued before jti existed cannot be revoked individually
+            return false;
+        }
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(jti)) {
+            return false;
+        }
+        // Positive (or not built yet): exact answer
+        return revokedTokenRepository.existsById(jti);
+    }
+
+    public void revoke(String jti, Instant expiresAt) {
+        if (jti == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        revokedTokenRepository.save(new RevokedToken(jti, expiresAt));
+        add(jti);
+    }
+
+    @EventListener
+    public void onRevocation(CacheInvalidationEvent event) {
+        if (!event.affects(COLLECTION)) {
+            return;
+        }
+        if (event.type() == CacheInvalidationEvent.Type.UPSERT && event.entity() instanceof RevokedToken token) {
+            add(token.getJti());
+        } else if (event.type() == CacheInvalidationEvent.Type.RESET && event.collection() != null) {
+            // Only for this collection: a global reset is already covered by the scheduled rebuild
+            rebuild();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-ms:30000}")
+    public void scheduledRebuild() {
+        if (!lookupCacheTtl.isChangeStreamLive() || System.currentTimeMillis() - lastRebuild >= rebuildIntervalMillis) {
+            rebuild();
+        }
+    }
+
+    synchronized void rebuild() {
+        BloomFilter fresh = new BloomFilter(expectedRevocations, falsePositiveRate);
+        building = fresh;
+        try {
+            Instant now = Instant.now();
+            for (RevokedToken token : revokedTokenRepository.findAll()) {
+                if (token.getExpiresAt() == null || token.getExpiresAt().isAfter(now)) {
+                    fresh.add(token.getJti());
+                }
+            }
+            filter = fresh;
+            lastRebuild = System.currentTimeMillis();
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild the token revocation filter: {}", e.getMessage());
+        } finally {
+            building = null;
+        }
+    }
+
+    private void add(String jti) {
+        BloomFilter current = filter;
+        if (current != null) {
+            current.add(jti);
+        }
+        BloomFilter pending = building;
+        if (pending != null) {
+            pending.add(jti);
+        }
+    }
+}
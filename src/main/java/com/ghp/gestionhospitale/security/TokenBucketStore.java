@@ -0,0 +1,83 @@
+package com.ghp.gestionhospitale.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory token buckets, one per key, lock-free and striped.
+ * <p>
+ * Each bucket is a single AtomicLong holding its theoretical arrival time (the GCRA form of a
+ * token bucket): a request is allowed when that time is at most (capacity - 1) emission
+ * intervals ahead of now, and pushes it one interval further with a CAS. A bucket whose time is
+ * in the past is full, i.e. equivalent to no bucket, so the sweep simply drops it.
+ */
+@Component
+public class TokenBucketStore {
+
+    public record Limit(int capacity, double refillPerSecond) {
+
+        long intervalNanos() {
+            return (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+        }
+    }
+
+    private final ConcurrentHashMap<String, AtomicLong>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    public TokenBucketStore(@Value("${ratelimit.stripes:16}") int stripeCount) {
+        this.stripes = new ConcurrentHashMap[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Takes one token from the key's bucket. Returns 0 when allowed, otherwise the nanoseconds
+     * until a token is available (nothing is taken then).
+     */
+    public long tryAcquire(String key, Limit limit) {
+        long now = System.nanoTime();
+        long interval = limit.intervalNanos();
+        long tolerance = interval * (limit.capacity() - 1L);
+
+        AtomicLong arrival = stripe(key).computeIfAbsent(key, k -> new AtomicLong(now));
+        while (true) {
+            long current = arrival.get();
+            long theoretical = Math.max(current, now);
+            long ahead = theoretical - now;
+            if (ahead > tolerance) {
+                return ahead - tolerance;
+            }
+            if (arrival.compareAndSet(current, theoretical + interval)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    // Full buckets carry no state: dropping them is the automatic expiry
+    @Scheduled(fixedDelayString = "${ratelimit.sweep-ms:60000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+            stripe.values().removeIf(arrival -> arrival.get() - now <= 0);
+        }
+    }
+
+    private ConcurrentHashMap<String, AtomicLong> stripe(String key) {
+        int hash = key.hashCode();
+        return stripes[Math.floorMod(hash ^ (hash >>> 16), stripes.length)];
+    }
+}
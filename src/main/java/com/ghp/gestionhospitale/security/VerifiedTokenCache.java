@@ -0,0 +1,153 @@
+package com.ghp.gestionhospitale.security;
+
+import com.ghp.gestionhospitale.cache.CacheInvalidationEvent;
+import com.ghp.gestionhospitale.model.User;
+import com.ghp.gestionhospitale.services.CustomUserDetailsService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves a bearer token to its user with at most one signature check: tokens verified recently
+ * are remembered by their SHA-256 digest (never the token itself) until they expire, bounded in
+ * size and time. Tokens carry role and patientId; the account itself is only checked (still enabled)
+ * through the users cache when a token is verified, and legacy tokens take their user from it.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final JwtUtil jwtUtil;
+    private final CustomUserDetailsService userDetailsService;
+    private final RevocationList revocationList;
+    private final Cache<String, VerifiedToken> verified;
+    // Bumped before tokens are dropped for a disabled or deleted account, so a verification that
+    // read the account before the change cannot leave its entry behind
+    private final AtomicLong accountChanges = new AtomicLong();
+
+    public VerifiedTokenCache(JwtUtil jwtUtil,
+                              CustomUserDetailsService userDetailsService,
+                              RevocationList revocationList,
+                              @Value("${jwt.verified-cache.max-size:10000}") long maxSize,
+                              @Value("${jwt.verified-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.revocationList = revocationList;
+        long maxTtlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    // Never outlives the token itself
+                    @Override
+                    public long expireAfterCreate(String digest, VerifiedToken token, long currentTime) {
+                        long untilExpiry = TimeUnit.MILLISECONDS.toNanos(token.expiresAt() - System.currentTimeMillis());
+                        return Math.max(0, Math.min(maxTtlNanos, untilExpiry));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, VerifiedToken token, long currentTime, long currentDuration) {
+                        return expireAfterCreate(digest, token, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    record VerifiedToken(UserDetails user, String jti, long expiresAt) {
+    }
+
+    /**
+     * The user the token authenticates, or null when the token is invalid, expired or its user is gone.
+     */
+    public UserDetails resolve(String token) {
+        String digest = digest(token);
+        VerifiedToken cached = verified.getIfPresent(digest);
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            // In memory unless the Bloom filter flags the jti
+            return revocationList.isRevoked(cached.jti()) ? null : cached.user();
+        }
+
+        Claims claims;
+        try {
+            claims = jwtUtil.extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        if (revocationList.isRevoked(claims.getId())) {
+            return null;
+        }
+
+        long changesBefore = accountChanges.get();
+        UserDetails account;
+        try {
+            account = userDetailsService.loadUserByUsername(claims.getSubject());
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+        if (!account.isEnabled()) {
+            return null;
+        }
+        // Tokens issued before role/patientId were claims use the stored account
+        UserDetails principal = jwtUtil.toPrincipal(claims);
+        UserDetails user = principal != null ? principal : account;
+        verified.put(digest, new VerifiedToken(user, claims.getId(), claims.getExpiration().getTime()));
+        if (accountChanges.get() != changesBefore) {
+            // An account was disabled meanwhile, maybe this one: the next request checks it again
+            verified.invalidate(digest);
+        }
+        return user;
+    }
+
+    // A disabled or deleted account loses its tokens at once, on every instance
+    @EventListener
+    public void onUserChange(CacheInvalidationEvent event) {
+        if (!event.affects("users")) {
+            return;
+        }
+        if (event.type() == CacheInvalidationEvent.Type.UPSERT && event.entity() instanceof User user) {
+            if (!user.isEnabled()) {
+                accountChanges.incrementAndGet();
+                verified.asMap().values().removeIf(token -> user.getUsername().equals(token.user().getUsername()));
+            }
+        } else {
+            accountChanges.incrementAndGet();
+            verified.invalidateAll();
+        }
+    }
+
+    public long size() {
+        return verified.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return verified.stats();
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
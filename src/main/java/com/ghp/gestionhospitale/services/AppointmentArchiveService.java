@@ -0,0 +1,65 @@
+package com.ghp.gestionhospitale.services;
+
+import com.ghp.gestionhospitale.repository.AppointmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+
+/**
+ * Keeps the appointments collection (and its indexes) small: completed and cancelled appointments
+ * older than the horizon are moved to appointments_archive, where patient history and reports
+ * still find them.
+ */
+@Service
+public class AppointmentArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentArchiveService.class);
+
+    private final AppointmentRepository appointmentRepository;
+    private final boolean enabled;
+    private final int horizonDays;
+    private final int batchSize;
+
+    public AppointmentArchiveService(AppointmentRepository appointmentRepository,
+                                     @Value("${appointments.archive.enabled:true}") boolean enabled,
+                                     @Value("${appointments.archive.horizon-days:180}") int horizonDays,
+                                     @Value("${appointments.archive.batch-size:1000}") int batchSize) {
+        this.appointmentRepository = appointmentRepository;
+        this.enabled = enabled;
+        this.horizonDays = horizonDays;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureArchiveIndexes() {
+        appointmentRepository.ensureArchiveIndexes();
+    }
+
+    @Scheduled(cron = "${appointments.archive.cron:0 30 2 * * ?}")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+        int count = archive(LocalDate.now());
+        if (count > 0) {
+            log.info("Archived {} appointment(s) older than {} day(s)", count, horizonDays);
+        }
+    }
+
+    public int archive(LocalDate today) {
+        LocalDate cutoff = today.minusDays(horizonDays);
+        int total = 0;
+        int moved;
+        do {
+            moved = appointmentRepository.archiveBatchBefore(cutoff, batchSize);
+            total += moved;
+        } while (moved == batchSize);
+        return total;
+    }
+}
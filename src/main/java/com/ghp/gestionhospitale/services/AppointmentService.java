@@ -1,13 +1,23 @@
 package com.ghp.gestionhospitale.services;
 
+import com.ghp.gestionhospitale.cache.LookupCaches;
+import com.ghp.gestionhospitale.dto.DoctorDashboardSummary;
+import com.ghp.gestionhospitale.jfr.AvailabilityEvent;
+import com.ghp.gestionhospitale.jfr.BookingStageEvent;
 import com.ghp.gestionhospitale.model.Appointment;
 import com.ghp.gestionhospitale.model.AppointmentStatus;
 import com.ghp.gestionhospitale.model.Doctor;
 import com.ghp.gestionhospitale.model.Patient;
+import com.ghp.gestionhospitale.monitoring.SamplingFilter;
 import com.ghp.gestionhospitale.repository.PatientRepository;
 import com.ghp.gestionhospitale.repository.AppointmentRepository;
 import com.ghp.gestionhospitale.repository.DoctorRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
@@ -15,7 +25,6 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,6 +33,8 @@ import java.util.Optional;
 @Service
 public class AppointmentService {
 
+    private static final Logger log = LoggerFactory.getLogger(AppointmentService.class);
+
     @Autowired
     private AppointmentRepository appointmentRepository;
 
@@ -36,9 +47,18 @@ public class AppointmentService {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private LookupCaches lookupCaches;
+
     private final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
 
+    @Timed(value = "ghp.appointments.availability", histogram = true)
     public List<String> getAvailableSlots(String doctorId, LocalDate date) {
+        return getAvailableSlots(doctorId, date, true);
+    }
+
+    // Bookings check against the database, never against cached booked times
+    private List<String> getAvailableSlots(String doctorId, LocalDate date, boolean useCache) {
         Optional<Doctor> doctorOpt = findDoctorByAnyId(doctorId);
 
         if (doctorOpt.isEmpty()) {
@@ -48,29 +68,65 @@ public class AppointmentService {
         Doctor doctor = doctorOpt.get();
         String normalizedDoctorId = resolveDoctorKey(doctor);
 
-        if (doctor.getUnavailableDates() != null && doctor.getUnavailableDates().contains(date.toString())) {
-            return new ArrayList<>();
-        }
-
-        if (doctor.getWorkingDays() == null || doctor.getWorkingDays().isEmpty()) {
+        if (!worksOn(doctor, date)) {
             return new ArrayList<>();
         }
-        
-        String dayOfWeek = date.getDayOfWeek().toString();
-        String formattedDay = dayOfWeek.charAt(0) + dayOfWeek.substring(1).toLowerCase();
 
-        if (!doctor.getWorkingDays().contains(formattedDay)) {
-            return new ArrayList<>();
+        AvailabilityEvent event = new AvailabilityEvent();
+        event.begin();
+        List<String> bookedSlots = useCache
+                ? lookupCaches.bookedSlots(normalizedDoctorId, date, () -> findBookedSlots(normalizedDoctorId, date))
+                : findBookedSlots(normalizedDoctorId, date);
+        List<String> availableSlots = generateAvailableTimeSlots(doctor, bookedSlots);
+        event.end();
+        if (event.shouldCommit()) {
+            event.doctorId = normalizedDoctorId;
+            event.date = date.toString();
+            event.bookedSlots = bookedSlots.size();
+            event.freeSlots = availableSlots.size();
+            event.cached = useCache;
+            event.commit();
         }
+        return availableSlots;
+    }
 
-        List<Appointment> existingAppointments = appointmentRepository.findByDoctorIdAndDate(normalizedDoctorId, date);
-        List<String> bookedSlots = existingAppointments.stream()
+    // A cancelled appointment frees its slot
+    private List<String> findBookedSlots(String normalizedDoctorId, LocalDate date) {
+        return appointmentRepository.findByDoctorIdAndDate(normalizedDoctorId, date).stream()
+                .filter(appointment -> !AppointmentStatus.ANNULE.equals(appointment.getStatus()))
                 .map(Appointment::getTime)
                 .toList();
+    }
 
+    /**
+     * Free slots of the doctor's schedule on the given day, given the times already booked.
+     * Shared by the blocking and the reactive availability endpoints.
+     */
+    public List<String> computeAvailableSlots(Doctor doctor, LocalDate date, List<String> bookedSlots) {
+        if (!worksOn(doctor, date)) {
+            return new ArrayList<>();
+        }
         return generateAvailableTimeSlots(doctor, bookedSlots);
     }
 
+    /**
+     * Whether the doctor consults on that day (working day and not marked unavailable).
+     */
+    public boolean worksOn(Doctor doctor, LocalDate date) {
+        if (doctor.getUnavailableDates() != null && doctor.getUnavailableDates().contains(date.toString())) {
+            return false;
+        }
+
+        if (doctor.getWorkingDays() == null || doctor.getWorkingDays().isEmpty()) {
+            return false;
+        }
+        
+        String dayOfWeek = date.getDayOfWeek().toString();
+        String formattedDay = dayOfWeek.charAt(0) + dayOfWeek.substring(1).toLowerCase();
+
+        return doctor.getWorkingDays().contains(formattedDay);
+    }
+
 
     private List<String> generateAvailableTimeSlots(Doctor doctor, List<String> bookedSlots) {
         List<String> availableSlots = new ArrayList<>();
@@ -135,14 +191,19 @@ public class AppointmentService {
         return true;
     }
 
+    @Timed(value = "ghp.appointments.booking", histogram = true)
     public Appointment bookAppointment(Appointment appointment) {
         if (appointment.getTime() == null || appointment.getTime().trim().isEmpty()) {
             throw new RuntimeException("Time field cannot be empty");
         }
 
-        Doctor doctor = findDoctorByAnyId(appointment.getDoctorId())
+        BookingStageEvent resolve = BookingStageEvent.start(BookingStageEvent.RESOLVE);
+        Optional<Doctor> doctorOpt = findDoctorByAnyId(appointment.getDoctorId());
+        Optional<Patient> patientOpt = doctorOpt.isPresent() ? findPatientByAnyId(appointment.getPatientId()) : Optional.empty();
+        resolve.finish(appointment.getDoctorId(), null, patientOpt.isPresent());
+        Doctor doctor = doctorOpt
                 .orElseThrow(() -> new RuntimeException("Doctor not found with identifier: " + appointment.getDoctorId()));
-        Patient patient = findPatientByAnyId(appointment.getPatientId())
+        Patient patient = patientOpt
                 .orElseThrow(() -> new RuntimeException("Patient not found with identifier: " + appointment.getPatientId()));
 
         String normalizedDoctorId = resolveDoctorKey(doctor);
@@ -150,58 +211,106 @@ public class AppointmentService {
         appointment.setDoctorId(normalizedDoctorId);
         appointment.setPatientId(normalizedPatientId);
 
+        BookingStageEvent availability = BookingStageEvent.start(BookingStageEvent.AVAILABILITY);
         List<String> availableSlots = getAvailableSlots(
                 normalizedDoctorId,
-                appointment.getDate()
+                appointment.getDate(),
+                false
         );
+        availability.finish(normalizedDoctorId, null, availableSlots.contains(appointment.getTime()));
 
-        System.out.println("🕒 Requested time: '" + appointment.getTime() + "'");
-        System.out.println("📋 Available slots: " + availableSlots);
+        log.atDebug().addMarker(SamplingFilter.SAMPLED)
+                .addKeyValue("doctorId", normalizedDoctorId)
+                .addKeyValue("date", appointment.getDate())
+                .addKeyValue("time", appointment.getTime())
+                .addKeyValue("freeSlots", availableSlots.size())
+                .log("Booking availability check");
 
         if (!availableSlots.contains(appointment.getTime())) {
             throw new RuntimeException("Time slot '" + appointment.getTime() + "' is not available. Available slots: " + availableSlots);
         }
 
+        BookingStageEvent insert = BookingStageEvent.start(BookingStageEvent.INSERT);
         appointment.setAppointmentId(generateAppointmentId());
         appointment.setStatus(AppointmentStatus.PLANIFIE);
+        // Stored from the start, so a read-then-update always has a version to match
+        appointment.setVersion(0L);
+
+        Appointment saved;
+        try {
+            saved = appointmentRepository.save(appointment);
+        } catch (DuplicateKeyException e) {
+            insert.finish(normalizedDoctorId, appointment.getAppointmentId(), false);
+            // Another booking took the slot since the availability check (unique doctor_date_time_planned index)
+            throw new RuntimeException("Time slot '" + appointment.getTime() + "' is no longer available");
+        }
+        insert.finish(normalizedDoctorId, saved.getAppointmentId(), true);
 
-        Appointment saved = appointmentRepository.save(appointment);
-
+        BookingStageEvent notify = BookingStageEvent.start(BookingStageEvent.NOTIFY);
         notificationService.notifyDoctorNewAppointment(doctor, patient, saved);
         notificationService.notifyPatientNewAppointment(patient, doctor, saved);
+        notify.finish(normalizedDoctorId, saved.getAppointmentId(), true);
 
         return saved;
     }
 
 
     public Appointment updateAppointment(String id, Appointment appointmentDetails) {
-        Optional<Appointment> appointmentOpt = appointmentRepository.findById(id);
-
-        if (appointmentOpt.isPresent()) {
-            Appointment existingAppointment = appointmentOpt.get();
-
-            if (!existingAppointment.getDate().equals(appointmentDetails.getDate()) ||
-                    !existingAppointment.getTime().equals(appointmentDetails.getTime())) {
+        // Same date and time (status or remarks change): a single conditional round trip
+        Optional<Appointment> updated = updateIfAt(id,
+                appointmentDetails.getDate(), appointmentDetails.getTime(), appointmentDetails.getVersion(),
+                appointmentDetails);
+        if (updated.isPresent()) {
+            return updated.get();
+        }
 
-                List<String> availableSlots = getAvailableSlots(
-                        existingAppointment.getDoctorId(),
-                        appointmentDetails.getDate()
-                );
+        Optional<Appointment> appointmentOpt = appointmentRepository.findById(id);
+        if (appointmentOpt.isEmpty()) {
+            return null;
+        }
+        Appointment existingAppointment = appointmentOpt.get();
+        if (appointmentDetails.getVersion() != null
+                && !appointmentDetails.getVersion().equals(existingAppointment.getVersion())) {
+            throw new OptimisticLockingFailureException("Appointment " + id + " was modified concurrently (expected version "
+                    + appointmentDetails.getVersion() + ")");
+        }
+        // A cancel that lands after this read changes the version, so the move below fails instead of undoing it
+        if (AppointmentStatus.ANNULE.equals(existingAppointment.getStatus())) {
+            throw new RuntimeException("Appointment " + id + " is cancelled");
+        }
 
-                if (!availableSlots.contains(appointmentDetails.getTime())) {
-                    throw new RuntimeException("New time slot is not available");
-                }
-            }
+        List<String> availableSlots = getAvailableSlots(
+                existingAppointment.getDoctorId(),
+                appointmentDetails.getDate(),
+                false
+        );
 
-            existingAppointment.setDate(appointmentDetails.getDate());
-            existingAppointment.setTime(appointmentDetails.getTime());
-            existingAppointment.setRemarks(appointmentDetails.getRemarks());
-            existingAppointment.setStatus(appointmentDetails.getStatus());
+        if (!availableSlots.contains(appointmentDetails.getTime())) {
+            throw new RuntimeException("New time slot is not available");
+        }
 
-            return appointmentRepository.save(existingAppointment);
+        // Moves only if nobody changed the appointment since it was read, even when it has no version yet
+        Optional<Appointment> moved;
+        try {
+            moved = appointmentRepository.updateIfUnchanged(id, existingAppointment.getDate(), existingAppointment.getTime(),
+                    existingAppointment.getVersion(), appointmentDetails.getDate(), appointmentDetails.getTime(),
+                    appointmentDetails.getStatus(), appointmentDetails.getRemarks());
+        } catch (DuplicateKeyException e) {
+            throw new RuntimeException("New time slot is not available");
         }
+        return moved.orElseThrow(() -> new OptimisticLockingFailureException("Appointment " + id + " was modified concurrently"));
+    }
 
-        return null;
+    private Optional<Appointment> updateIfAt(String id, LocalDate currentDate, String currentTime, Long expectedVersion,
+                                             Appointment appointmentDetails) {
+        try {
+            return appointmentRepository.updateIfAt(id, currentDate, currentTime, expectedVersion,
+                    appointmentDetails.getDate(), appointmentDetails.getTime(),
+                    appointmentDetails.getStatus(), appointmentDetails.getRemarks());
+        } catch (DuplicateKeyException e) {
+            // Planned into a slot another appointment holds
+            throw new RuntimeException("New time slot is not available");
+        }
     }
 
     public boolean isSlotAvailable(String doctorId, LocalDate date, String time) {
@@ -220,9 +329,9 @@ public class AppointmentService {
         return "Not available";
     }
 
+    // From the appointmentId counter: unique even when bookings run concurrently
     private String generateAppointmentId() {
-        long count = appointmentRepository.count();
-        return "A" + (3000 + count + 1);
+        return "A" + appointmentRepository.nextAppointmentNumber();
     }
 
     public List<Appointment> findAll() {
@@ -234,27 +343,11 @@ public class AppointmentService {
     }
 
     public boolean cancelAppointment(String id) {
-        Optional<Appointment> appointment = appointmentRepository.findById(id);
-        if (appointment.isPresent()) {
-            appointment.get().setStatus(AppointmentStatus.ANNULE);
-            appointmentRepository.save(appointment.get());
-            return true;
-        }
-        return false;
+        return appointmentRepository.updateStatus(id, AppointmentStatus.ANNULE).isPresent();
     }
 
     public int markPastAppointmentsAsCompleted(LocalDate today) {
-        List<Appointment> pastAppointments = appointmentRepository.findAll().stream()
-                .filter(apt -> apt.getDate().isBefore(today))
-                .filter(apt -> AppointmentStatus.PLANIFIE.equals(apt.getStatus()))
-                .toList();
-
-        for (Appointment apt : pastAppointments) {
-            apt.setStatus(AppointmentStatus.TERMINE);
-            appointmentRepository.save(apt);
-        }
-
-        return pastAppointments.size();
+        return (int) appointmentRepository.completePastAppointments(today);
     }
 
     @Scheduled(cron = "0 0 2 * * ?")
@@ -262,33 +355,30 @@ public class AppointmentService {
         LocalDate today = LocalDate.now();
         int count = markPastAppointmentsAsCompleted(today);
         if (count > 0) {
-            System.out.println("✓ Marked " + count + " past appointment(s) as TERMINE");
+            log.info("Marked {} past appointment(s) as TERMINE", count);
         }
     }
 
     public List<Appointment> findByDoctorId(String doctorId) {
         String normalizedDoctorId = findDoctorByAnyId(doctorId)
-                .map(this::resolveDoctorKey)
+                .map(AppointmentService::resolveDoctorKey)
                 .orElse(doctorId);
         return appointmentRepository.findByDoctorId(normalizedDoctorId);
     }
 
     public List<Appointment> findByPatientId(String patientId) {
         String normalizedPatientId = findPatientByAnyId(patientId)
-                .map(this::resolvePatientKey)
+                .map(AppointmentService::resolvePatientKey)
                 .orElse(patientId);
         return appointmentRepository.findByPatientId(normalizedPatientId);
     }
 
     public List<Appointment> findPatientHistory(String patientId) {
         String normalizedPatientId = findPatientByAnyId(patientId)
-                .map(this::resolvePatientKey)
+                .map(AppointmentService::resolvePatientKey)
                 .orElse(patientId);
-        return appointmentRepository.findByPatientId(normalizedPatientId).stream()
-                .sorted(Comparator.comparing(Appointment::getDate)
-                        .thenComparing(Appointment::getTime)
-                        .reversed())
-                .toList();
+        // Includes archived appointments, sorted server-side
+        return appointmentRepository.findHistoryByPatientId(normalizedPatientId);
     }
 
     public Map<String, Object> getDoctorDashboard(String doctorId) {
@@ -296,32 +386,14 @@ public class AppointmentService {
                 .orElseThrow(() -> new RuntimeException("Doctor not found with identifier: " + doctorId));
         String normalizedDoctorId = resolveDoctorKey(doctor);
 
-        List<Appointment> all = appointmentRepository.findByDoctorId(normalizedDoctorId);
-        LocalDate today = LocalDate.now();
-
-        List<Appointment> todays = all.stream()
-                .filter(a -> today.equals(a.getDate()))
-                .sorted(Comparator.comparing(Appointment::getTime))
-                .toList();
-
-        long upcoming = all.stream()
-                .filter(a -> !a.getDate().isBefore(today))
-                .filter(a -> AppointmentStatus.PLANIFIE.equals(a.getStatus()))
-                .count();
-
-        long completed = all.stream()
-                .filter(a -> AppointmentStatus.TERMINE.equals(a.getStatus()))
-                .count();
-
-        long cancelled = all.stream()
-                .filter(a -> AppointmentStatus.ANNULE.equals(a.getStatus()))
-                .count();
+        DoctorDashboardSummary summary = appointmentRepository.loadDoctorDashboard(normalizedDoctorId, LocalDate.now());
+        List<Appointment> todays = summary.getTodayAppointments();
 
         Map<String, Object> stats = new HashMap<>();
         stats.put("todayCount", todays.size());
-        stats.put("upcoming", upcoming);
-        stats.put("completed", completed);
-        stats.put("cancelled", cancelled);
+        stats.put("upcoming", summary.getUpcoming());
+        stats.put("completed", summary.getCompleted());
+        stats.put("cancelled", summary.getCancelled());
 
         Map<String, Object> dashboard = new HashMap<>();
         dashboard.put("doctorId", normalizedDoctorId);
@@ -339,6 +411,10 @@ public class AppointmentService {
         if (identifier == null || identifier.isBlank()) {
             return Optional.empty();
         }
+        return lookupCaches.doctor(identifier, this::loadDoctorByAnyId);
+    }
+
+    private Optional<Doctor> loadDoctorByAnyId(String identifier) {
         Optional<Doctor> doctorOpt = doctorRepository.findByDoctorId(identifier);
         if (doctorOpt.isPresent()) {
             return doctorOpt;
@@ -350,6 +426,10 @@ public class AppointmentService {
         if (identifier == null || identifier.isBlank()) {
             return Optional.empty();
         }
+        return lookupCaches.patient(identifier, this::loadPatientByAnyId);
+    }
+
+    private Optional<Patient> loadPatientByAnyId(String identifier) {
         Optional<Patient> patientOpt = patientRepository.findByPatientId(identifier);
         if (patientOpt.isPresent()) {
             return patientOpt;
@@ -361,11 +441,11 @@ public class AppointmentService {
         return patientRepository.findById(identifier);
     }
 
-    private String resolveDoctorKey(Doctor doctor) {
+    static String resolveDoctorKey(Doctor doctor) {
         return doctor.getDoctorId() != null ? doctor.getDoctorId() : doctor.getId();
     }
 
-    private String resolvePatientKey(Patient patient) {
+    static String resolvePatientKey(Patient patient) {
         return patient.getPatientId() != null ? patient.getPatientId() : patient.getId();
     }
 }
@@ -1,21 +1,72 @@
 package com.ghp.gestionhospitale.services;
 
+import com.ghp.gestionhospitale.cache.LookupCaches;
+import com.ghp.gestionhospitale.model.User;
 import com.ghp.gestionhospitale.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomUserDetailsService.class);
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private LookupCaches lookupCaches;
+
+    @Value("${cache.users.warm-up.enabled:false}")
+    private boolean warmUpEnabled;
+
+    @Value("${cache.users.warm-up.size:5000}")
+    private int warmUpSize;
+
+    // Served from the users cache; registrations and account changes refresh it through CacheInvalidationEvent
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByUsername(username)
+        return lookupCaches.user(username, userRepository::findByUsername)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
     }
+
+    // Called by DaoAuthenticationProvider after a successful login when the encoder strength went up
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        return userRepository.updatePassword(user.getUsername(), newPassword)
+                .map(UserDetails.class::cast)
+                .orElse(user);
+    }
+
+    public Optional<User> setEnabled(String username, boolean enabled) {
+        return userRepository.updateEnabled(username, enabled);
+    }
+
+    public void recordLogin(String username) {
+        userRepository.recordLogin(username, Instant.now());
+    }
+
+    // Loads the accounts that logged in most recently, so the first peak-hour requests hit the cache
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!warmUpEnabled) {
+            return;
+        }
+        List<User> users = userRepository.findRecentlyLoggedIn(warmUpSize);
+        users.forEach(lookupCaches::putUser);
+        log.info("User cache warmed up with {} account(s)", users.size());
+    }
 }
@@ -40,9 +40,9 @@ public class DoctorService {
         return doctorRepository.findBySpecializationContainingIgnoreCase(specialty);
     }
 
-    // SEARCH DOCTORS BY NAME
-    public List<Doctor> searchByName(String name) {
-        return doctorRepository.findByNameContainingIgnoreCase(name);
+    // SEARCH DOCTORS BY NAME (accent-insensitive prefix search, most relevant first)
+    public List<Doctor> searchByName(String name, int limit) {
+        return doctorRepository.searchByName(name, limit);
     }
 
     // GENERATE DOCTOR ID
@@ -60,22 +60,9 @@ public class DoctorService {
         return doctorRepository.findById(id).orElse(null);
     }
 
+    // Single findAndModify: only the editable fields are written, concurrent changes are detected by version
     public Doctor update(String id, Doctor doctorDetails) {
-        Optional<Doctor> doctorOpt = doctorRepository.findById(id);
-        if (doctorOpt.isPresent()) {
-            Doctor doctor = doctorOpt.get();
-            doctor.setName(doctorDetails.getName());
-            doctor.setSpecialization(doctorDetails.getSpecialization());
-            doctor.setEmail(doctorDetails.getEmail());
-            doctor.setPhone(doctorDetails.getPhone());
-            doctor.setWorkingDays(doctorDetails.getWorkingDays());
-            doctor.setWorkingHours(doctorDetails.getWorkingHours());
-            doctor.setBreakTime(doctorDetails.getBreakTime());
-            doctor.setAppointmentDuration(doctorDetails.getAppointmentDuration());
-            doctor.setUnavailableDates(doctorDetails.getUnavailableDates());
-            return doctorRepository.save(doctor);
-        }
-        return null;
+        return doctorRepository.updateProfile(id, doctorDetails).orElse(null);
     }
 
     public boolean delete(String id) {
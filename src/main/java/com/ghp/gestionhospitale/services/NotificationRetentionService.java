@@ -0,0 +1,71 @@
+package com.ghp.gestionhospitale.services;
+
+import com.ghp.gestionhospitale.repository.NotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Keeps the notifications collection bounded: entries older than the hot window are moved to
+ * notifications_archive (or deleted when archiving is off), and the archive expires its entries
+ * through a TTL index.
+ */
+@Service
+public class NotificationRetentionService {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationRetentionService.class);
+
+    private final NotificationRepository notificationRepository;
+    private final int hotDays;
+    private final int archiveDays;
+    private final boolean archiveEnabled;
+    private final int batchSize;
+
+    public NotificationRetentionService(NotificationRepository notificationRepository,
+                                        @Value("${notifications.retention.hot-days:30}") int hotDays,
+                                        @Value("${notifications.retention.archive-days:365}") int archiveDays,
+                                        @Value("${notifications.retention.archive-enabled:true}") boolean archiveEnabled,
+                                        @Value("${notifications.retention.batch-size:1000}") int batchSize) {
+        this.notificationRepository = notificationRepository;
+        this.hotDays = hotDays;
+        this.archiveDays = archiveDays;
+        this.archiveEnabled = archiveEnabled;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureArchiveIndexes() {
+        if (archiveEnabled) {
+            // archive-days <= 0 keeps archived notifications forever
+            notificationRepository.ensureArchiveIndexes(archiveDays > 0 ? Duration.ofDays(archiveDays) : null);
+        }
+    }
+
+    @Scheduled(cron = "${notifications.retention.cron:0 15 * * * ?}")
+    public void scheduledApplyRetention() {
+        int count = applyRetention(LocalDateTime.now());
+        if (count > 0) {
+            log.info("{} {} notification(s) older than {} day(s)", archiveEnabled ? "Archived" : "Deleted", count, hotDays);
+        }
+    }
+
+    public int applyRetention(LocalDateTime now) {
+        LocalDateTime cutoff = now.minusDays(hotDays);
+        int total = 0;
+        int moved;
+        do {
+            moved = archiveEnabled
+                    ? notificationRepository.archiveBatchOlderThan(cutoff, batchSize)
+                    : notificationRepository.deleteBatchOlderThan(cutoff, batchSize);
+            total += moved;
+        } while (moved == batchSize);
+        return total;
+    }
+}
@@ -4,14 +4,21 @@ import com.ghp.gestionhospitale.model.Appointment;
 import com.ghp.gestionhospitale.model.Doctor;
 import com.ghp.gestionhospitale.model.Notification;
 import com.ghp.gestionhospitale.model.Patient;
+import com.ghp.gestionhospitale.monitoring.SamplingFilter;
 import com.ghp.gestionhospitale.repository.NotificationRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 
 @Service
+@Timed(value = "ghp.notifications", histogram = true)
 public class NotificationService {
 
+    private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
+
     private final NotificationRepository notificationRepository;
 
     public NotificationService(NotificationRepository notificationRepository) {
@@ -48,7 +55,12 @@ public class NotificationService {
         if (!hasText(contact)) {
             return;
         }
-        System.out.printf("%s notification -> %s | %s%n", channel.equals("EMAIL") ? "📧" : "📱", contact, message);
+        // One per channel and recipient of every booking: sampled, the notifications collection has them all
+        log.atInfo().addMarker(SamplingFilter.SAMPLED)
+                .addKeyValue("channel", channel)
+                .addKeyValue("recipientType", recipientType)
+                .addKeyValue("contact", contact)
+                .log(message);
         Notification notification = new Notification();
         notification.setTimestamp(LocalDateTime.now());
         notification.setChannel(channel);
@@ -1,7 +1,9 @@
 package com.ghp.gestionhospitale.services;
 
+import com.ghp.gestionhospitale.dto.PatientSuggestion;
 import com.ghp.gestionhospitale.model.Patient;
 import com.ghp.gestionhospitale.repository.PatientRepository;
+import com.ghp.gestionhospitale.search.PatientTypeaheadIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -13,9 +15,11 @@ import java.util.Optional;
 public class PatientService {
 
     private final PatientRepository patientRepository;
+    private final PatientTypeaheadIndex typeaheadIndex;
 
-    public PatientService(PatientRepository patientRepository) {
+    public PatientService(PatientRepository patientRepository, PatientTypeaheadIndex typeaheadIndex) {
         this.patientRepository = patientRepository;
+        this.typeaheadIndex = typeaheadIndex;
     }
 
     /**
@@ -68,19 +72,9 @@ public class PatientService {
         return patientRepository.save(patient);
     }
 
+    // Single findAndModify: only the editable fields are written, concurrent changes are detected by version
     public Patient update(String id, Patient patientDetails) {
-        Optional<Patient> patientOpt = patientRepository.findById(id);
-        if (patientOpt.isPresent()) {
-            Patient patient = patientOpt.get();
-            patient.setName(patientDetails.getName());
-            patient.setDob(patientDetails.getDob());
-            patient.setGender(patientDetails.getGender());
-            patient.setPhone(patientDetails.getPhone());
-            patient.setEmail(patientDetails.getEmail());
-            patient.setAddress(patientDetails.getAddress());
-            return patientRepository.save(patient);
-        }
-        return null;
+        return patientRepository.updateProfile(id, patientDetails).orElse(null);
     }
 
     public boolean delete(String id) {
@@ -92,8 +86,20 @@ public class PatientService {
                 .orElse(false);
     }
 
-    public List<Patient> searchByName(String name) {
-        return patientRepository.findByNameContainingIgnoreCase(name);
+    // Accent-insensitive prefix search on the normalized name tokens, most relevant first
+    public List<Patient> searchByName(String name, int limit) {
+        return patientRepository.searchByName(name, limit);
+    }
+
+    // Reception-desk typeahead on name, phone or email, served from memory once the index is built
+    public List<PatientSuggestion> typeahead(String query, int limit) {
+        if (typeaheadIndex.isReady()) {
+            return typeaheadIndex.search(query, limit);
+        }
+        return patientRepository.searchByName(query, limit).stream()
+                .map(patient -> new PatientSuggestion(patient.getId(), patient.getPatientId(),
+                        patient.getName(), patient.getPhone(), patient.getEmail()))
+                .toList();
     }
 
 
@@ -0,0 +1,87 @@
+package com.ghp.gestionhospitale.services;
+
+import com.ghp.gestionhospitale.model.Appointment;
+import com.ghp.gestionhospitale.model.AppointmentStatus;
+import com.ghp.gestionhospitale.model.Doctor;
+import com.ghp.gestionhospitale.model.Patient;
+import com.ghp.gestionhospitale.repository.reactive.ReactiveAppointmentRepository;
+import com.ghp.gestionhospitale.repository.reactive.ReactiveDoctorRepository;
+import com.ghp.gestionhospitale.repository.reactive.ReactivePatientRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Non-blocking counterparts of the read paths of AppointmentService, on the reactive driver.
+ * Identifiers are resolved the same way (custom id first, then MongoDB id).
+ */
+@Service
+@Profile("!inmem")
+public class ReactiveAppointmentService {
+
+    private final ReactiveAppointmentRepository appointmentRepository;
+    private final ReactiveDoctorRepository doctorRepository;
+    private final ReactivePatientRepository patientRepository;
+    private final AppointmentService appointmentService;
+
+    public ReactiveAppointmentService(ReactiveAppointmentRepository appointmentRepository,
+                                      ReactiveDoctorRepository doctorRepository,
+                                      ReactivePatientRepository patientRepository,
+                                      AppointmentService appointmentService) {
+        this.appointmentRepository = appointmentRepository;
+        this.doctorRepository = doctorRepository;
+        this.patientRepository = patientRepository;
+        this.appointmentService = appointmentService;
+    }
+
+    public Mono<List<String>> getAvailableSlots(String doctorId, LocalDate date) {
+        return findDoctorByAnyId(doctorId)
+                .filter(doctor -> appointmentService.worksOn(doctor, date))
+                .flatMap(doctor -> appointmentRepository
+                        .findByDoctorIdAndDate(AppointmentService.resolveDoctorKey(doctor), date)
+                        .filter(appointment -> !AppointmentStatus.ANNULE.equals(appointment.getStatus()))
+                        .map(Appointment::getTime)
+                        .collectList()
+                        .map(bookedSlots -> appointmentService.computeAvailableSlots(doctor, date, bookedSlots)))
+                .defaultIfEmpty(List.of());
+    }
+
+    public Flux<Appointment> findByDoctorId(String doctorId) {
+        return findDoctorByAnyId(doctorId)
+                .map(AppointmentService::resolveDoctorKey)
+                .defaultIfEmpty(doctorId)
+                .flatMapMany(appointmentRepository::findByDoctorId);
+    }
+
+    public Flux<Appointment> findByPatientId(String patientId) {
+        return findPatientByAnyId(patientId)
+                .map(AppointmentService::resolvePatientKey)
+                .defaultIfEmpty(patientId)
+                .flatMapMany(appointmentRepository::findByPatientId);
+    }
+
+    public Flux<Appointment> findByDate(LocalDate date) {
+        return appointmentRepository.findByDate(date);
+    }
+
+    private Mono<Doctor> findDoctorByAnyId(String identifier) {
+        if (identifier == null || identifier.isBlank()) {
+            return Mono.empty();
+        }
+        return doctorRepository.findByDoctorId(identifier)
+                .switchIfEmpty(Mono.defer(() -> doctorRepository.findById(identifier)));
+    }
+
+    private Mono<Patient> findPatientByAnyId(String identifier) {
+        if (identifier == null || identifier.isBlank()) {
+            return Mono.empty();
+        }
+        return patientRepository.findByPatientId(identifier)
+                .switchIfEmpty(Mono.defer(() -> patientRepository.findByIdentifier(identifier)))
+                .switchIfEmpty(Mono.defer(() -> patientRepository.findById(identifier)));
+    }
+}
@@ -1,38 +1,45 @@
 package com.ghp.gestionhospitale.services;
 
 import com.ghp.gestionhospitale.dto.AppointmentReport;
+import com.ghp.gestionhospitale.jfr.ReportSectionEvent;
 import com.ghp.gestionhospitale.model.Appointment;
 import com.ghp.gestionhospitale.model.Doctor;
 import com.ghp.gestionhospitale.model.Patient;
-import com.ghp.gestionhospitale.repository.AppointmentRepository;
-import com.ghp.gestionhospitale.repository.DoctorRepository;
-import com.ghp.gestionhospitale.repository.PatientRepository;
+import com.ghp.gestionhospitale.repository.ReportRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.util.*;
 import java.util.stream.Collectors;
 
+// Created on the first report request, together with the report repository and its connection pool
 @Service
+@Lazy
+@Timed(value = "ghp.reports", histogram = true) // one series per method (method tag)
 public class ReportService {
 
     @Autowired
-    private AppointmentRepository appointmentRepository;
-
-    @Autowired
-    private DoctorRepository doctorRepository;
-
-    @Autowired
-    private PatientRepository patientRepository;
+    private ReportRepository reportRepository;
 
     /**
      * Get all appointments for a given day
      */
     public List<AppointmentReport> getAppointmentsByDate(LocalDate date) {
-        return appointmentRepository.findByDate(date).stream()
-                .map(this::mapToReport)
-                .toList();
+        ReportSectionEvent event = ReportSectionEvent.start("appointmentsByDate");
+        List<Appointment> appointments = reportRepository.findAppointmentsByDate(date);
+
+        // Resolve all names in two queries instead of one lookup per row
+        Map<String, Patient> patients = reportRepository.findPatients(
+                appointments.stream().map(Appointment::getPatientId).toList());
+        Map<String, Doctor> doctors = reportRepository.findDoctors(
+                appointments.stream().map(Appointment::getDoctorId).toList());
+
+        List<AppointmentReport> reports = toReports(appointments, patients, doctors);
+        event.finish(date, date, appointments.size(), reports.size());
+        return reports;
     }
 
     /**
@@ -40,45 +47,100 @@ public class ReportService {
      * Returns list with doctorId, doctorName, and count
      */
     public List<Map<String, Object>> getAppointmentsPerDoctor(LocalDate from, LocalDate to) {
-        List<Appointment> appointments = appointmentRepository.findAll().stream()
-                .filter(apt -> !apt.getDate().isBefore(from) && !apt.getDate().isAfter(to))
+        ReportSectionEvent event = ReportSectionEvent.start("appointmentsPerDoctor");
+        List<Appointment> appointments = reportRepository.findAppointmentsBetween(from, to);
+
+        Map<String, Long> doctorCounts = countByDoctor(appointments);
+        Map<String, Doctor> doctors = reportRepository.findDoctors(doctorCounts.keySet());
+
+        List<Map<String, Object>> rows = perDoctor(doctorCounts, doctors);
+        event.finish(from, to, appointments.size(), rows.size());
+        return rows;
+    }
+
+    /**
+     * Count appointments per specialty within a date range
+     */
+    public List<Map<String, Object>> getAppointmentsPerSpecialty(LocalDate from, LocalDate to) {
+        ReportSectionEvent event = ReportSectionEvent.start("appointmentsPerSpecialty");
+        List<Appointment> appointments = reportRepository.findAppointmentsBetween(from, to);
+
+        Map<String, Doctor> doctors = reportRepository.findDoctors(
+                appointments.stream().map(Appointment::getDoctorId).toList());
+
+        List<Map<String, Object>> rows = perSpecialty(appointments, doctors);
+        event.finish(from, to, appointments.size(), rows.size());
+        return rows;
+    }
+
+    /**
+     * Get patients with multiple appointments within a date range
+     * Returns patients with count >= minCount
+     */
+    public List<Map<String, Object>> getFrequentPatients(LocalDate from, int minCount) {
+        ReportSectionEvent event = ReportSectionEvent.start("frequentPatients");
+        List<Appointment> appointments = reportRepository.findAppointmentsFrom(from);
+
+        Map<String, Long> patientCounts = countByPatient(appointments);
+        Map<String, Patient> patients = reportRepository.findPatients(frequentPatientIds(patientCounts, minCount));
+
+        List<Map<String, Object>> rows = frequentPatients(patientCounts, minCount, patients);
+        event.finish(from, null, appointments.size(), rows.size());
+        return rows;
+    }
+
+    // Pure grouping steps, separated from the queries so they can be benchmarked in memory
+
+    static List<AppointmentReport> toReports(List<Appointment> appointments,
+                                             Map<String, Patient> patients,
+                                             Map<String, Doctor> doctors) {
+        return appointments.stream()
+                .map(apt -> mapToReport(apt, patients, doctors))
                 .toList();
+    }
 
-        Map<String, Long> doctorCounts = appointments.stream()
+    static Map<String, Long> countByDoctor(List<Appointment> appointments) {
+        return appointments.stream()
                 .collect(Collectors.groupingBy(Appointment::getDoctorId, Collectors.counting()));
+    }
 
+    static Map<String, Long> countByPatient(List<Appointment> appointments) {
+        return appointments.stream()
+                .collect(Collectors.groupingBy(Appointment::getPatientId, Collectors.counting()));
+    }
+
+    static List<String> frequentPatientIds(Map<String, Long> patientCounts, int minCount) {
+        return patientCounts.entrySet().stream()
+                .filter(entry -> entry.getValue() >= minCount)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    static List<Map<String, Object>> perDoctor(Map<String, Long> doctorCounts, Map<String, Doctor> doctors) {
         List<Map<String, Object>> result = new ArrayList<>();
         for (Map.Entry<String, Long> entry : doctorCounts.entrySet()) {
             Map<String, Object> item = new HashMap<>();
             item.put("doctorId", entry.getKey());
-            
-            item.put("doctorName", findDoctorName(entry.getKey()));
-            
+            item.put("doctorName", doctorName(doctors.get(entry.getKey())));
             item.put("count", entry.getValue());
             result.add(item);
         }
 
         // Sort by count descending
         result.sort((a, b) -> Long.compare((Long) b.get("count"), (Long) a.get("count")));
-        
+
         return result;
     }
 
-    /**
-     * Count appointments per specialty within a date range
-     */
-    public List<Map<String, Object>> getAppointmentsPerSpecialty(LocalDate from, LocalDate to) {
-        List<Appointment> appointments = appointmentRepository.findAll().stream()
-                .filter(apt -> !apt.getDate().isBefore(from) && !apt.getDate().isAfter(to))
-                .toList();
-
+    static List<Map<String, Object>> perSpecialty(List<Appointment> appointments, Map<String, Doctor> doctors) {
         Map<String, Long> specialtyCounts = new HashMap<>();
-        
+
         for (Appointment apt : appointments) {
-            findDoctorByIdentifier(apt.getDoctorId()).ifPresent(doctor -> {
+            Doctor doctor = apt.getDoctorId() == null ? null : doctors.get(apt.getDoctorId());
+            if (doctor != null) {
                 String specialty = doctor.getSpecialization();
                 specialtyCounts.put(specialty, specialtyCounts.getOrDefault(specialty, 0L) + 1);
-            });
+            }
         }
 
         List<Map<String, Object>> result = new ArrayList<>();
@@ -91,28 +153,18 @@ public class ReportService {
 
         // Sort by count descending
         result.sort((a, b) -> Long.compare((Long) b.get("count"), (Long) a.get("count")));
-        
+
         return result;
     }
 
-    /**
-     * Get patients with multiple appointments within a date range
-     * Returns patients with count >= minCount
-     */
-    public List<Map<String, Object>> getFrequentPatients(LocalDate from, int minCount) {
-        List<Appointment> appointments = appointmentRepository.findAll().stream()
-                .filter(apt -> !apt.getDate().isBefore(from))
-                .toList();
-
-        Map<String, Long> patientCounts = appointments.stream()
-                .collect(Collectors.groupingBy(Appointment::getPatientId, Collectors.counting()));
-
+    static List<Map<String, Object>> frequentPatients(Map<String, Long> patientCounts, int minCount,
+                                                      Map<String, Patient> patients) {
         List<Map<String, Object>> result = new ArrayList<>();
         for (Map.Entry<String, Long> entry : patientCounts.entrySet()) {
             if (entry.getValue() >= minCount) {
                 Map<String, Object> item = new HashMap<>();
                 item.put("patientId", entry.getKey());
-                item.put("patientName", findPatientName(entry.getKey()));
+                item.put("patientName", patientName(patients.get(entry.getKey())));
                 item.put("count", entry.getValue());
                 result.add(item);
             }
@@ -120,49 +172,35 @@ public class ReportService {
 
         // Sort by count descending
         result.sort((a, b) -> Long.compare((Long) b.get("count"), (Long) a.get("count")));
-        
+
         return result;
     }
 
-    private AppointmentReport mapToReport(Appointment appointment) {
+    private static AppointmentReport mapToReport(Appointment appointment,
+                                                 Map<String, Patient> patients,
+                                                 Map<String, Doctor> doctors) {
         return new AppointmentReport(
                 appointment.getId(),
                 appointment.getAppointmentId(),
                 appointment.getPatientId(),
-                findPatientName(appointment.getPatientId()),
+                patientName(lookup(patients, appointment.getPatientId())),
                 appointment.getDoctorId(),
-                findDoctorName(appointment.getDoctorId()),
+                doctorName(lookup(doctors, appointment.getDoctorId())),
                 appointment.getDate(),
                 appointment.getTime(),
                 appointment.getStatus()
         );
     }
 
-    private String findPatientName(String identifier) {
-        if (identifier == null) {
-            return "Unknown";
-        }
-        return patientRepository.findByPatientId(identifier)
-                .or(() -> patientRepository.findByIdentifier(identifier))
-                .or(() -> patientRepository.findById(identifier))
-                .map(Patient::getName)
-                .orElse("Unknown");
+    private static <T> T lookup(Map<String, T> resolved, String identifier) {
+        return identifier == null ? null : resolved.get(identifier);
     }
 
-    private String findDoctorName(String identifier) {
-        return findDoctorByIdentifier(identifier)
-                .map(Doctor::getName)
-                .orElse("Unknown");
+    private static String patientName(Patient patient) {
+        return patient != null ? patient.getName() : "Unknown";
     }
 
-    private Optional<Doctor> findDoctorByIdentifier(String identifier) {
-        if (identifier == null) {
-            return Optional.empty();
-        }
-        Optional<Doctor> doctorOpt = doctorRepository.findByDoctorId(identifier);
-        if (doctorOpt.isPresent()) {
-            return doctorOpt;
-        }
-        return doctorRepository.findById(identifier);
+    private static String doctorName(Doctor doctor) {
+        return doctor != null ? doctor.getName() : "Unknown";
     }
 }
@@ -0,0 +1,32 @@
+package com.ghp.gestionhospitale;
+
+import com.ghp.gestionhospitale.bench.BookingStressHarness;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A short run of the booking stress harness on the in-memory repositories
+@SpringBootTest
+@ActiveProfiles("inmem")
+class BookingStressTests {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    void concurrentBookingsKeepInvariants() {
+        BookingStressHarness.Result result = BookingStressHarness.run(context,
+                BookingStressHarness.Options.fromSystemProperties().withDuration(3));
+
+        assertEquals(List.of(), result.violations());
+        assertEquals(0, result.errors());
+        assertTrue(result.completed().get("book") > 0);
+    }
+}
@@ -0,0 +1,121 @@
+package com.ghp.gestionhospitale;
+
+import com.ghp.gestionhospitale.model.Appointment;
+import com.ghp.gestionhospitale.model.AppointmentStatus;
+import com.ghp.gestionhospitale.repository.AppointmentRepository;
+import com.ghp.gestionhospitale.repository.DoctorRepository;
+import com.ghp.gestionhospitale.repository.UserRepository;
+import com.ghp.gestionhospitale.repository.inmem.InMemoryAppointmentRepository;
+import com.ghp.gestionhospitale.security.RefreshTokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Starts the whole application without MongoDB
+@SpringBootTest
+@ActiveProfiles("inmem")
+class InMemoryProfileTests {
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Test
+    void contextLoadsWithSampleData() {
+        assertInstanceOf(InMemoryAppointmentRepository.class, appointmentRepository);
+        assertTrue(userRepository.existsByUsername("admin"));
+        assertTrue(doctorRepository.count() > 0);
+    }
+
+    @Test
+    void derivedQueriesFollowUpdates() {
+        LocalDate day = LocalDate.of(2030, 1, 7);
+        Appointment saved = appointmentRepository.save(new Appointment("A-INMEM", "P-INMEM", "D-INMEM",
+                day, "10:00", AppointmentStatus.PLANIFIE, null));
+        // Like MongoRepository.save: the version is a plain field, only the partial updates increment it
+        assertNull(saved.getVersion());
+        assertEquals(1, appointmentRepository.findByDoctorIdAndDate("D-INMEM", day).size());
+
+        Appointment moved = appointmentRepository.updateIfAt(saved.getId(), day, "10:00", null, day.plusDays(1), "11:00",
+                AppointmentStatus.PLANIFIE, null).orElseThrow();
+        assertEquals(1L, moved.getVersion());
+        assertTrue(appointmentRepository.findByDoctorIdAndDate("D-INMEM", day).isEmpty());
+        assertEquals("11:00", appointmentRepository.findByDoctorIdAndDate("D-INMEM", day.plusDays(1)).get(0).getTime());
+
+        // A stale expected version matches nothing
+        assertTrue(appointmentRepository.updateIfAt(saved.getId(), day.plusDays(1), "11:00", 0L, day, "12:00",
+                AppointmentStatus.PLANIFIE, null).isEmpty());
+
+        // save() is an upsert without any version check: the stale instance overwrites the update
+        appointmentRepository.save(saved);
+        Appointment overwritten = appointmentRepository.findById(saved.getId()).orElseThrow();
+        assertEquals("10:00", overwritten.getTime());
+        assertNull(overwritten.getVersion());
+    }
+
+    @Test
+    void moveOfAReadAppointmentFailsAfterACancel() {
+        LocalDate day = LocalDate.of(2030, 1, 8);
+        Appointment booked = appointmentRepository.save(new Appointment("A-INMEM-2", "P-INMEM", "D-INMEM",
+                day, "10:00", AppointmentStatus.PLANIFIE, null));
+        Appointment read = appointmentRepository.findById(booked.getId()).orElseThrow();
+
+        appointmentRepository.updateStatus(booked.getId(), AppointmentStatus.ANNULE);
+
+        // Read without a version: only matches while the appointment still has none
+        assertTrue(appointmentRepository.updateIfUnchanged(booked.getId(), day, "10:00", read.getVersion(),
+                day, "11:00", AppointmentStatus.PLANIFIE, "moved").isEmpty());
+        Appointment cancelled = appointmentRepository.findById(booked.getId()).orElseThrow();
+        assertEquals(AppointmentStatus.ANNULE, cancelled.getStatus());
+
+        Appointment moved = appointmentRepository.updateIfUnchanged(booked.getId(), day, "10:00", cancelled.getVersion(),
+                day, "11:00", AppointmentStatus.ANNULE, "moved").orElseThrow();
+        assertEquals(2L, moved.getVersion());
+    }
+
+    @Test
+    void refreshTokensAreSingleUse() throws Exception {
+        RefreshTokenService.TokenPair issued = refreshTokenService.issue(userRepository.findByUsername("admin").orElseThrow());
+
+        // Concurrent refreshes with the same token: exactly one gets a new pair
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Optional<RefreshTokenService.TokenPair>>> attempts = new ArrayList<>();
+        try {
+            for (int i = 0; i < 8; i++) {
+                attempts.add(pool.submit(() -> refreshTokenService.refresh(issued.refreshToken())));
+            }
+            long winners = 0;
+            for (Future<Optional<RefreshTokenService.TokenPair>> attempt : attempts) {
+                winners += attempt.get().isPresent() ? 1 : 0;
+            }
+            assertEquals(1, winners);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertFalse(refreshTokenService.refresh(issued.refreshToken()).isPresent());
+    }
+}
@@ -0,0 +1,587 @@
+package com.ghp.gestionhospitale.bench;
+
+import com.ghp.gestionhospitale.GestionHospitaleApplication;
+import com.ghp.gestionhospitale.model.Appointment;
+import com.ghp.gestionhospitale.model.AppointmentStatus;
+import com.ghp.gestionhospitale.model.Doctor;
+import com.ghp.gestionhospitale.model.Patient;
+import com.ghp.gestionhospitale.repository.AppointmentRepository;
+import com.ghp.gestionhospitale.repository.DoctorRepository;
+import com.ghp.gestionhospitale.repository.PatientRepository;
+import com.ghp.gestionhospitale.services.AppointmentService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Concurrent booking stress test: N clients book, cancel, reschedule and read availability in a
+ * closed loop on a few hot doctors with only a few slots each, then the final state is checked:
+ * <ul>
+ *     <li>no two planned appointments of a doctor on the same date and time,</li>
+ *     <li>no duplicate appointmentId,</li>
+ *     <li>no lost update: every appointment ends in the state its client last wrote,</li>
+ *     <li>of N concurrent updates made with the same version, exactly one wins,</li>
+ *     <li>a cancel racing a reschedule of a just booked appointment is never undone.</li>
+ * </ul>
+ * Throughput and latency percentiles are printed per operation.
+ * <p>
+ * Not a unit test: run it from the IDE or with
+ * {@code java -cp target/test-classes:<classpath> com.ghp.gestionhospitale.bench.BookingStressHarness}
+ * and the options below as system properties. The exit code is 1 when an invariant is violated.
+ * <ul>
+ *     <li>stress.profile - Spring profile (default inmem; empty for the configured MongoDB)</li>
+ *     <li>stress.clients - concurrent clients (default 200)</li>
+ *     <li>stress.doctors - hot doctors (default 3)</li>
+ *     <li>stress.slots - slots per doctor and day (default 8)</li>
+ *     <li>stress.days - days booked per doctor (default 2)</li>
+ *     <li>stress.duration - seconds (default 20)</li>
+ *     <li>stress.mix - operation weights (default book=40,cancel=15,reschedule=20,read=25)</li>
+ *     <li>stress.seed - random seed of the run (default: current time)</li>
+ *     <li>stress.cleanup - delete the stress doctors, patients and appointments afterwards (default true)</li>
+ * </ul>
+ */
+public class BookingStressHarness {
+
+    private static final String BOOK = "book";
+    private static final String CANCEL = "cancel";
+    private static final String RESCHEDULE = "reschedule";
+    private static final String READ = "read";
+    private static final List<String> OPERATIONS = List.of(BOOK, CANCEL, RESCHEDULE, READ);
+
+    public static void main(String[] args) {
+        String profile = System.getProperty("stress.profile", "inmem");
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(GestionHospitaleApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .properties("server.port=0", "management.server.port=0");
+        if (!profile.isBlank()) {
+            builder.profiles(profile);
+        }
+
+        Result result;
+        try (ConfigurableApplicationContext context = builder.run(args)) {
+            result = run(context, Options.fromSystemProperties());
+        }
+        System.exit(result.violations().isEmpty() ? 0 : 1);
+    }
+
+    public record Options(int clients, int doctors, int slots, int days, int durationSeconds,
+                          Map<String, Integer> mix, long seed, boolean cleanup) {
+
+        public static Options fromSystemProperties() {
+            return new Options(
+                    Integer.getInteger("stress.clients", 200),
+                    Integer.getInteger("stress.doctors", 3),
+                    Integer.getInteger("stress.slots", 8),
+                    Integer.getInteger("stress.days", 2),
+                    Integer.getInteger("stress.duration", 20),
+                    parseMix(System.getProperty("stress.mix", "book=40,cancel=15,reschedule=20,read=25")),
+                    Long.getLong("stress.seed", System.currentTimeMillis()),
+                    Boolean.parseBoolean(System.getProperty("stress.cleanup", "true")));
+        }
+
+        public Options withDuration(int seconds) {
+            return new Options(clients, doctors, slots, days, seconds, mix, seed, cleanup);
+        }
+
+        private static Map<String, Integer> parseMix(String mix) {
+            Map<String, Integer> weights = new HashMap<>();
+            for (String entry : mix.split(",")) {
+                String[] parts = entry.trim().split("=");
+                if (!OPERATIONS.contains(parts[0]) || parts.length != 2) {
+                    throw new IllegalArgumentException("Invalid stress.mix entry: " + entry);
+                }
+                weights.put(parts[0], Integer.parseInt(parts[1]));
+            }
+            return weights;
+        }
+    }
+
+    public record Result(Map<String, Long> completed, long conflicts, long errors, List<String> violations) {
+    }
+
+    public static Result run(ApplicationContext context, Options options) {
+        return new BookingStressHarness(context, options).run();
+    }
+
+    private final AppointmentService appointmentService;
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorRepository doctorRepository;
+    private final PatientRepository patientRepository;
+    private final Options options;
+    private final String runId;
+    private final LocalDate firstDay;
+    private final List<String> slots = new ArrayList<>();
+    private final List<Doctor> doctors = new ArrayList<>();
+    private final List<Patient> patients = new ArrayList<>();
+
+    private final Map<String, Series> series = new HashMap<>();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final Set<String> issuedAppointmentIds = ConcurrentHashMap.newKeySet();
+    private final List<String> violations = new CopyOnWriteArrayList<>();
+    // What each client last wrote, by MongoDB id; a client only ever touches its own appointments
+    private final Map<String, Expected> expected = new ConcurrentHashMap<>();
+
+    private BookingStressHarness(ApplicationContext context, Options options) {
+        this.appointmentService = context.getBean(AppointmentService.class);
+        this.appointmentRepository = context.getBean(AppointmentRepository.class);
+        this.doctorRepository = context.getBean(DoctorRepository.class);
+        this.patientRepository = context.getBean(PatientRepository.class);
+        this.options = options;
+        this.runId = Long.toString(options.seed(), 36).toUpperCase();
+        // Far enough ahead to never meet real bookings
+        this.firstDay = LocalDate.now().plusYears(10);
+        OPERATIONS.forEach(operation -> series.put(operation, new Series()));
+    }
+
+    private Result run() {
+        System.out.printf("Booking stress: %d clients, %d doctors x %d slots x %d days, mix %s, %ds, seed %d%n",
+                options.clients(), options.doctors(), options.slots(), options.days(), options.mix(),
+                options.durationSeconds(), options.seed());
+        setUp();
+        try {
+            runClients();
+            checkNoDoubleBooking();
+            checkNoDuplicateAppointmentId();
+            checkNoLostUpdate();
+            runVersionRace();
+            runCancelRace();
+            report();
+        } finally {
+            if (options.cleanup()) {
+                cleanUp();
+            }
+        }
+        return new Result(series.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().count())),
+                conflicts.sum(), errors.sum(), List.copyOf(violations));
+    }
+
+    private void setUp() {
+        LocalTime start = LocalTime.of(8, 0);
+        for (int s = 0; s < options.slots(); s++) {
+            slots.add(start.plusMinutes(30L * s).toString());
+        }
+        List<String> everyDay = Arrays.stream(DayOfWeek.values())
+                .map(day -> day.toString().charAt(0) + day.toString().substring(1).toLowerCase())
+                .toList();
+        for (int d = 0; d < options.doctors(); d++) {
+            Doctor doctor = new Doctor("DS-" + runId + "-" + d, "Stress Doctor " + d, "Stress",
+                    "stress." + runId + "." + d + "@example.org", "0000000000");
+            doctor.setWorkingDays(everyDay);
+            doctor.setWorkingHours(new Doctor.WorkingHours(start.toString(), start.plusMinutes(30L * options.slots()).toString()));
+            doctor.setAppointmentDuration(30);
+            doctors.add(doctorRepository.save(doctor));
+        }
+        for (int c = 0; c < options.clients(); c++) {
+            Patient patient = new Patient("PS-" + runId + "-" + c, "Stress Patient " + c, LocalDate.of(1990, 1, 1),
+                    "M", "0000000000", "stress." + runId + ".p" + c + "@example.org", "Stress");
+            patient.setIdentifier("PID-S" + runId + "-" + c);
+            patients.add(patientRepository.save(patient));
+        }
+    }
+
+    private void runClients() {
+        long deadline = System.nanoTime() + Duration.ofSeconds(options.durationSeconds()).toNanos();
+        CountDownLatch done = new CountDownLatch(options.clients());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < options.clients(); c++) {
+                Client client = new Client(patients.get(c), new Random(options.seed() + c));
+                executor.execute(() -> {
+                    try {
+                        client.loop(deadline);
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the clients", e);
+        }
+    }
+
+    private final class Client {
+
+        private final Patient patient;
+        private final Random random;
+        private final List<String> planned = new ArrayList<>();
+        private final int totalWeight = options.mix().values().stream().mapToInt(Integer::intValue).sum();
+
+        Client(Patient patient, Random random) {
+            this.patient = patient;
+            this.random = random;
+        }
+
+        void loop(long deadline) {
+            while (System.nanoTime() < deadline) {
+                String operation = pickOperation();
+                long started = System.nanoTime();
+                boolean done = switch (operation) {
+                    case BOOK -> book();
+                    case CANCEL -> cancel();
+                    case RESCHEDULE -> reschedule();
+                    default -> read();
+                };
+                if (done) {
+                    series.get(operation).add(System.nanoTime() - started);
+                }
+            }
+        }
+
+        private String pickOperation() {
+            int pick = random.nextInt(totalWeight);
+            for (String operation : OPERATIONS) {
+                pick -= options.mix().getOrDefault(operation, 0);
+                if (pick < 0) {
+                    return operation;
+                }
+            }
+            return READ;
+        }
+
+        private boolean book() {
+            Appointment request = new Appointment(null, patient.getPatientId(), randomDoctor().getDoctorId(),
+                    randomDay(), randomSlot(), null, null);
+            try {
+                Appointment saved = appointmentService.bookAppointment(request);
+                if (!issuedAppointmentIds.add(saved.getAppointmentId())) {
+                    violations.add("appointmentId " + saved.getAppointmentId() + " issued twice");
+                }
+                expected.put(saved.getId(), new Expected(saved.getDate(), saved.getTime(), AppointmentStatus.PLANIFIE, saved.getVersion()));
+                planned.add(saved.getId());
+            } catch (RuntimeException e) {
+                return countFailure(e);
+            }
+            return true;
+        }
+
+        private boolean cancel() {
+            if (planned.isEmpty()) {
+                return false;
+            }
+            String id = planned.remove(random.nextInt(planned.size()));
+            try {
+                if (!appointmentService.cancelAppointment(id)) {
+                    violations.add("appointment " + id + " vanished before being cancelled");
+                }
+                expected.computeIfPresent(id, (key, state) -> new Expected(state.date(), state.time(), AppointmentStatus.ANNULE, null));
+            } catch (RuntimeException e) {
+                // Unknown outcome: no longer checked
+                expected.remove(id);
+                return countFailure(e);
+            }
+            return true;
+        }
+
+        private boolean reschedule() {
+            if (planned.isEmpty()) {
+                return false;
+            }
+            String id = planned.get(random.nextInt(planned.size()));
+            Expected current = expected.get(id);
+            Appointment details = new Appointment(null, null, null, randomDay(), randomSlot(), AppointmentStatus.PLANIFIE, "rescheduled");
+            details.setVersion(current.version());
+            try {
+                Appointment updated = appointmentService.updateAppointment(id, details);
+                if (updated == null) {
+                    violations.add("appointment " + id + " vanished before being rescheduled");
+                    return true;
+                }
+                expected.put(id, new Expected(updated.getDate(), updated.getTime(), updated.getStatus(), updated.getVersion()));
+            } catch (OptimisticLockingFailureException e) {
+                // Only this client writes the appointment, so someone else's write slipped in
+                violations.add("appointment " + id + " changed behind its owner: " + e.getMessage());
+                return false;
+            } catch (RuntimeException e) {
+                return countFailure(e);
+            }
+            return true;
+        }
+
+        private boolean read() {
+            try {
+                appointmentService.getAvailableSlots(randomDoctor().getDoctorId(), randomDay());
+            } catch (RuntimeException e) {
+                return countFailure(e);
+            }
+            return true;
+        }
+
+        private Doctor randomDoctor() {
+            return doctors.get(random.nextInt(doctors.size()));
+        }
+
+        private LocalDate randomDay() {
+            return firstDay.plusDays(random.nextInt(options.days()));
+        }
+
+        private String randomSlot() {
+            return slots.get(random.nextInt(slots.size()));
+        }
+    }
+
+    // A taken slot is the expected outcome of a race, anything else is an error
+    private boolean countFailure(RuntimeException e) {
+        if (e.getMessage() != null && e.getMessage().contains("available")) {
+            conflicts.increment();
+        } else {
+            errors.increment();
+            if (errors.sum() <= 5) {
+                System.out.println("Unexpected failure: " + e);
+            }
+        }
+        return false;
+    }
+
+    private record Expected(LocalDate date, String time, String status, Long version) {
+    }
+
+    private List<Appointment> stressAppointments() {
+        return doctors.stream()
+                .flatMap(doctor -> appointmentRepository.findByDoctorId(doctor.getDoctorId()).stream())
+                .toList();
+    }
+
+    private void checkNoDoubleBooking() {
+        Map<String, Long> planned = stressAppointments().stream()
+                .filter(appointment -> AppointmentStatus.PLANIFIE.equals(appointment.getStatus()))
+                .collect(Collectors.groupingBy(
+                        appointment -> appointment.getDoctorId() + " " + appointment.getDate() + " " + appointment.getTime(),
+                        Collectors.counting()));
+        planned.forEach((slot, count) -> {
+            if (count > 1) {
+                violations.add("double booking: " + count + " planned appointments at " + slot);
+            }
+        });
+    }
+
+    private void checkNoDuplicateAppointmentId() {
+        stressAppointments().stream()
+                .collect(Collectors.groupingBy(Appointment::getAppointmentId, Collectors.counting()))
+                .forEach((appointmentId, count) -> {
+                    if (count > 1) {
+                        violations.add("appointmentId " + appointmentId + " stored " + count + " times");
+                    }
+                });
+    }
+
+    private void checkNoLostUpdate() {
+        expected.forEach((id, state) -> {
+            Appointment stored = appointmentRepository.findById(id).orElse(null);
+            if (stored == null) {
+                violations.add("appointment " + id + " lost");
+            } else if (!Objects.equals(state.date(), stored.getDate()) || !Objects.equals(state.time(), stored.getTime())
+                    || !Objects.equals(state.status(), stored.getStatus())) {
+                violations.add("lost update on " + id + ": expected " + state.date() + " " + state.time() + " " + state.status()
+                        + ", found " + stored.getDate() + " " + stored.getTime() + " " + stored.getStatus());
+            }
+        });
+    }
+
+    /**
+     * Every client updates the same appointment with the version it read: one of them must win and
+     * the appointment must hold that client's change.
+     */
+    private void runVersionRace() {
+        LocalDate raceDay = firstDay.plusDays(options.days());
+        Doctor doctor = doctors.get(0);
+        Appointment appointment = appointmentService.bookAppointment(new Appointment(null, patients.get(0).getPatientId(),
+                doctor.getDoctorId(), raceDay, slots.get(0), null, null));
+        Long version = appointment.getVersion();
+
+        int racers = options.clients();
+        AtomicInteger winners = new AtomicInteger();
+        Map<Integer, Appointment> won = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int r = 0; r < racers; r++) {
+                int racer = r;
+                executor.execute(() -> {
+                    // Half of them only change the remarks, the others also move the appointment
+                    String time = racer % 2 == 0 || slots.size() == 1 ? slots.get(0) : slots.get(1 + racer % (slots.size() - 1));
+                    Appointment details = new Appointment(null, null, null, raceDay, time, AppointmentStatus.PLANIFIE, "racer-" + racer);
+                    details.setVersion(version);
+                    try {
+                        start.await();
+                        won.put(racer, appointmentService.updateAppointment(appointment.getId(), details));
+                        winners.incrementAndGet();
+                    } catch (OptimisticLockingFailureException e) {
+                        // Lost the race
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (RuntimeException e) {
+                        countFailure(e);
+                    }
+                });
+            }
+            start.countDown();
+        }
+
+        Appointment stored = appointmentRepository.findById(appointment.getId()).orElseThrow();
+        if (winners.get() != 1) {
+            violations.add("version race: " + winners.get() + " of " + racers + " updates with version " + version + " succeeded");
+        } else {
+            Appointment winner = won.values().iterator().next();
+            if (!Objects.equals(winner.getRemarks(), stored.getRemarks()) || !Objects.equals(winner.getTime(), stored.getTime())) {
+                violations.add("version race: stored " + stored.getTime() + " " + stored.getRemarks()
+                        + " but the winner wrote " + winner.getTime() + " " + winner.getRemarks());
+            }
+        }
+        System.out.printf("Version race: %d of %d updates with version %d succeeded%n", winners.get(), racers, version);
+    }
+
+    /**
+     * Cancels just booked appointments while they are being moved without a version (the service
+     * reads each one and moves it only if unchanged), many pairs at once. Either may win, but a
+     * successful cancel must stick: the appointment may not end up planned. The pairs only interleave
+     * inside an operation where it blocks, so the race is much tighter against MongoDB.
+     */
+    private void runCancelRace() {
+        int pairs = options.clients();
+        Random random = new Random(options.seed());
+        Doctor doctor = doctors.get(doctors.size() - 1);
+        String from = slots.get(0);
+        String to = slots.size() > 1 ? slots.get(1) : slots.get(0);
+        LocalDate firstRaceDay = firstDay.plusDays(options.days() + 1);
+        List<Appointment> booked = new ArrayList<>();
+        for (int p = 0; p < pairs; p++) {
+            booked.add(appointmentService.bookAppointment(new Appointment(null, patients.get(p).getPatientId(),
+                    doctor.getDoctorId(), firstRaceDay.plusDays(p), from, null, null)));
+        }
+
+        Set<String> cancelled = ConcurrentHashMap.newKeySet();
+        AtomicInteger moved = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Appointment appointment : booked) {
+                Runnable cancel = () -> {
+                    try {
+                        start.await();
+                        if (appointmentService.cancelAppointment(appointment.getId())) {
+                            cancelled.add(appointment.getId());
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (RuntimeException e) {
+                        countFailure(e);
+                    }
+                };
+                Runnable reschedule = () -> {
+                    Appointment details = new Appointment(null, null, null, appointment.getDate(), to,
+                            AppointmentStatus.PLANIFIE, "moved");
+                    try {
+                        start.await();
+                        if (appointmentService.updateAppointment(appointment.getId(), details) != null) {
+                            moved.incrementAndGet();
+                        }
+                    } catch (OptimisticLockingFailureException e) {
+                        // The cancel came in between the read and the move
+                        refused.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (RuntimeException e) {
+                        // Already cancelled when read: refused
+                        if (e.getMessage() == null || !e.getMessage().contains("cancelled")) {
+                            countFailure(e);
+                        }
+                    }
+                };
+                // Neither side always gets a head start
+                boolean cancelFirst = random.nextBoolean();
+                executor.execute(cancelFirst ? cancel : reschedule);
+                executor.execute(cancelFirst ? reschedule : cancel);
+            }
+            start.countDown();
+        }
+
+        for (Appointment appointment : booked) {
+            Appointment stored = appointmentRepository.findById(appointment.getId()).orElseThrow();
+            if (cancelled.contains(appointment.getId()) && !AppointmentStatus.ANNULE.equals(stored.getStatus())) {
+                violations.add("cancel race: " + appointment.getId() + " was cancelled but is " + stored.getStatus()
+                        + " at " + stored.getTime());
+            }
+        }
+        System.out.printf("Cancel race: %d pairs, the reschedule won %d, lost %d between its read and its move%n",
+                pairs, moved.get(), refused.get());
+    }
+
+    private void report() {
+        for (String operation : OPERATIONS) {
+            series.get(operation).print(operation, options.durationSeconds());
+        }
+        System.out.printf("conflicts (slot taken): %d, errors: %d, appointments checked: %d%n",
+                conflicts.sum(), errors.sum(), expected.size());
+        if (violations.isEmpty()) {
+            System.out.println("✓ No invariant violated");
+        } else {
+            System.out.println("❌ " + violations.size() + " invariant violation(s):");
+            violations.stream().limit(20).forEach(violation -> System.out.println("   " + violation));
+        }
+    }
+
+    private void cleanUp() {
+        appointmentRepository.deleteAll(stressAppointments());
+        doctorRepository.deleteAll(doctors);
+        patientRepository.deleteAll(patients);
+    }
+
+    private static final class Series {
+
+        private final LongAdder count = new LongAdder();
+        private long[] latencies = new long[1024];
+        private int size;
+
+        synchronized void add(long nanos) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = nanos;
+            count.increment();
+        }
+
+        long count() {
+            return count.sum();
+        }
+
+        synchronized void print(String label, int durationSeconds) {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            System.out.printf("%s: %d ok (%.0f/s)%n", label, sorted.length, sorted.length / (double) durationSeconds);
+            if (sorted.length > 0) {
+                System.out.printf("%s latency ms: p50 %.1f | p90 %.1f | p99 %.1f | max %.1f%n", label,
+                        percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                        sorted[sorted.length - 1] / 1e6);
+            }
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.ghp.gestionhospitale.bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Login burst against a running instance: N clients log in in a closed loop while a few other
+ * clients keep calling a cheap authenticated endpoint, to check that logins are bounded by the
+ * login pool (503 beyond it) and do not starve the other requests.
+ * <p>
+ * Not a unit test: run it from the IDE or with
+ * {@code java -cp target/test-classes com.ghp.gestionhospitale.bench.LoginBenchmark}
+ * and the options below as system properties.
+ * <ul>
+ *     <li>bench.url - base URL (default http://localhost:8081)</li>
+ *     <li>bench.clients - concurrent login clients (default 200)</li>
+ *     <li>bench.probes - concurrent clients on bench.probe-path (default 20)</li>
+ *     <li>bench.probe-path - default: availability of D2001 next Monday</li>
+ *     <li>bench.duration - seconds (default 30)</li>
+ *     <li>bench.username / bench.password - account used (default admin / admin)</li>
+ * </ul>
+ */
+public class LoginBenchmark {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("bench.url", "http://localhost:8081");
+        int clients = Integer.getInteger("bench.clients", 200);
+        int probes = Integer.getInteger("bench.probes", 20);
+        int durationSeconds = Integer.getInteger("bench.duration", 30);
+        String username = System.getProperty("bench.username", "admin");
+        String password = System.getProperty("bench.password", "admin");
+        LocalDate nextMonday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        String probePath = System.getProperty("bench.probe-path",
+                "/api/appointments/availability/D2001?date=" + nextMonday);
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        String body = "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}";
+        HttpRequest login = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpRequest probe = HttpRequest.newBuilder(URI.create(baseUrl + probePath))
+                .header("Authorization", "Bearer " + token(http, login))
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+
+        System.out.printf("Login benchmark: %d login clients, %d probe clients on %s, %ds%n",
+                clients, probes, probePath, durationSeconds);
+        Series logins = new Series();
+        Series probeCalls = new Series();
+        CountDownLatch done = new CountDownLatch(clients + probes);
+        long deadline = System.nanoTime() + Duration.ofSeconds(durationSeconds).toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients + probes; c++) {
+                HttpRequest request = c < clients ? login : probe;
+                Series series = c < clients ? logins : probeCalls;
+                executor.execute(() -> {
+                    try {
+                        loop(http, request, series, deadline);
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        }
+
+        logins.print("login", durationSeconds);
+        probeCalls.print("probe", durationSeconds);
+    }
+
+    private static void loop(HttpClient http, HttpRequest request, Series series, long deadline) {
+        long[] samples = new long[256];
+        int count = 0;
+        while (System.nanoTime() < deadline) {
+            long started = System.nanoTime();
+            try {
+                int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status == 503) {
+                    series.rejected.increment();
+                    continue;
+                }
+                if (status >= 400) {
+                    series.errors.increment();
+                    continue;
+                }
+            } catch (Exception e) {
+                series.errors.increment();
+                continue;
+            }
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = System.nanoTime() - started;
+        }
+        series.add(Arrays.copyOf(samples, count));
+    }
+
+    private static String token(HttpClient http, HttpRequest login) throws Exception {
+        HttpResponse<String> response = http.send(login, HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = TOKEN.matcher(response.body());
+        if (response.statusCode() != 200 || !matcher.find()) {
+            throw new IllegalStateException("Login failed (" + response.statusCode() + "): " + response.body());
+        }
+        return matcher.group(1);
+    }
+
+    private static final class Series {
+
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private long[] latencies = new long[0];
+
+        synchronized void add(long[] samples) {
+            int offset = latencies.length;
+            latencies = Arrays.copyOf(latencies, offset + samples.length);
+            System.arraycopy(samples, 0, latencies, offset, samples.length);
+        }
+
+        synchronized void print(String label, int durationSeconds) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            System.out.printf("%s: %d ok (%.0f/s), %d rejected (503), %d errors%n",
+                    label, sorted.length, sorted.length / (double) durationSeconds, rejected.sum(), errors.sum());
+            if (sorted.length > 0) {
+                System.out.printf("%s latency ms: p50 %.1f | p90 %.1f | p99 %.1f | max %.1f%n", label,
+                        percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                        sorted[sorted.length - 1] / 1e6);
+            }
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.ghp.gestionhospitale.bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop HTTP load client: N concurrent clients each send a request, wait for the response
+ * and send the next one, for a fixed duration. Used to compare the platform-thread and the
+ * virtual-thread modes (spring.threads.virtual.enabled) against a running instance.
+ * <p>
+ * Not a unit test: run it from the IDE or with
+ * {@code java -cp target/test-classes com.ghp.gestionhospitale.bench.ThroughputBenchmark}
+ * and the options below as system properties, once per mode, e.g.
+ * {@code -Dbench.clients=2000 -Dbench.duration=60}.
+ * <ul>
+ *     <li>bench.url - base URL (default http://localhost:8081)</li>
+ *     <li>bench.paths - comma-separated paths, used round-robin (default: availability of D2001 next Monday)</li>
+ *     <li>bench.clients - concurrent clients (default 1000)</li>
+ *     <li>bench.warmup / bench.duration - seconds (default 10 / 30)</li>
+ *     <li>bench.username / bench.password - account used to get a JWT (default admin / admin)</li>
+ * </ul>
+ */
+public class ThroughputBenchmark {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("bench.url", "http://localhost:8081");
+        int clients = Integer.getInteger("bench.clients", 1000);
+        int warmupSeconds = Integer.getInteger("bench.warmup", 10);
+        int durationSeconds = Integer.getInteger("bench.duration", 30);
+        LocalDate nextMonday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        List<String> paths = Arrays.asList(System.getProperty("bench.paths",
+                "/api/appointments/availability/D2001?date=" + nextMonday).split(","));
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        String token = login(http, baseUrl,
+                System.getProperty("bench.username", "admin"),
+                System.getProperty("bench.password", "admin"));
+
+        System.out.printf("Benchmark: %d clients, %ds warm-up, %ds measured, paths %s%n",
+                clients, warmupSeconds, durationSeconds, paths);
+        run(http, baseUrl, token, paths, clients, Duration.ofSeconds(warmupSeconds), false);
+        Result result = run(http, baseUrl, token, paths, clients, Duration.ofSeconds(durationSeconds), true);
+        result.print(durationSeconds);
+    }
+
+    private static Result run(HttpClient http, String baseUrl, String token, List<String> paths,
+                              int clients, Duration duration, boolean record) throws InterruptedException {
+        LongAdder errors = new LongAdder();
+        long[][] latencies = new long[clients][];
+        CountDownLatch done = new CountDownLatch(clients);
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        // Clients run on virtual threads so the load generator itself is never the limit
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int clientIndex = c;
+                executor.execute(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    int next = clientIndex;
+                    try {
+                        while (System.nanoTime() < deadline) {
+                            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + paths.get(next++ % paths.size())))
+                                    .header("Authorization", "Bearer " + token)
+                                    .timeout(Duration.ofSeconds(60))
+                                    .GET()
+                                    .build();
+                            long started = System.nanoTime();
+                            try {
+                                HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                                if (response.statusCode() >= 400) {
+                                    errors.increment();
+                                    continue;
+                                }
+                            } catch (Exception e) {
+                                errors.increment();
+                                continue;
+                            }
+                            if (count == samples.length) {
+                                samples = Arrays.copyOf(samples, count * 2);
+                            }
+                            samples[count++] = System.nanoTime() - started;
+                        }
+                    } finally {
+                        // Published to the main thread by the latch
+                        latencies[clientIndex] = Arrays.copyOf(samples, count);
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        }
+        return record ? new Result(latencies, errors.sum()) : null;
+    }
+
+    private static String login(HttpClient http, String baseUrl, String username, String password) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"))
+                .build();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = TOKEN.matcher(response.body());
+        if (response.statusCode() != 200 || !matcher.find()) {
+            throw new IllegalStateException("Login failed (" + response.statusCode() + "): " + response.body());
+        }
+        return matcher.group(1);
+    }
+
+    private record Result(long[][] latencies, long errors) {
+
+        void print(int durationSeconds) {
+            long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+            System.out.printf("requests: %d ok, %d errors%n", all.length, errors);
+            System.out.printf("throughput: %.0f req/s%n", all.length / (double) durationSeconds);
+            if (all.length > 0) {
+                System.out.printf("latency ms: p50 %.1f | p90 %.1f | p99 %.1f | max %.1f%n",
+                        percentile(all, 0.50), percentile(all, 0.90), percentile(all, 0.99),
+                        all[all.length - 1] / 1e6);
+            }
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
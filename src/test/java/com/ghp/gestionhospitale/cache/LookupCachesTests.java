@@ -0,0 +1,83 @@
+package com.ghp.gestionhospitale.cache;
+
+import com.ghp.gestionhospitale.config.CacheConf;
+import com.ghp.gestionhospitale.model.Appointment;
+import com.ghp.gestionhospitale.model.AppointmentStatus;
+import com.ghp.gestionhospitale.model.Doctor;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LookupCachesTests {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 7);
+
+    private final LookupCaches caches = new LookupCaches(
+            new CacheConf().cacheManager(new LookupCacheTtl(600, 30), 1000, 1000));
+
+    @Test
+    void doctorUpsertEvictsEveryIdentifierOfThatDoctorOnly() {
+        AtomicInteger loads = new AtomicInteger();
+        caches.doctor("D1", id -> load(loads, "id-1"));
+        caches.doctor("id-1", id -> load(loads, "id-1"));
+        caches.doctor("D2", id -> load(loads, "id-2"));
+        assertEquals(3, loads.get());
+
+        caches.onInvalidation(CacheInvalidationEvent.upsert("doctors", "id-1", doctor("id-1")));
+
+        caches.doctor("D1", id -> load(loads, "id-1"));
+        caches.doctor("id-1", id -> load(loads, "id-1"));
+        caches.doctor("D2", id -> load(loads, "id-2"));
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    void appointmentUpsertDropsOnlyThatDoctorsBookedTimes() {
+        AtomicInteger loads = new AtomicInteger();
+        caches.bookedSlots("D1", DAY, () -> slots(loads));
+        caches.bookedSlots("D1", DAY.plusDays(1), () -> slots(loads));
+        caches.bookedSlots("D2", DAY, () -> slots(loads));
+        caches.bookedSlots("D1", DAY, () -> slots(loads));
+        assertEquals(3, loads.get());
+
+        Appointment booked = new Appointment("A1", "P1", "D1", DAY, "10:00", AppointmentStatus.PLANIFIE, null);
+        caches.onInvalidation(CacheInvalidationEvent.upsert("appointments", "a-1", booked));
+
+        caches.bookedSlots("D1", DAY, () -> slots(loads));
+        caches.bookedSlots("D1", DAY.plusDays(1), () -> slots(loads));
+        caches.bookedSlots("D2", DAY, () -> slots(loads));
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    void sweepKeepsTheKeysOfCachedEntries() {
+        AtomicInteger loads = new AtomicInteger();
+        caches.doctor("D1", id -> load(loads, "id-1"));
+        caches.sweepKeyIndexes();
+
+        caches.onInvalidation(CacheInvalidationEvent.upsert("doctors", "id-1", doctor("id-1")));
+        caches.doctor("D1", id -> load(loads, "id-1"));
+        assertEquals(2, loads.get());
+    }
+
+    private static Optional<Doctor> load(AtomicInteger loads, String id) {
+        loads.incrementAndGet();
+        return Optional.of(doctor(id));
+    }
+
+    private static Doctor doctor(String id) {
+        Doctor doctor = new Doctor(null, "Doctor " + id, "General", id + "@example.org", "0000000000");
+        doctor.setId(id);
+        return doctor;
+    }
+
+    private static List<String> slots(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return List.of("09:00");
+    }
+}
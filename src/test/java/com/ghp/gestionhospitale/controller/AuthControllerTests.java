@@ -0,0 +1,92 @@
+package com.ghp.gestionhospitale.controller;
+
+import com.ghp.gestionhospitale.model.User;
+import com.ghp.gestionhospitale.security.LoginExecutor;
+import com.ghp.gestionhospitale.security.RefreshTokenService;
+import com.ghp.gestionhospitale.services.CustomUserDetailsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuthControllerTests {
+
+    private final AuthenticationManager authenticationManager = mock(AuthenticationManager.class);
+    private final RefreshTokenService refreshTokenService = mock(RefreshTokenService.class);
+    private final LoginExecutor loginExecutor = new LoginExecutor(1, 10, 2);
+
+    @AfterEach
+    void shutdown() {
+        loginExecutor.shutdown();
+    }
+
+    @Test
+    void badCredentialsAreUnauthorized() {
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+
+        assertEquals(401, login(Runnable::run).getStatusCode().value());
+    }
+
+    @Test
+    void accountLookupFailureIsUnavailable() {
+        when(authenticationManager.authenticate(any()))
+                .thenThrow(new InternalAuthenticationServiceException("Timed out waiting for a server"));
+
+        assertEquals(503, login(Runnable::run).getStatusCode().value());
+    }
+
+    @Test
+    void tokenStoreFailureIsUnavailable() {
+        authenticates();
+        when(refreshTokenService.issue(any())).thenThrow(new DataAccessResourceFailureException("MongoDB down"));
+
+        assertEquals(503, login(Runnable::run).getStatusCode().value());
+    }
+
+    @Test
+    void rejectedContinuationIsRetryable() {
+        authenticates();
+
+        ResponseEntity<?> response = login(task -> {
+            throw new RejectedExecutionException("Task executor saturated");
+        });
+        assertEquals(503, response.getStatusCode().value());
+        assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void unexpectedFailureIsAServerError() {
+        authenticates();
+        when(refreshTokenService.issue(any())).thenThrow(new IllegalStateException("No signing key"));
+
+        assertEquals(500, login(Runnable::run).getStatusCode().value());
+    }
+
+    private void authenticates() {
+        User user = new User("alice", "hash", "PATIENT", null);
+        when(authenticationManager.authenticate(any()))
+                .thenReturn(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    private ResponseEntity<?> login(Executor taskExecutor) {
+        AuthController controller = new AuthController(authenticationManager, null, null, null, null,
+                mock(CustomUserDetailsService.class), loginExecutor, refreshTokenService, taskExecutor);
+        AuthController.LoginRequest request = new AuthController.LoginRequest();
+        request.setUsername("alice");
+        request.setPassword("secret");
+        return controller.login(request).join();
+    }
+}
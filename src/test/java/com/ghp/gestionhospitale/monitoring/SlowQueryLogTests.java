@@ -0,0 +1,100 @@
+package com.ghp.gestionhospitale.monitoring;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class SlowQueryLogTests {
+
+    private static final ConnectionDescription CONNECTION =
+            new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress("localhost", 27017)));
+
+    @Test
+    void findShapeKeepsFieldsAndOperatorsOnly() {
+        BsonDocument find = BsonDocument.parse("""
+                {find: "appointments", filter: {doctorId: "D1", date: {$gte: "2026-01-05"}, status: "PLANIFIE"},
+                 sort: {date: 1, time: 1}}""");
+        assertEquals("{doctorId: ?, date: {$gte: ?}, status: ?} sort {\"date\": 1, \"time\": 1}",
+                SlowQueryLog.shapeOf("find", find));
+    }
+
+    @Test
+    void logicalOperatorsKeepTheirBranches() {
+        BsonDocument count = BsonDocument.parse("""
+                {count: "patients", query: {$or: [{name: {$regex: "^du"}}, {phone: "0600"}], archived: {$in: [1, 2]}}}""");
+        assertEquals("{$or: [{name: {$regex: ?}}, {phone: ?}], archived: {$in: ?}}",
+                SlowQueryLog.shapeOf("count", count));
+    }
+
+    @Test
+    void aggregateShapeListsStagesWithTheirMatch() {
+        BsonDocument aggregate = BsonDocument.parse("""
+                {aggregate: "appointments", pipeline: [{$match: {doctorId: "D1"}}, {$group: {_id: "$status"}},
+                 {$sort: {_id: 1}}], cursor: {}}""");
+        assertEquals("[$match{doctorId: ?}, $group, $sort]", SlowQueryLog.shapeOf("aggregate", aggregate));
+    }
+
+    @Test
+    void bulkWritesUseTheFirstStatement() {
+        BsonDocument update = BsonDocument.parse("""
+                {update: "appointments", updates: [{q: {_id: "A1", version: 3}, u: {$set: {time: "10:00"}}},
+                 {q: {_id: "A2"}, u: {}}]}""");
+        assertEquals("{_id: ?, version: ?}", SlowQueryLog.shapeOf("update", update));
+    }
+
+    @Test
+    void commandsWithoutAFilterHaveNoShape() {
+        assertEquals("", SlowQueryLog.shapeOf("insert", BsonDocument.parse("{insert: \"patients\", documents: []}")));
+        assertEquals("", SlowQueryLog.shapeOf("getMore", BsonDocument.parse("{getMore: 42, collection: \"patients\"}")));
+    }
+
+    @Test
+    void idleChangeStreamGetMoresAreNotRecorded() {
+        SlowQueryLog log = new SlowQueryLog(true, 0, 500, false, mock(ObjectProvider.class));
+
+        run(log, 1, "aggregate", """
+                {aggregate: 1, pipeline: [{$changeStream: {}}, {$match: {"ns.coll": {$in: ["doctors"]}}}], cursor: {}}""",
+                "{cursor: {id: 7, firstBatch: []}, ok: 1}");
+        // Waits for events without maxTimeMS when no maxAwaitTime is set
+        run(log, 2, "getMore", "{getMore: 7, collection: \"$cmd.aggregate\"}", "{cursor: {id: 7, nextBatch: []}, ok: 1}");
+        // Any other awaitData cursor
+        run(log, 3, "getMore", "{getMore: 8, collection: \"events\", maxTimeMS: 1000}", "{cursor: {id: 8, nextBatch: []}, ok: 1}");
+        // An ordinary cursor's next batch is still recorded
+        run(log, 4, "getMore", "{getMore: 9, collection: \"appointments\"}", "{cursor: {id: 0, nextBatch: [{}]}, ok: 1}");
+
+        assertEquals(List.of("aggregate", "getMore"), commands(log));
+
+        // Once the change stream is closed its id may be reused by an ordinary cursor
+        log.clear();
+        run(log, 5, "killCursors", "{killCursors: \"$cmd.aggregate\", cursors: [7]}", "{ok: 1}");
+        run(log, 6, "getMore", "{getMore: 7, collection: \"appointments\"}", "{cursor: {id: 0, nextBatch: []}, ok: 1}");
+        assertEquals(List.of("getMore"), commands(log));
+    }
+
+    private static void run(SlowQueryLog log, int requestId, String commandName, String command, String response) {
+        log.commandStarted(new CommandStartedEvent(null, requestId, requestId, CONNECTION, "ghp", commandName,
+                BsonDocument.parse(command)));
+        log.commandSucceeded(new CommandSucceededEvent(null, requestId, requestId, CONNECTION, "ghp", commandName,
+                BsonDocument.parse(response), TimeUnit.MILLISECONDS.toNanos(5)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> commands(SlowQueryLog log) {
+        return ((List<Map<String, Object>>) log.report(100).get("shapes")).stream()
+                .map(shape -> shape.get("command"))
+                .toList();
+    }
+}
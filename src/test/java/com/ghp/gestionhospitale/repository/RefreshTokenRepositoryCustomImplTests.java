@@ -0,0 +1,47 @@
+package com.ghp.gestionhospitale.repository;
+
+import com.ghp.gestionhospitale.model.RefreshToken;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenRepositoryCustomImplTests {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final RefreshTokenRepositoryCustomImpl repository = new RefreshTokenRepositoryCustomImpl(mongoTemplate);
+
+    @Test
+    void consumesWithASingleFindAndRemoveOnIdAndExpiry() {
+        Instant now = Instant.parse("2030-01-07T10:00:00Z");
+        RefreshToken stored = new RefreshToken("digest", "alice", now.minusSeconds(60), now.plusSeconds(60));
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(RefreshToken.class))).thenReturn(stored, (RefreshToken) null);
+
+        assertSame(stored, repository.consume("digest", now).orElseThrow());
+        // The document is gone after the first consume: a replayed token finds nothing
+        assertTrue(repository.consume("digest", now).isEmpty());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).findAndRemove(query.capture(), eq(RefreshToken.class));
+        Document filter = query.getValue().getQueryObject();
+        assertEquals("digest", filter.get("id"));
+        assertEquals(new Document("$gt", now), filter.get("expiresAt"));
+        // Never a read followed by a separate delete, which two refreshes could both pass
+        verify(mongoTemplate, never()).findOne(any(Query.class), eq(RefreshToken.class));
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(RefreshToken.class));
+    }
+}
@@ -0,0 +1,97 @@
+package com.ghp.gestionhospitale.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+class RateLimitFilterTests {
+
+    @Test
+    void classifiesEndpoints() {
+        assertEquals(RateLimitFilter.EndpointClass.AUTH, RateLimitFilter.classify(request("POST", "/api/auth/login")));
+        assertEquals(RateLimitFilter.EndpointClass.AUTH, RateLimitFilter.classify(request("POST", "/api/auth/refresh")));
+        assertEquals(RateLimitFilter.EndpointClass.REPORTS, RateLimitFilter.classify(request("GET", "/api/reports/monthly")));
+        assertEquals(RateLimitFilter.EndpointClass.AVAILABILITY,
+                RateLimitFilter.classify(request("GET", "/api/appointments/availability/d1")));
+        assertEquals(RateLimitFilter.EndpointClass.AVAILABILITY,
+                RateLimitFilter.classify(request("GET", "/api/reactive/appointments/availability/d1")));
+        assertEquals(RateLimitFilter.EndpointClass.BOOKING, RateLimitFilter.classify(request("POST", "/api/appointments")));
+        assertEquals(RateLimitFilter.EndpointClass.BOOKING, RateLimitFilter.classify(request("PUT", "/api/appointments/a1")));
+        assertNull(RateLimitFilter.classify(request("GET", "/api/appointments")));
+        assertNull(RateLimitFilter.classify(request("GET", "/api/patients")));
+    }
+
+    @Test
+    void classifiesWithoutTheContextPath() {
+        MockHttpServletRequest request = request("POST", "/ghp/api/auth/login");
+        request.setContextPath("/ghp");
+        assertEquals(RateLimitFilter.EndpointClass.AUTH, RateLimitFilter.classify(request));
+    }
+
+    @Test
+    void limitsLoginsPerUsernameAcrossAddresses() throws Exception {
+        RateLimitFilter filter = filter();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, login(filter, "10.0.0." + i, "Alice").getStatus(), "attempt " + i);
+        }
+        MockHttpServletResponse refused = login(filter, "10.0.0.9", "alice");
+        assertEquals(429, refused.getStatus());
+        // Another account from the same address still has its own budget
+        assertEquals(200, login(filter, "10.0.0.9", "bob").getStatus());
+    }
+
+    @Test
+    void replaysTheLoginBodyToTheController() throws Exception {
+        RateLimitFilter filter = filter();
+        byte[] body = "{\"username\":\"alice\",\"password\":\"secret\"}".getBytes(StandardCharsets.UTF_8);
+        MockHttpServletRequest request = request("POST", "/api/auth/login");
+        request.setContent(body);
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        assertArrayEquals(body, chain.getRequest().getInputStream().readAllBytes());
+    }
+
+    @Test
+    void readsTheSubmittedUsername() {
+        assertEquals("alice", RateLimitFilter.submittedUsername(json("{\"username\":\" Alice \",\"password\":\"x\"}")));
+        assertNull(RateLimitFilter.submittedUsername(json("{\"password\":\"x\"}")));
+        assertNull(RateLimitFilter.submittedUsername(json("{\"username\":42}")));
+        assertNull(RateLimitFilter.submittedUsername(json("not json")));
+        assertNull(RateLimitFilter.submittedUsername(new byte[0]));
+    }
+
+    private static RateLimitFilter filter() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("ratelimit.auth.capacity", "3")
+                .withProperty("ratelimit.auth.refill-per-second", "0.001");
+        return new RateLimitFilter(new TokenBucketStore(4), mock(VerifiedTokenCache.class), environment, true, 4);
+    }
+
+    private static MockHttpServletResponse login(RateLimitFilter filter, String address, String username)
+            throws Exception {
+        MockHttpServletRequest request = request("POST", "/api/auth/login");
+        request.setRemoteAddr(address);
+        request.setContentType("application/json");
+        request.setContent(json("{\"username\":\"" + username + "\",\"password\":\"wrong\"}"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        return new MockHttpServletRequest(method, uri);
+    }
+
+    private static byte[] json(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
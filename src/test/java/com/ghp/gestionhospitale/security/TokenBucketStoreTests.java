@@ -0,0 +1,104 @@
+package com.ghp.gestionhospitale.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketStoreTests {
+
+    // Refills one token every 1000 s: nothing comes back while a test runs
+    private static final TokenBucketStore.Limit SLOW = new TokenBucketStore.Limit(5, 0.001);
+
+    @Test
+    void allowsABurstUpToCapacityThenReportsTheWait() {
+        TokenBucketStore store = new TokenBucketStore(4);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, store.tryAcquire("user:AUTH:alice", SLOW), "request " + i);
+        }
+        long waitNanos = store.tryAcquire("user:AUTH:alice", SLOW);
+        assertTrue(waitNanos > TimeUnit.SECONDS.toNanos(990), "wait " + waitNanos);
+        assertTrue(waitNanos <= TimeUnit.SECONDS.toNanos(1000), "wait " + waitNanos);
+    }
+
+    @Test
+    void refusedRequestsTakeNoToken() {
+        TokenBucketStore store = new TokenBucketStore(4);
+        TokenBucketStore.Limit limit = new TokenBucketStore.Limit(1, 20);
+        assertEquals(0, store.tryAcquire("k", limit));
+        for (int i = 0; i < 100; i++) {
+            store.tryAcquire("k", limit);
+        }
+        // One 50 ms interval after the first request, however many were refused meanwhile
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (store.tryAcquire("k", limit) != 0) {
+            assertTrue(System.nanoTime() < deadline, "bucket never refilled");
+            Thread.onSpinWait();
+        }
+    }
+
+    @Test
+    void keysHaveSeparateBuckets() {
+        TokenBucketStore store = new TokenBucketStore(1);
+        for (int i = 0; i < 5; i++) {
+            store.tryAcquire("ip:AUTH:10.0.0.1", SLOW);
+        }
+        assertTrue(store.tryAcquire("ip:AUTH:10.0.0.1", SLOW) > 0);
+        assertEquals(0, store.tryAcquire("ip:AUTH:10.0.0.2", SLOW));
+    }
+
+    @Test
+    void concurrentRequestsNeverExceedCapacity() throws Exception {
+        TokenBucketStore store = new TokenBucketStore(16);
+        TokenBucketStore.Limit limit = new TokenBucketStore.Limit(50, 0.001);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(pool.submit(() -> {
+                    int allowed = 0;
+                    for (int i = 0; i < 100; i++) {
+                        if (store.tryAcquire("user:BOOKING:bob", limit) == 0) {
+                            allowed++;
+                        }
+                    }
+                    return allowed;
+                }));
+            }
+            int allowed = 0;
+            for (Future<Integer> result : results) {
+                allowed += result.get();
+            }
+            assertEquals(50, allowed);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void sweepDropsOnlyFullBuckets() {
+        TokenBucketStore store = new TokenBucketStore(4);
+        store.tryAcquire("drained", SLOW);
+        store.tryAcquire("refilled", new TokenBucketStore.Limit(10, 1_000_000));
+        assertEquals(2, store.size());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        do {
+            store.sweep();
+            assertTrue(System.nanoTime() < deadline, "refilled bucket never swept");
+        } while (store.size() > 1);
+        assertEquals(1, store.size());
+        // The drained bucket kept its state
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0, store.tryAcquire("drained", SLOW));
+        }
+        assertTrue(store.tryAcquire("drained", SLOW) > 0);
+    }
+}
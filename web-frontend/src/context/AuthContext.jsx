@@ -1,5 +1,5 @@
 import { createContext, useContext, useEffect, useMemo, useState } from 'react';
-import { authAPI, setAuthToken } from '../services/api';
+import { authAPI, setAuthToken, setRefreshToken, setSessionHandlers } from '../services/api';
 
 const AuthContext = createContext(null);
 
@@ -9,6 +9,15 @@ export const AuthProvider = ({ children }) => {
   const [initializing, setInitializing] = useState(true);
 
   useEffect(() => {
+    setSessionHandlers({
+      tokensRefreshed: (newToken, newRefreshToken) => {
+        setToken(newToken);
+        localStorage.setItem('authToken', newToken);
+        localStorage.setItem('refreshToken', newRefreshToken);
+      },
+      sessionExpired: () => clearSession(),
+    });
+
     const storedToken = localStorage.getItem('authToken');
     if (!storedToken) {
       setInitializing(false);
@@ -16,6 +25,7 @@ export const AuthProvider = ({ children }) => {
     }
 
     setAuthToken(storedToken);
+    setRefreshToken(localStorage.getItem('refreshToken'));
     setToken(storedToken);
     authAPI
       .me()
@@ -28,10 +38,12 @@ export const AuthProvider = ({ children }) => {
       .finally(() => setInitializing(false));
   }, []);
 
-  const persistSession = (newToken, profile) => {
+  const persistSession = (newToken, newRefreshToken, profile) => {
     setToken(newToken);
     setAuthToken(newToken);
+    setRefreshToken(newRefreshToken);
     localStorage.setItem('authToken', newToken);
+    localStorage.setItem('refreshToken', newRefreshToken);
     setUser(profile);
   };
 
@@ -39,7 +51,9 @@ export const AuthProvider = ({ children }) => {
     setToken(null);
     setUser(null);
     setAuthToken(null);
+    setRefreshToken(null);
     localStorage.removeItem('authToken');
+    localStorage.removeItem('refreshToken');
   };
 
   const login = async (username, password) => {
@@ -49,11 +63,16 @@ export const AuthProvider = ({ children }) => {
       role: data.role,
       patientId: data.patientId,
     };
-    persistSession(data.token, profile);
+    persistSession(data.token, data.refreshToken, profile);
     return profile;
   };
 
   const logout = () => {
+    // Revokes the access token and the refresh token server-side; the local session ends either way
+    const storedRefreshToken = localStorage.getItem('refreshToken');
+    if (token) {
+      authAPI.logout(token, storedRefreshToken).catch(() => {});
+    }
     clearSession();
   };
 
@@ -6,11 +6,24 @@ import axios from 'axios';
 const API_BASE_URL = import.meta.env.VITE_API_BASE_URL || '/api';
 
 let authToken = null;
+let refreshToken = null;
+// Set by AuthContext: called with the new token pair after a refresh, or when the session is over
+let onTokensRefreshed = () => {};
+let onSessionExpired = () => {};
 
 export const setAuthToken = (token) => {
   authToken = token;
 };
 
+export const setRefreshToken = (token) => {
+  refreshToken = token;
+};
+
+export const setSessionHandlers = ({ tokensRefreshed, sessionExpired }) => {
+  onTokensRefreshed = tokensRefreshed;
+  onSessionExpired = sessionExpired;
+};
+
 const api = axios.create({
   baseURL: API_BASE_URL,
   headers: {
@@ -25,8 +38,52 @@ api.interceptors.request.use((config) => {
   return config;
 });
 
+// Access tokens are short-lived: on a 401, trade the refresh token for a new pair once and retry.
+// Concurrent 401s share one refresh, since a refresh token can only be used once
+let refreshing = null;
+
+const refreshTokens = () => {
+  if (!refreshing) {
+    refreshing = axios
+      .post(`${API_BASE_URL}/auth/refresh`, { refreshToken })
+      .then(({ data }) => {
+        authToken = data.token;
+        refreshToken = data.refreshToken;
+        onTokensRefreshed(data.token, data.refreshToken);
+        return data.token;
+      })
+      .finally(() => {
+        refreshing = null;
+      });
+  }
+  return refreshing;
+};
+
+api.interceptors.response.use(
+  (response) => response,
+  async (error) => {
+    const original = error.config;
+    // /auth/me is an ordinary authenticated call; the others never carry a renewable access token
+    const isAuthCall = /^\/auth\/(login|register|refresh|logout)/.test(original?.url ?? '');
+    if (error.response?.status !== 401 || !original || original._retried || isAuthCall || !refreshToken) {
+      return Promise.reject(error);
+    }
+    original._retried = true;
+    try {
+      const token = await refreshTokens();
+      original.headers.Authorization = `Bearer ${token}`;
+      return api(original);
+    } catch (refreshError) {
+      onSessionExpired();
+      return Promise.reject(error);
+    }
+  },
+);
+
 export const authAPI = {
   login: (credentials) => api.post('/auth/login', credentials),
+  logout: (accessToken, refreshTokenValue) =>
+    api.post('/auth/logout', { refreshToken: refreshTokenValue }, { headers: { Authorization: `Bearer ${accessToken}` } }),
   register: (payload) => api.post('/auth/register', payload),
   registerAdmin: (payload) => api.post('/auth/register-admin', payload),
   me: () => api.get('/auth/me'),